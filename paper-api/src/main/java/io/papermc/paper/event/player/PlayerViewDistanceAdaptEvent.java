@@ -0,0 +1,79 @@
+package io.papermc.paper.event.player;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+import org.jetbrains.annotations.ApiStatus;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Called when the server adapts the distance it sends chunks and entities to a player in, because the server is
+ * overloaded or has recovered from being overloaded.
+ * <p>
+ * The adapted distance only ever lowers the view distance of the player, it never raises it above the view distance
+ * of the world or the one requested by the client. Cancelling the event keeps the current distance of the player.
+ */
+@NullMarked
+public class PlayerViewDistanceAdaptEvent extends PlayerEvent implements Cancellable {
+
+    private static final HandlerList HANDLER_LIST = new HandlerList();
+
+    private final int oldDistance;
+    private final int newDistance;
+    private boolean cancelled;
+
+    @ApiStatus.Internal
+    public PlayerViewDistanceAdaptEvent(final Player player, final int oldDistance, final int newDistance) {
+        super(player);
+        this.oldDistance = oldDistance;
+        this.newDistance = newDistance;
+    }
+
+    /**
+     * Gets the distance in chunks the player has before the adaption.
+     *
+     * @return the current distance
+     */
+    public int getOldDistance() {
+        return this.oldDistance;
+    }
+
+    /**
+     * Gets the distance in chunks the player will have after the adaption.
+     *
+     * @return the new distance
+     */
+    public int getNewDistance() {
+        return this.newDistance;
+    }
+
+    /**
+     * Gets whether the distance of the player is lowered because the server is overloaded, or raised again because
+     * the server has recovered.
+     *
+     * @return {@code true} if the distance is lowered
+     */
+    public boolean isReduction() {
+        return this.newDistance < this.oldDistance;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    @Override
+    public void setCancelled(final boolean cancel) {
+        this.cancelled = cancel;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+}
@@ -0,0 +1,79 @@
+package io.papermc.paper.event.world;
+
+import org.bukkit.World;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.world.WorldEvent;
+import org.jetbrains.annotations.ApiStatus;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Called when the server adapts the simulation distance of a world, because the server is overloaded or has
+ * recovered from being overloaded.
+ * <p>
+ * The simulation distance is never raised above the one the world had before the server first lowered it.
+ * Cancelling the event keeps the current simulation distance of the world.
+ */
+@NullMarked
+public class WorldSimulationDistanceAdaptEvent extends WorldEvent implements Cancellable {
+
+    private static final HandlerList HANDLER_LIST = new HandlerList();
+
+    private final int oldDistance;
+    private final int newDistance;
+    private boolean cancelled;
+
+    @ApiStatus.Internal
+    public WorldSimulationDistanceAdaptEvent(final World world, final int oldDistance, final int newDistance) {
+        super(world);
+        this.oldDistance = oldDistance;
+        this.newDistance = newDistance;
+    }
+
+    /**
+     * Gets the simulation distance in chunks the world has before the adaption.
+     *
+     * @return the current simulation distance
+     */
+    public int getOldDistance() {
+        return this.oldDistance;
+    }
+
+    /**
+     * Gets the simulation distance in chunks the world will have after the adaption.
+     *
+     * @return the new simulation distance
+     */
+    public int getNewDistance() {
+        return this.newDistance;
+    }
+
+    /**
+     * Gets whether the simulation distance is lowered because the server is overloaded, or raised again because
+     * the server has recovered.
+     *
+     * @return {@code true} if the simulation distance is lowered
+     */
+    public boolean isReduction() {
+        return this.newDistance < this.oldDistance;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    @Override
+    public void setCancelled(final boolean cancel) {
+        this.cancelled = cancel;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLER_LIST;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLER_LIST;
+    }
+}
@@ -0,0 +1,95 @@
+package io.papermc.paper.world.trigger;
+
+import java.util.Collection;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Unmodifiable;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * An axis-aligned volume in a world that notifies its {@link Handler} when players enter or leave it.
+ * <p>
+ * The server checks the position of every player against the trigger volumes of their world once per tick, so
+ * movement from packets, teleports, vehicles and knockback is handled alike. A player is inside a volume if the
+ * position of their feet is {@link BoundingBox#contains(double, double, double) contained} in its bounding box.
+ * Trigger volumes are a cheaper alternative to listening to {@link org.bukkit.event.player.PlayerMoveEvent} and
+ * testing the positions of the event against regions.
+ * <p>
+ * Trigger volumes are registered with {@link World#registerTriggerVolume(Plugin, BoundingBox, Handler)} and are
+ * unregistered without notifying their handler when their plugin is disabled. They must only be used from the main
+ * thread.
+ */
+@NullMarked
+@ApiStatus.Experimental
+public interface TriggerVolume {
+
+    /**
+     * Gets the world this trigger volume is in.
+     *
+     * @return the world
+     */
+    World getWorld();
+
+    /**
+     * Gets the plugin that registered this trigger volume.
+     *
+     * @return the plugin
+     */
+    Plugin getPlugin();
+
+    /**
+     * Gets a copy of the bounding box of this trigger volume.
+     *
+     * @return the bounding box
+     */
+    BoundingBox getBoundingBox();
+
+    /**
+     * Gets the players currently inside this trigger volume.
+     *
+     * @return an unmodifiable copy of the players inside
+     */
+    @Unmodifiable Collection<Player> getPlayers();
+
+    /**
+     * Checks whether this trigger volume is still registered.
+     *
+     * @return {@code true} if it is registered
+     */
+    boolean isRegistered();
+
+    /**
+     * Unregisters this trigger volume. Players inside it are notified that they left it.
+     */
+    void unregister();
+
+    /**
+     * Receives the players entering and leaving a trigger volume.
+     * <p>
+     * A player that entered a volume leaves it again before entering it another time. Players also leave a volume
+     * when they change worlds, disconnect or the volume is unregistered.
+     */
+    interface Handler {
+
+        /**
+         * Called when a player enters the trigger volume.
+         *
+         * @param player the player
+         * @param volume the trigger volume
+         */
+        default void onEnter(final Player player, final TriggerVolume volume) {
+        }
+
+        /**
+         * Called when a player leaves the trigger volume.
+         *
+         * @param player the player
+         * @param volume the trigger volume
+         */
+        default void onLeave(final Player player, final TriggerVolume volume) {
+        }
+    }
+}
@@ -746,6 +746,22 @@ public final class Bukkit {
         return server.matchPlayer(name);
     }
 
+    // Paper start - prefix-indexed player name lookup
+    /**
+     * Gets all online players whose name starts with the given prefix,
+     * ignoring case.
+     * <p>
+     * The returned list is sorted by the lower case names of the players.
+     *
+     * @param prefix the prefix of the names
+     * @return list of the matching players
+     */
+    @NotNull
+    public static List<Player> getOnlinePlayersByNamePrefix(@NotNull String prefix) {
+        return server.getOnlinePlayersByNamePrefix(prefix);
+    }
+    // Paper end - prefix-indexed player name lookup
+
     /**
      * Gets the player with the given UUID.
      *
@@ -2220,6 +2236,18 @@ public final class Bukkit {
         return server.getServerIcon();
     }
 
+    // Paper start - cache server list ping responses
+    /**
+     * Discards the cached responses to server list pings, so the next ping of every client creates a new response
+     * and fires a new {@link com.destroystokyo.paper.event.server.PaperServerListPingEvent}.
+     * <p>
+     * Responses are only cached if enabled in the server configuration.
+     */
+    public static void invalidateServerListPingCache() {
+        server.invalidateServerListPingCache();
+    }
+    // Paper end - cache server list ping responses
+
     /**
      * Loads an image from a file, and returns a cached image for the specific
      * server-icon.
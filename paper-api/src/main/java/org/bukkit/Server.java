@@ -666,6 +666,20 @@ public interface Server extends PluginMessageRecipient, net.kyori.adventure.audi
     @NotNull
     public List<Player> matchPlayer(@NotNull String name);
 
+    // Paper start - prefix-indexed player name lookup
+    /**
+     * Gets all online players whose name starts with the given prefix,
+     * ignoring case.
+     * <p>
+     * The returned list is sorted by the lower case names of the players.
+     *
+     * @param prefix the prefix of the names
+     * @return list of the matching players
+     */
+    @NotNull
+    List<Player> getOnlinePlayersByNamePrefix(@NotNull String prefix);
+    // Paper end - prefix-indexed player name lookup
+
     /**
      * Gets the player with the given UUID.
      *
@@ -1940,6 +1954,16 @@ public interface Server extends PluginMessageRecipient, net.kyori.adventure.audi
     @Nullable
     CachedServerIcon getServerIcon();
 
+    // Paper start - cache server list ping responses
+    /**
+     * Discards the cached responses to server list pings, so the next ping of every client creates a new response
+     * and fires a new {@link com.destroystokyo.paper.event.server.PaperServerListPingEvent}.
+     * <p>
+     * Responses are only cached if enabled in the server configuration.
+     */
+    void invalidateServerListPingCache();
+    // Paper end - cache server list ping responses
+
     /**
      * Loads an image from a file, and returns a cached image for the specific
      * server-icon.
@@ -149,6 +149,50 @@ public interface World extends RegionAccessor, WorldInfo, PluginMessageRecipient
         return this.isChunkLoaded(position.blockX() >> 4, position.blockZ() >> 4);
     }
     // Paper end
+    // Paper start - trigger volumes
+    /**
+     * Registers a trigger volume in this world, notifying the handler whenever a player enters or leaves the
+     * bounding box.
+     * <p>
+     * Players already inside the bounding box enter the volume the next time their position is checked.
+     *
+     * @param plugin the plugin owning the trigger volume
+     * @param boundingBox the bounding box of the trigger volume, it is copied
+     * @param handler the handler to notify
+     * @return the registered trigger volume
+     * @see io.papermc.paper.world.trigger.TriggerVolume
+     */
+    @org.jetbrains.annotations.ApiStatus.Experimental
+    io.papermc.paper.world.trigger.@NotNull TriggerVolume registerTriggerVolume(@NotNull Plugin plugin, @NotNull BoundingBox boundingBox, io.papermc.paper.world.trigger.TriggerVolume.@NotNull Handler handler);
+
+    /**
+     * Gets all trigger volumes registered in this world.
+     *
+     * @return an unmodifiable copy of the trigger volumes
+     */
+    @org.jetbrains.annotations.ApiStatus.Experimental
+    @NotNull @org.jetbrains.annotations.Unmodifiable Collection<io.papermc.paper.world.trigger.TriggerVolume> getTriggerVolumes();
+
+    /**
+     * Gets the trigger volumes in this world containing the given position.
+     *
+     * @param x X-coordinate of the position
+     * @param y Y-coordinate of the position
+     * @param z Z-coordinate of the position
+     * @return an unmodifiable copy of the trigger volumes containing the position
+     */
+    @org.jetbrains.annotations.ApiStatus.Experimental
+    @NotNull @org.jetbrains.annotations.Unmodifiable Collection<io.papermc.paper.world.trigger.TriggerVolume> getTriggerVolumesAt(double x, double y, double z);
+
+    /**
+     * Unregisters all trigger volumes of the plugin in this world. Players inside them are notified that they left
+     * them.
+     *
+     * @param plugin the plugin
+     */
+    @org.jetbrains.annotations.ApiStatus.Experimental
+    void removePluginTriggerVolumes(@NotNull Plugin plugin);
+    // Paper end - trigger volumes
 
     /**
      * Gets the {@link Block} at the given coordinates
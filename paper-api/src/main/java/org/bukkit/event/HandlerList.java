@@ -206,6 +206,18 @@ public class HandlerList {
         return handlers;
     }
 
+    /**
+     * Checks if any listeners are registered to this handler list.
+     * <p>
+     * This is cheaper than calling the event and can be used to avoid
+     * creating an event object when nobody would receive it.
+     *
+     * @return whether any listeners are registered
+     */
+    public boolean hasListeners() {
+        return getRegisteredListeners().length != 0;
+    }
+
     /**
      * Get a specific plugin's registered listeners associated with this
      * handler list
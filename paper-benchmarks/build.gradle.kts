@@ -0,0 +1,61 @@
+plugins {
+    java
+}
+
+val jmhVersion = "1.37"
+
+// Configure mockito agent that is needed in newer java versions
+val mockitoAgent = configurations.register("mockitoAgent")
+
+dependencies {
+    implementation(project(":paper-server", "runtimeConfiguration"))
+    implementation("org.openjdk.jmh:jmh-core:$jmhVersion")
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
+    implementation("org.mockito:mockito-core:5.14.1")
+    mockitoAgent("org.mockito:mockito-core:5.14.1") { isTransitive = false }
+}
+
+abstract class JmhArgumentProvider : CommandLineArgumentProvider {
+    @get:CompileClasspath
+    abstract val mockitoAgent: ConfigurableFileCollection
+
+    @get:Input
+    abstract val include: Property<String>
+
+    @get:Input
+    abstract val extraArgs: ListProperty<String>
+
+    @get:OutputFile
+    abstract val resultFile: RegularFileProperty
+
+    override fun asArguments(): Iterable<String> {
+        val args = mutableListOf<String>()
+        args.add(include.get())
+        args.addAll(listOf("-prof", "gc"))
+        args.addAll(listOf("-rf", "json", "-rff", resultFile.get().asFile.absolutePath))
+        args.addAll(listOf("-jvmArgsAppend", "-javaagent:" + mockitoAgent.files.single().absolutePath + " --add-modules=jdk.incubator.vector"))
+        args.addAll(extraArgs.get())
+        return args
+    }
+}
+
+// Usage: ./gradlew :paper-benchmarks:jmh [-Ppaper.jmh.include=AntiXray] [-Ppaper.jmh.args="-f 1 -wi 2 -i 3"]
+tasks.register<JavaExec>("jmh") {
+    group = "benchmarks"
+    description = "Run the JMH benchmark suites against the current server build"
+    mainClass.set("org.openjdk.jmh.Main")
+    classpath(sourceSets.main.map { it.runtimeClasspath })
+    workingDir = layout.buildDirectory.dir("jmh").get().asFile
+    outputs.upToDateWhen { false }
+
+    val provider = objects.newInstance<JmhArgumentProvider>()
+    provider.mockitoAgent.from(mockitoAgent)
+    provider.include.set(providers.gradleProperty("paper.jmh.include").orElse(".*"))
+    provider.extraArgs.set(providers.gradleProperty("paper.jmh.args").map { it.split(' ').filter(String::isNotBlank) }.orElse(emptyList()))
+    provider.resultFile.set(layout.buildDirectory.file("jmh/results.json"))
+    argumentProviders.add(provider)
+
+    doFirst {
+        workingDir.mkdirs()
+    }
+}
@@ -0,0 +1,168 @@
+package io.papermc.paper.antixray;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import io.netty.buffer.Unpooled;
+import io.papermc.paper.benchmark.BenchmarkBootstrap;
+import io.papermc.paper.configuration.WorldConfiguration;
+import io.papermc.paper.configuration.type.EngineMode;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs {@link ChunkPacketBlockControllerAntiXray#obfuscate(ChunkPacketInfoAntiXray)} over a synthetic
+ * overworld-like chunk (stone and deepslate with caves and ores) the same way the chunk packet does:
+ * the sections are serialized into a fresh packet buffer and obfuscated in place.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AntiXrayBenchmark {
+
+    private static final int MIN_SECTION_Y = -4;
+    private static final int SECTIONS = 24;
+
+    @Param({"HIDE", "OBFUSCATE", "OBFUSCATE_LAYER"})
+    public EngineMode engineMode;
+
+    @Param({"64"})
+    public int maxBlockHeight;
+
+    @Param({"false", "true"})
+    public boolean cacheObfuscatedSections;
+
+    @Param({"false", "true"})
+    public boolean useVectorApi;
+
+    private ChunkPacketBlockControllerAntiXray controller;
+    private ClientboundLevelChunkWithLightPacket packet;
+    private LevelChunk chunk;
+    private int bufferSize;
+
+    @Setup
+    public void setup() {
+        final Registry<Biome> biomes = BenchmarkBootstrap.setup().lookupOrThrow(Registries.BIOME);
+        final Holder<Biome> plains = biomes.getOrThrow(Biomes.PLAINS);
+
+        // Config parts are inner classes bound to the world configuration, use a stub and set the values directly
+        final WorldConfiguration.Anticheat.AntiXray config = mock(withSettings().stubOnly());
+        config.enabled = true;
+        config.engineMode = this.engineMode;
+        config.maxBlockHeight = this.maxBlockHeight;
+        config.updateRadius = 2;
+        config.lavaObscures = false;
+        config.usePermission = false;
+        config.hiddenBlocks = List.of(Blocks.DIAMOND_ORE, Blocks.DEEPSLATE_DIAMOND_ORE, Blocks.IRON_ORE, Blocks.DEEPSLATE_IRON_ORE, Blocks.GOLD_ORE, Blocks.COAL_ORE, Blocks.REDSTONE_ORE);
+        config.replacementBlocks = List.of(Blocks.STONE, Blocks.OAK_PLANKS, Blocks.DEEPSLATE);
+        config.cacheObfuscatedSections = this.cacheObfuscatedSections;
+        config.obfuscatedSectionCacheSize = 4096;
+        config.useVectorApi = this.useVectorApi;
+        this.controller = new ChunkPacketBlockControllerAntiXray(config, EmptyBlockGetter.INSTANCE, Runnable::run);
+
+        final Level level = mock(withSettings().stubOnly().defaultAnswer(RETURNS_DEEP_STUBS));
+        when(level.getWorld().getEnvironment()).thenReturn(World.Environment.NORMAL);
+
+        final SplittableRandom random = new SplittableRandom(0L);
+        final BlockState[] ores = config.hiddenBlocks.stream().map(Block::defaultBlockState).toArray(BlockState[]::new);
+        final LevelChunkSection[] sections = new LevelChunkSection[SECTIONS];
+        final ChunkPos chunkPos = new ChunkPos(0, 0);
+        for (int sectionIndex = 0; sectionIndex < SECTIONS; ++sectionIndex) {
+            final int sectionY = sectionIndex + MIN_SECTION_Y;
+            final PalettedContainer<BlockState> states = new PalettedContainer<>(
+                Block.BLOCK_STATE_REGISTRY, Blocks.AIR.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES,
+                this.controller.getPresetBlockStates(level, chunkPos, sectionY)
+            );
+            final PalettedContainer<Holder<Biome>> biomeStates = new PalettedContainer<>(biomes.asHolderIdMap(), plains, PalettedContainer.Strategy.SECTION_BIOMES, null);
+            final LevelChunkSection section = new LevelChunkSection(states, biomeStates);
+            if (sectionY < 4) {
+                final BlockState base = sectionY < 0 ? Blocks.DEEPSLATE.defaultBlockState() : Blocks.STONE.defaultBlockState();
+                for (int y = 0; y < 16; ++y) {
+                    for (int z = 0; z < 16; ++z) {
+                        for (int x = 0; x < 16; ++x) {
+                            final int roll = random.nextInt(100);
+                            final BlockState state = roll < 8 ? Blocks.AIR.defaultBlockState() : roll < 10 ? ores[random.nextInt(ores.length)] : base;
+                            section.setBlockState(x, y, z, state, false);
+                        }
+                    }
+                }
+            }
+            sections[sectionIndex] = section;
+        }
+
+        this.chunk = mock(withSettings().stubOnly());
+        when(this.chunk.getLevel()).thenReturn(level);
+        when(this.chunk.getSections()).thenReturn(sections);
+        when(this.chunk.getSectionsCount()).thenReturn(SECTIONS);
+        when(this.chunk.getMinSectionY()).thenReturn(MIN_SECTION_Y);
+        when(this.chunk.getPos()).thenReturn(chunkPos);
+
+        this.packet = mock(withSettings().stubOnly());
+
+        int size = 0;
+        for (final LevelChunkSection section : sections) {
+            size += section.getSerializedSize();
+        }
+        this.bufferSize = size;
+    }
+
+    private ChunkPacketInfoAntiXray writeSections() {
+        final ChunkPacketInfoAntiXray info = new ChunkPacketInfoAntiXray(this.packet, this.chunk, this.controller);
+        final byte[] buffer = new byte[this.bufferSize];
+        info.setBuffer(buffer);
+        info.setNearbyChunks(null, null, null, null);
+        final FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(buffer));
+        buf.writerIndex(0);
+        final LevelChunkSection[] sections = this.chunk.getSections();
+        for (int i = 0; i < sections.length; ++i) {
+            sections[i].write(buf, info, i);
+        }
+        return info;
+    }
+
+    @Benchmark
+    public byte[] serializeOnly() {
+        return this.writeSections().getBuffer();
+    }
+
+    @Benchmark
+    public byte[] serializeAndObfuscate() {
+        final ChunkPacketInfoAntiXray info = this.writeSections();
+        this.controller.obfuscate(info);
+        return info.getBuffer();
+    }
+}
@@ -0,0 +1,88 @@
+package io.papermc.paper.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.List;
+import java.util.logging.Logger;
+import net.minecraft.SharedConstants;
+import net.minecraft.commands.Commands;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.LayeredRegistryAccess;
+import net.minecraft.core.Registry;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.resources.RegistryDataLoader;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.server.RegistryLayer;
+import net.minecraft.server.ReloadableServerResources;
+import net.minecraft.server.packs.PackType;
+import net.minecraft.server.packs.repository.Pack;
+import net.minecraft.server.packs.repository.PackRepository;
+import net.minecraft.server.packs.repository.ServerPacksSource;
+import net.minecraft.server.packs.resources.MultiPackResourceManager;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.tags.TagLoader;
+import net.minecraft.world.flag.FeatureFlags;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.Warning;
+import org.bukkit.craftbukkit.CraftRegistry;
+import org.bukkit.craftbukkit.inventory.CraftItemFactory;
+import org.bukkit.craftbukkit.util.CraftMagicNumbers;
+
+/**
+ * Bootstraps the vanilla registries and a stub Bukkit server exactly once per forked benchmark JVM.
+ * <p>
+ * Mirrors the "AllFeatures" unit test environment, so benchmarks see real registries and data packs
+ * rather than mocks, while keeping the one-time cost out of the measured region.
+ */
+public final class BenchmarkBootstrap {
+
+    private static RegistryAccess.Frozen registry;
+
+    private BenchmarkBootstrap() {
+    }
+
+    public static synchronized RegistryAccess.Frozen setup() {
+        if (BenchmarkBootstrap.registry != null) {
+            return BenchmarkBootstrap.registry;
+        }
+
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+
+        final PackRepository packRepository = ServerPacksSource.createVanillaTrustedRepository();
+        packRepository.reload();
+        final MultiPackResourceManager resourceManager = new MultiPackResourceManager(PackType.SERVER_DATA, packRepository.getAvailablePacks().stream().map(Pack::open).toList());
+
+        final LayeredRegistryAccess<RegistryLayer> layeredAccess = RegistryLayer.createRegistryAccess();
+        final List<Registry.PendingTags<?>> pendingTags = TagLoader.loadTagsForExistingRegistries(resourceManager, layeredAccess.getLayer(RegistryLayer.STATIC));
+        final RegistryAccess.Frozen worldgenLoading = layeredAccess.getAccessForLoading(RegistryLayer.WORLDGEN);
+        final List<HolderLookup.RegistryLookup<?>> lookups = TagLoader.buildUpdatedLookups(worldgenLoading, pendingTags);
+        final RegistryAccess.Frozen worldgen = RegistryDataLoader.load((ResourceManager) resourceManager, lookups, RegistryDataLoader.WORLDGEN_REGISTRIES);
+        final LayeredRegistryAccess<RegistryLayer> layers = layeredAccess.replaceFrom(RegistryLayer.WORLDGEN, worldgen);
+        try {
+            Class.forName("org.bukkit.Registry");
+        } catch (final ClassNotFoundException ignored) {}
+        final RegistryAccess.Frozen frozen = layers.compositeAccess().freeze();
+        ReloadableServerResources.loadResources(resourceManager, layers, pendingTags, FeatureFlags.REGISTRY.allFlags(), Commands.CommandSelection.DEDICATED, 0, MoreExecutors.directExecutor(), MoreExecutors.directExecutor())
+            .join()
+            .updateStaticRegistryTags();
+
+        final Server server = mock(withSettings().stubOnly());
+        when(server.getItemFactory()).thenAnswer(ignored -> CraftItemFactory.instance());
+        when(server.getName()).thenReturn(BenchmarkBootstrap.class.getName());
+        when(server.getLogger()).thenReturn(Logger.getLogger(BenchmarkBootstrap.class.getCanonicalName()));
+        when(server.getUnsafe()).thenAnswer(ignored -> CraftMagicNumbers.INSTANCE);
+        when(server.getWarningState()).thenReturn(Warning.WarningState.DEFAULT);
+        // benchmarks call events from the JMH worker threads, treat all of them as the primary thread
+        when(server.isPrimaryThread()).thenReturn(true);
+        Bukkit.setServer(server);
+        CraftRegistry.setMinecraftRegistry(frozen);
+
+        BenchmarkBootstrap.registry = frozen;
+        return frozen;
+    }
+}
@@ -0,0 +1,85 @@
+package io.papermc.paper.benchmark.collection;
+
+import ca.spottedleaf.moonrise.common.list.IteratorSafeOrderedReferenceSet;
+import ca.spottedleaf.moonrise.common.list.ReferenceList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReferenceListBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int size;
+
+    private Object[] elements;
+    private ReferenceList<Object> list;
+    private IteratorSafeOrderedReferenceSet<Object> set;
+
+    @Setup
+    public void setup() {
+        this.elements = new Object[this.size];
+        this.list = new ReferenceList<>();
+        this.set = new IteratorSafeOrderedReferenceSet<>();
+        for (int i = 0; i < this.size; ++i) {
+            this.elements[i] = new Object();
+            this.list.add(this.elements[i]);
+            this.set.add(this.elements[i]);
+        }
+    }
+
+    @Benchmark
+    public void referenceListIterate(final Blackhole blackhole) {
+        final Object[] raw = this.list.getRawDataUnchecked();
+        for (int i = 0, len = this.list.size(); i < len; ++i) {
+            blackhole.consume(raw[i]);
+        }
+    }
+
+    @Benchmark
+    public void referenceListChurn(final Blackhole blackhole) {
+        for (final Object element : this.elements) {
+            this.list.remove(element);
+        }
+        for (final Object element : this.elements) {
+            blackhole.consume(this.list.add(element));
+        }
+    }
+
+    @Benchmark
+    public void orderedSetIterate(final Blackhole blackhole) {
+        final IteratorSafeOrderedReferenceSet.Iterator<Object> iterator = this.set.iterator();
+        try {
+            while (iterator.hasNext()) {
+                blackhole.consume(iterator.next());
+            }
+        } finally {
+            iterator.finishedIterating();
+        }
+    }
+
+    @Benchmark
+    public void orderedSetChurn(final Blackhole blackhole) {
+        for (final Object element : this.elements) {
+            this.set.remove(element);
+        }
+        for (final Object element : this.elements) {
+            blackhole.consume(this.set.add(element));
+        }
+    }
+}
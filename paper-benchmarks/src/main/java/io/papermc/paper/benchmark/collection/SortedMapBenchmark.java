@@ -0,0 +1,66 @@
+package io.papermc.paper.benchmark.collection;
+
+import ca.spottedleaf.moonrise.common.map.Long2ObjectArraySortedMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SortedMapBenchmark {
+
+    @Param({"8", "64", "512"})
+    public int size;
+
+    private long[] keys;
+    private Long2ObjectArraySortedMap<Object> map;
+
+    @Setup
+    public void setup() {
+        final SplittableRandom random = new SplittableRandom(0L);
+        this.keys = new long[this.size];
+        this.map = new Long2ObjectArraySortedMap<>();
+        for (int i = 0; i < this.size; ++i) {
+            this.keys[i] = random.nextLong();
+            this.map.put(this.keys[i], Long.valueOf(this.keys[i]));
+        }
+    }
+
+    @Benchmark
+    public void get(final Blackhole blackhole) {
+        for (final long key : this.keys) {
+            blackhole.consume(this.map.get(key));
+        }
+    }
+
+    @Benchmark
+    public void getFloor(final Blackhole blackhole) {
+        for (final long key : this.keys) {
+            blackhole.consume(this.map.getFloor(key + 1L));
+        }
+    }
+
+    @Benchmark
+    public Long2ObjectArraySortedMap<Object> populate() {
+        final Long2ObjectArraySortedMap<Object> ret = new Long2ObjectArraySortedMap<>();
+        for (final long key : this.keys) {
+            ret.computeIfAbsent(key, Long::valueOf);
+        }
+        return ret;
+    }
+}
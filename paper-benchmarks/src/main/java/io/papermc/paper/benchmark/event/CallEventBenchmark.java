@@ -0,0 +1,155 @@
+package io.papermc.paper.benchmark.event;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import io.papermc.paper.benchmark.BenchmarkBootstrap;
+import io.papermc.paper.plugin.manager.PaperPluginManagerImpl;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.bukkit.Bukkit;
+import org.bukkit.command.SimpleCommandMap;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@code PaperEventManager#callEvent} through the plugin manager for an event without listeners
+ * and an event with listeners spread over every priority, half of them ignoring cancelled events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CallEventBenchmark {
+
+    @Param({"1", "10", "60"})
+    public int listeners;
+
+    private PaperPluginManagerImpl pluginManager;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkBootstrap.setup();
+        this.pluginManager = new PaperPluginManagerImpl(Bukkit.getServer(), new SimpleCommandMap(Bukkit.getServer(), new HashMap<>()), null);
+
+        final Plugin plugin = mock(withSettings().stubOnly());
+        when(plugin.isEnabled()).thenReturn(true);
+        when(plugin.getName()).thenReturn("Benchmark");
+        when(plugin.getLogger()).thenReturn(Logger.getLogger("Benchmark"));
+
+        for (int i = 0; i < this.listeners; ++i) {
+            this.pluginManager.registerEvents(i % 2 == 0 ? new BenchmarkListener() : new IgnoreCancelledListener(), plugin);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        HandlerList.unregisterAll();
+    }
+
+    @Benchmark
+    public Event noListeners() {
+        final UnlistenedEvent event = new UnlistenedEvent();
+        this.pluginManager.callEvent(event);
+        return event;
+    }
+
+    @Benchmark
+    public Event listened() {
+        final BenchmarkEvent event = new BenchmarkEvent();
+        this.pluginManager.callEvent(event);
+        return event;
+    }
+
+    public static final class BenchmarkListener implements Listener {
+
+        private int calls;
+
+        @EventHandler(priority = EventPriority.LOW)
+        public void onLow(final BenchmarkEvent event) {
+            this.calls++;
+        }
+
+        @EventHandler(priority = EventPriority.HIGH)
+        public void onHigh(final BenchmarkEvent event) {
+            event.setCancelled((this.calls & 1) == 0);
+        }
+    }
+
+    public static final class IgnoreCancelledListener implements Listener {
+
+        private int calls;
+
+        @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+        public void onNormal(final BenchmarkEvent event) {
+            this.calls++;
+        }
+
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onMonitor(final BenchmarkEvent event) {
+            this.calls++;
+        }
+    }
+
+    public static final class BenchmarkEvent extends Event implements Cancellable {
+
+        private static final HandlerList HANDLER_LIST = new HandlerList();
+        private boolean cancelled;
+
+        @Override
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        @Override
+        public void setCancelled(final boolean cancel) {
+            this.cancelled = cancel;
+        }
+
+        @Override
+        public @NotNull HandlerList getHandlers() {
+            return HANDLER_LIST;
+        }
+
+        public static @NotNull HandlerList getHandlerList() {
+            return HANDLER_LIST;
+        }
+    }
+
+    public static final class UnlistenedEvent extends Event {
+
+        private static final HandlerList HANDLER_LIST = new HandlerList();
+
+        @Override
+        public @NotNull HandlerList getHandlers() {
+            return HANDLER_LIST;
+        }
+
+        public static @NotNull HandlerList getHandlerList() {
+            return HANDLER_LIST;
+        }
+    }
+}
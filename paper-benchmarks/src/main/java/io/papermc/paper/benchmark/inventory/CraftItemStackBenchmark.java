@@ -0,0 +1,68 @@
+package io.papermc.paper.benchmark.inventory;
+
+import io.papermc.paper.benchmark.BenchmarkBootstrap;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.Items;
+import org.bukkit.Material;
+import org.bukkit.craftbukkit.inventory.CraftItemStack;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CraftItemStackBenchmark {
+
+    private net.minecraft.world.item.ItemStack plainHandle;
+    private net.minecraft.world.item.ItemStack namedHandle;
+    private ItemStack apiStack;
+
+    @Setup
+    public void setup() {
+        BenchmarkBootstrap.setup();
+        this.plainHandle = new net.minecraft.world.item.ItemStack(Items.STONE, 32);
+        this.namedHandle = new net.minecraft.world.item.ItemStack(Items.DIAMOND_SWORD);
+        this.namedHandle.set(DataComponents.CUSTOM_NAME, Component.literal("Benchmark"));
+        this.apiStack = ItemStack.of(Material.DIAMOND_SWORD);
+    }
+
+    @Benchmark
+    public ItemStack asBukkitCopyPlain() {
+        return CraftItemStack.asBukkitCopy(this.plainHandle);
+    }
+
+    @Benchmark
+    public ItemStack asBukkitCopyNamed() {
+        return CraftItemStack.asBukkitCopy(this.namedHandle);
+    }
+
+    @Benchmark
+    public ItemStack asCraftMirror() {
+        return CraftItemStack.asCraftMirror(this.namedHandle);
+    }
+
+    @Benchmark
+    public net.minecraft.world.item.ItemStack asNMSCopy() {
+        return CraftItemStack.asNMSCopy(this.apiStack);
+    }
+
+    @Benchmark
+    public ItemMeta getItemMeta() {
+        return CraftItemStack.asCraftMirror(this.namedHandle).getItemMeta();
+    }
+}
@@ -0,0 +1,73 @@
+package io.papermc.paper.benchmark.misc;
+
+import ca.spottedleaf.moonrise.common.misc.Delayed8WayDistancePropagator2D;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Simulates ticket sources (players) walking around, which is the common update pattern for the propagator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistancePropagatorBenchmark {
+
+    @Param({"10", "100"})
+    public int sources;
+
+    @Param({"12", "32"})
+    public int level;
+
+    private Delayed8WayDistancePropagator2D propagator;
+    private int[] x;
+    private int[] z;
+    private SplittableRandom random;
+
+    @Setup
+    public void setup() {
+        this.random = new SplittableRandom(0L);
+        this.propagator = new Delayed8WayDistancePropagator2D();
+        this.x = new int[this.sources];
+        this.z = new int[this.sources];
+        for (int i = 0; i < this.sources; ++i) {
+            this.x[i] = this.random.nextInt(-256, 256);
+            this.z[i] = this.random.nextInt(-256, 256);
+            this.propagator.setSource(this.x[i], this.z[i], this.level);
+        }
+        this.propagator.propagateUpdates();
+    }
+
+    @Benchmark
+    public boolean moveOneChunk() {
+        for (int i = 0; i < this.sources; ++i) {
+            this.propagator.removeSource(this.x[i], this.z[i]);
+            this.x[i] += this.random.nextInt(-1, 2);
+            this.z[i] += this.random.nextInt(-1, 2);
+            this.propagator.setSource(this.x[i], this.z[i], this.level);
+        }
+        return this.propagator.propagateUpdates();
+    }
+
+    @Benchmark
+    public int getLevel() {
+        int sum = 0;
+        for (int i = 0; i < this.sources; ++i) {
+            sum += this.propagator.getLevel(this.x[i] + 1, this.z[i] - 1);
+        }
+        return sum;
+    }
+}
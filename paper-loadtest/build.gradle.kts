@@ -0,0 +1,34 @@
+plugins {
+    java
+}
+
+dependencies {
+    implementation(project(":paper-server", "runtimeConfiguration"))
+}
+
+// Usage: ./gradlew :paper-loadtest:loadTest -Ppaper.loadtest.acceptEula=true [-Ppaper.loadtest.args="--players 300 --duration 300"]
+tasks.register<JavaExec>("loadTest") {
+    group = "benchmarks"
+    description = "Start a server and connect scripted fake players to it"
+    mainClass.set("io.papermc.paper.loadtest.LoadTest")
+    classpath(sourceSets.main.map { it.runtimeClasspath })
+    workingDir = layout.buildDirectory.dir("loadtest").get().asFile
+    outputs.upToDateWhen { false }
+    javaLauncher.set(project.javaToolchains.launcherFor {
+        languageVersion.set(JavaLanguageVersion.of(21))
+    })
+    jvmArgs("--add-modules=jdk.incubator.vector")
+
+    val memoryGb = providers.gradleProperty("paper.loadtest.memoryGb").getOrElse("4")
+    minHeapSize = "${memoryGb}G"
+    maxHeapSize = "${memoryGb}G"
+    systemProperty("com.mojang.eula.agree", providers.gradleProperty("paper.loadtest.acceptEula").getOrElse("false"))
+    systemProperty("io.papermc.paper.suppress.sout.nags", true)
+    argumentProviders.add(CommandLineArgumentProvider {
+        providers.gradleProperty("paper.loadtest.args").map { it.split(' ').filter(String::isNotBlank) }.getOrElse(emptyList())
+    })
+
+    doFirst {
+        workingDir.mkdirs()
+    }
+}
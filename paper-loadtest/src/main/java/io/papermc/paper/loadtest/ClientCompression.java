@@ -0,0 +1,67 @@
+package io.papermc.paper.loadtest;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import net.minecraft.network.VarInt;
+
+/**
+ * Compression handlers of the fake clients.
+ * <p>
+ * Packets of the fake clients are small, so they are always sent uncompressed, like the vanilla client does for
+ * packets below the threshold.
+ */
+final class ClientCompression {
+
+    private ClientCompression() {
+    }
+
+    static final class Decoder extends MessageToMessageDecoder<ByteBuf> {
+        private final Inflater inflater = new Inflater();
+
+        @Override
+        protected void decode(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out) throws DataFormatException {
+            final int size = VarInt.read(in);
+            if (size == 0) {
+                out.add(in.retainedSlice());
+                return;
+            }
+
+            final byte[] input = new byte[in.readableBytes()];
+            in.readBytes(input);
+            this.inflater.setInput(input);
+            final ByteBuf output = ctx.alloc().heapBuffer(size, size);
+            try {
+                final int inflated = this.inflater.inflate(output.array(), output.arrayOffset(), size);
+                if (inflated != size || !this.inflater.finished()) {
+                    throw new DecoderException("Badly compressed packet, expected " + size + " bytes but got " + inflated);
+                }
+                output.writerIndex(size);
+            } catch (final DataFormatException | RuntimeException ex) {
+                output.release();
+                throw ex;
+            } finally {
+                this.inflater.reset();
+            }
+            out.add(output);
+        }
+
+        @Override
+        public void handlerRemoved(final ChannelHandlerContext ctx) {
+            this.inflater.end();
+        }
+    }
+
+    static final class Encoder extends MessageToByteEncoder<ByteBuf> {
+        @Override
+        protected void encode(final ChannelHandlerContext ctx, final ByteBuf msg, final ByteBuf out) {
+            VarInt.write(out, 0);
+            out.writeBytes(msg);
+        }
+    }
+}
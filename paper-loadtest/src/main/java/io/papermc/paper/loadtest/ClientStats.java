@@ -0,0 +1,45 @@
+package io.papermc.paper.loadtest;
+
+import com.google.gson.JsonObject;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measurements of all fake clients.
+ */
+final class ClientStats {
+
+    final Histogram joinLatency = new Histogram();
+    final Histogram initialChunksLatency = new Histogram();
+    final Histogram chunkBatchLatency = new Histogram();
+    final LongAdder bytesReceived = new LongAdder();
+    final LongAdder packetsReceived = new LongAdder();
+    final LongAdder chunksReceived = new LongAdder();
+    final AtomicInteger playing = new AtomicInteger();
+    final AtomicInteger disconnected = new AtomicInteger();
+
+    /**
+     * Resets the measurements taken continuously, not the ones taken once per client.
+     */
+    void reset() {
+        this.chunkBatchLatency.reset();
+        this.bytesReceived.reset();
+        this.packetsReceived.reset();
+        this.chunksReceived.reset();
+    }
+
+    JsonObject summarize(final int players, final double seconds) {
+        final JsonObject summary = new JsonObject();
+        summary.addProperty("playing", this.playing.get());
+        summary.addProperty("disconnected", this.disconnected.get());
+        final long bytes = this.bytesReceived.sum();
+        summary.addProperty("bytesSent", bytes);
+        summary.addProperty("bytesSentPerPlayerPerSecond", players == 0 ? 0.0D : Math.round(bytes / (players * seconds)));
+        summary.addProperty("packetsSentPerPlayerPerSecond", players == 0 ? 0.0D : Math.round(this.packetsReceived.sum() / (players * seconds)));
+        summary.addProperty("chunksSent", this.chunksReceived.sum());
+        summary.add("joinLatency", this.joinLatency.summarize());
+        summary.add("initialChunksLatency", this.initialChunksLatency.summarize());
+        summary.add("chunkBatchLatency", this.chunkBatchLatency.summarize());
+        return summary;
+    }
+}
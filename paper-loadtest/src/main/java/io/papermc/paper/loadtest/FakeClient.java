@@ -0,0 +1,413 @@
+package io.papermc.paper.loadtest;
+
+import com.mojang.logging.LogUtils;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.net.InetSocketAddress;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.core.UUIDUtil;
+import net.minecraft.network.PacketDecoder;
+import net.minecraft.network.PacketEncoder;
+import net.minecraft.network.ProtocolInfo;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.Varint21FrameDecoder;
+import net.minecraft.network.Varint21LengthFieldPrepender;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.LastSeenMessages;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.common.ClientboundDisconnectPacket;
+import net.minecraft.network.protocol.common.ClientboundKeepAlivePacket;
+import net.minecraft.network.protocol.common.ClientboundPingPacket;
+import net.minecraft.network.protocol.common.ServerboundClientInformationPacket;
+import net.minecraft.network.protocol.common.ServerboundKeepAlivePacket;
+import net.minecraft.network.protocol.common.ServerboundPongPacket;
+import net.minecraft.network.protocol.configuration.ClientboundFinishConfigurationPacket;
+import net.minecraft.network.protocol.configuration.ClientboundSelectKnownPacks;
+import net.minecraft.network.protocol.configuration.ConfigurationProtocols;
+import net.minecraft.network.protocol.configuration.ServerboundFinishConfigurationPacket;
+import net.minecraft.network.protocol.configuration.ServerboundSelectKnownPacks;
+import net.minecraft.network.protocol.game.ClientboundChunkBatchFinishedPacket;
+import net.minecraft.network.protocol.game.ClientboundChunkBatchStartPacket;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.network.protocol.game.ClientboundLoginPacket;
+import net.minecraft.network.protocol.game.ClientboundPlayerPositionPacket;
+import net.minecraft.network.protocol.game.ClientboundSetChunkCacheRadiusPacket;
+import net.minecraft.network.protocol.game.ClientboundStartConfigurationPacket;
+import net.minecraft.network.protocol.game.GameProtocols;
+import net.minecraft.network.protocol.game.ServerboundAcceptTeleportationPacket;
+import net.minecraft.network.protocol.game.ServerboundChatPacket;
+import net.minecraft.network.protocol.game.ServerboundChunkBatchReceivedPacket;
+import net.minecraft.network.protocol.game.ServerboundConfigurationAcknowledgedPacket;
+import net.minecraft.network.protocol.game.ServerboundMovePlayerPacket;
+import net.minecraft.network.protocol.game.ServerboundPlayerActionPacket;
+import net.minecraft.network.protocol.game.ServerboundPlayerLoadedPacket;
+import net.minecraft.network.protocol.game.ServerboundSetCreativeModeSlotPacket;
+import net.minecraft.network.protocol.game.ServerboundUseItemOnPacket;
+import net.minecraft.network.protocol.handshake.ClientIntent;
+import net.minecraft.network.protocol.handshake.ClientIntentionPacket;
+import net.minecraft.network.protocol.handshake.HandshakeProtocols;
+import net.minecraft.network.protocol.login.ClientboundCustomQueryPacket;
+import net.minecraft.network.protocol.login.ClientboundHelloPacket;
+import net.minecraft.network.protocol.login.ClientboundLoginCompressionPacket;
+import net.minecraft.network.protocol.login.ClientboundLoginDisconnectPacket;
+import net.minecraft.network.protocol.login.ClientboundLoginFinishedPacket;
+import net.minecraft.network.protocol.login.LoginProtocols;
+import net.minecraft.network.protocol.login.ServerboundCustomQueryAnswerPacket;
+import net.minecraft.network.protocol.login.ServerboundHelloPacket;
+import net.minecraft.network.protocol.login.ServerboundLoginAcknowledgedPacket;
+import net.minecraft.server.level.ChunkTrackingView;
+import net.minecraft.server.level.ClientInformation;
+import net.minecraft.server.level.ParticleStatus;
+import net.minecraft.util.Mth;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.HumanoidArm;
+import net.minecraft.world.entity.player.ChatVisiblity;
+import net.minecraft.world.entity.PositionMoveRotation;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * A scripted player connected to the server over a real socket.
+ * <p>
+ * The client speaks the protocol with the vanilla packet codecs, but only reacts to the packets the server needs
+ * answers for. Once playing, it walks on a circle around its own center, places and breaks a block next to it and
+ * chats in the configured intervals. All state is only accessed on the event loop of the channel.
+ */
+@NullMarked
+final class FakeClient extends SimpleChannelInboundHandler<Packet<?>> {
+
+    private static final Logger LOGGER = LogUtils.getClassLogger();
+    // hotbar slot 0 in the inventory menu
+    private static final int HOTBAR_SLOT = 36;
+    private static final double WALK_SPEED = 4.317D / 20.0D;
+
+    private final LoadTestOptions options;
+    private final ClientStats stats;
+    private final RegistryAccess registryAccess;
+    private final String name;
+    private final Vec3 pathOffset;
+    private final int blockPhase;
+    private final int chatPhase;
+    private @Nullable Channel channel;
+    private State state = State.LOGIN;
+    private long connectStart;
+    private long playStart;
+    private long batchStart;
+    private int initialChunks;
+    private int chunks;
+    private boolean initialChunksLoaded;
+    private @Nullable PositionMoveRotation position;
+    private @Nullable Vec3 pathCenter;
+    private double pathAngle;
+    private @Nullable BlockPos placedBlock;
+    private int sequence;
+    private int ticks;
+    private int messages;
+    private @Nullable ScheduledFuture<?> ticker;
+
+    FakeClient(final LoadTestOptions options, final ClientStats stats, final RegistryAccess registryAccess, final int index) {
+        this.options = options;
+        this.stats = stats;
+        this.registryAccess = registryAccess;
+        this.name = "LoadTest" + index;
+        final Random random = new Random(options.seed() * 31L + index);
+        // lay the circles out on a square grid around the spawn
+        final int side = Mth.ceil(Math.sqrt(options.players()));
+        this.pathOffset = new Vec3((index % side - side / 2) * options.spread(), 0.0D, (index / side - side / 2) * options.spread());
+        this.pathAngle = random.nextDouble() * Math.PI * 2.0D;
+        this.blockPhase = options.blockInterval() > 0 ? random.nextInt(options.blockInterval()) : 0;
+        this.chatPhase = options.chatInterval() > 0 ? random.nextInt(options.chatInterval()) : 0;
+    }
+
+    ChannelFuture connect(final EventLoopGroup group, final InetSocketAddress address) {
+        this.connectStart = System.nanoTime();
+        return new Bootstrap()
+            .group(group)
+            .channel(NioSocketChannel.class)
+            .option(ChannelOption.TCP_NODELAY, true)
+            .handler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                protected void initChannel(final SocketChannel channel) {
+                    channel.pipeline()
+                        .addLast("counter", new ByteCounter(FakeClient.this.stats))
+                        .addLast("splitter", new Varint21FrameDecoder(null))
+                        .addLast("decoder", new PacketDecoder<>(LoginProtocols.CLIENTBOUND))
+                        .addLast("prepender", new Varint21LengthFieldPrepender())
+                        .addLast("encoder", new PacketEncoder<>(HandshakeProtocols.SERVERBOUND))
+                        .addLast("handler", FakeClient.this);
+                }
+            })
+            .connect(address);
+    }
+
+    void disconnect() {
+        final Channel channel = this.channel;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    @Override
+    public void channelActive(final ChannelHandlerContext ctx) {
+        this.channel = ctx.channel();
+        final InetSocketAddress address = (InetSocketAddress) ctx.channel().remoteAddress();
+        ctx.write(new ClientIntentionPacket(SharedConstants.getProtocolVersion(), address.getHostString(), address.getPort(), ClientIntent.LOGIN));
+        this.setupOutbound(LoginProtocols.SERVERBOUND);
+        ctx.writeAndFlush(new ServerboundHelloPacket(this.name, UUIDUtil.createOfflinePlayerUUID(this.name)));
+    }
+
+    @Override
+    public void channelInactive(final ChannelHandlerContext ctx) {
+        if (this.ticker != null) {
+            this.ticker.cancel(false);
+        }
+        if (this.state == State.PLAY) {
+            this.stats.playing.decrementAndGet();
+        }
+        this.state = State.DISCONNECTED;
+        this.stats.disconnected.incrementAndGet();
+    }
+
+    @Override
+    public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause) {
+        LOGGER.warn("{} failed in state {}", this.name, this.state, cause);
+        ctx.close();
+    }
+
+    @Override
+    protected void channelRead0(final ChannelHandlerContext ctx, final Packet<?> packet) {
+        this.stats.packetsReceived.increment();
+        switch (this.state) {
+            case LOGIN -> this.handleLogin(ctx, packet);
+            case CONFIGURATION -> this.handleConfiguration(ctx, packet);
+            case PLAY -> this.handlePlay(ctx, packet);
+            case DISCONNECTED -> {
+            }
+        }
+    }
+
+    private void handleLogin(final ChannelHandlerContext ctx, final Packet<?> packet) {
+        if (packet instanceof final ClientboundLoginCompressionPacket compression) {
+            if (compression.getCompressionThreshold() >= 0) {
+                ctx.pipeline().addAfter("splitter", "decompress", new ClientCompression.Decoder());
+                ctx.pipeline().addAfter("prepender", "compress", new ClientCompression.Encoder());
+            }
+        } else if (packet instanceof final ClientboundCustomQueryPacket query) {
+            ctx.writeAndFlush(new ServerboundCustomQueryAnswerPacket(query.transactionId(), null));
+        } else if (packet instanceof ClientboundHelloPacket) {
+            LOGGER.error("The server is in online mode, fake players can not authenticate");
+            ctx.close();
+        } else if (packet instanceof final ClientboundLoginDisconnectPacket disconnect) {
+            this.disconnected(ctx, disconnect.reason());
+        } else if (packet instanceof ClientboundLoginFinishedPacket) {
+            this.setupInbound(ConfigurationProtocols.CLIENTBOUND);
+            ctx.write(ServerboundLoginAcknowledgedPacket.INSTANCE);
+            this.setupOutbound(ConfigurationProtocols.SERVERBOUND);
+            this.state = State.CONFIGURATION;
+            ctx.writeAndFlush(new ServerboundClientInformationPacket(new ClientInformation(
+                "en_us", this.options.viewDistance(), ChatVisiblity.FULL, true, 0x7F, HumanoidArm.RIGHT, false, true, ParticleStatus.ALL
+            )));
+        }
+    }
+
+    private void handleConfiguration(final ChannelHandlerContext ctx, final Packet<?> packet) {
+        if (this.handleCommon(ctx, packet)) {
+            return;
+        }
+        if (packet instanceof final ClientboundSelectKnownPacks knownPacks) {
+            // the client has the same packs as the server, so only the differences are sent like to vanilla clients
+            ctx.writeAndFlush(new ServerboundSelectKnownPacks(knownPacks.knownPacks()));
+        } else if (packet instanceof ClientboundFinishConfigurationPacket) {
+            this.setupInbound(GameProtocols.CLIENTBOUND_TEMPLATE.bind(RegistryFriendlyByteBuf.decorator(this.registryAccess)));
+            ctx.write(ServerboundFinishConfigurationPacket.INSTANCE);
+            this.setupOutbound(GameProtocols.SERVERBOUND_TEMPLATE.bind(RegistryFriendlyByteBuf.decorator(this.registryAccess), () -> true));
+            ctx.flush();
+            this.state = State.PLAY;
+            this.stats.playing.incrementAndGet();
+            if (this.playStart == 0L) {
+                this.playStart = System.nanoTime();
+                this.stats.joinLatency.record(this.playStart - this.connectStart);
+            }
+        }
+    }
+
+    private void handlePlay(final ChannelHandlerContext ctx, final Packet<?> packet) {
+        if (this.handleCommon(ctx, packet)) {
+            return;
+        }
+        if (packet instanceof final ClientboundLevelChunkWithLightPacket) {
+            this.stats.chunksReceived.increment();
+            if (!this.initialChunksLoaded && ++this.chunks >= this.initialChunks) {
+                this.initialChunksLoaded = true;
+                this.stats.initialChunksLatency.record(System.nanoTime() - this.playStart);
+            }
+        } else if (packet instanceof ClientboundChunkBatchStartPacket) {
+            this.batchStart = System.nanoTime();
+        } else if (packet instanceof ClientboundChunkBatchFinishedPacket) {
+            this.stats.chunkBatchLatency.record(System.nanoTime() - this.batchStart);
+            ctx.writeAndFlush(new ServerboundChunkBatchReceivedPacket(this.options.chunksPerTick()));
+        } else if (packet instanceof final ClientboundPlayerPositionPacket teleport) {
+            final PositionMoveRotation current = this.position != null ? this.position : new PositionMoveRotation(Vec3.ZERO, Vec3.ZERO, 0.0F, 0.0F);
+            final PositionMoveRotation position = PositionMoveRotation.calculateAbsolute(current, teleport.change(), teleport.relatives());
+            this.position = position;
+            ctx.write(new ServerboundAcceptTeleportationPacket(teleport.id()));
+            ctx.write(new ServerboundMovePlayerPacket.PosRot(position.position().x, position.position().y, position.position().z, position.yRot(), position.xRot(), true, false));
+            if (this.pathCenter == null) {
+                this.pathCenter = position.position().add(this.pathOffset);
+                ctx.write(new ServerboundPlayerLoadedPacket());
+                ctx.write(new ServerboundSetCreativeModeSlotPacket(HOTBAR_SLOT, new ItemStack(Items.STONE, 64)));
+                this.ticker = ctx.executor().scheduleAtFixedRate(this::tick, 50L, 50L, TimeUnit.MILLISECONDS);
+            }
+            ctx.flush();
+        } else if (packet instanceof final ClientboundLoginPacket login) {
+            this.initialChunks = countSentChunks(login.chunkRadius());
+        } else if (packet instanceof final ClientboundSetChunkCacheRadiusPacket radius) {
+            this.initialChunks = countSentChunks(radius.radius());
+        } else if (packet instanceof ClientboundStartConfigurationPacket) {
+            this.setupInbound(ConfigurationProtocols.CLIENTBOUND);
+            ctx.writeAndFlush(ServerboundConfigurationAcknowledgedPacket.INSTANCE);
+            this.setupOutbound(ConfigurationProtocols.SERVERBOUND);
+            this.state = State.CONFIGURATION;
+            this.stats.playing.decrementAndGet();
+        }
+    }
+
+    // The server sends the circular area around the player (see ChunkTrackingView), not the full square
+    private static int countSentChunks(final int viewDistance) {
+        int count = 0;
+        for (int x = -viewDistance - 1; x <= viewDistance + 1; ++x) {
+            for (int z = -viewDistance - 1; z <= viewDistance + 1; ++z) {
+                if (ChunkTrackingView.isWithinDistance(0, 0, viewDistance, x, z, true)) {
+                    ++count;
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean handleCommon(final ChannelHandlerContext ctx, final Packet<?> packet) {
+        if (packet instanceof final ClientboundKeepAlivePacket keepAlive) {
+            ctx.writeAndFlush(new ServerboundKeepAlivePacket(keepAlive.getId()));
+        } else if (packet instanceof final ClientboundPingPacket ping) {
+            ctx.writeAndFlush(new ServerboundPongPacket(ping.getId()));
+        } else if (packet instanceof final ClientboundDisconnectPacket disconnect) {
+            this.disconnected(ctx, disconnect.reason());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void tick() {
+        final Channel channel = this.channel;
+        final PositionMoveRotation position = this.position;
+        final Vec3 center = this.pathCenter;
+        if (this.state != State.PLAY || channel == null || position == null || center == null) {
+            return;
+        }
+        this.ticks++;
+
+        // walk towards the next point of the circle, which also brings players back after being teleported
+        this.pathAngle += WALK_SPEED / this.options.pathRadius();
+        final Vec3 target = center.add(Math.cos(this.pathAngle) * this.options.pathRadius(), 0.0D, Math.sin(this.pathAngle) * this.options.pathRadius());
+        final Vec3 from = position.position();
+        final Vec3 delta = new Vec3(target.x - from.x, 0.0D, target.z - from.z);
+        final double distance = delta.horizontalDistance();
+        final Vec3 to = distance <= WALK_SPEED ? new Vec3(target.x, from.y, target.z) : from.add(delta.scale(WALK_SPEED / distance));
+        final float yRot = distance < 1.0E-4D ? position.yRot() : (float) (Mth.atan2(delta.z, delta.x) * Mth.RAD_TO_DEG) - 90.0F;
+        this.position = new PositionMoveRotation(to, Vec3.ZERO, yRot, 0.0F);
+        channel.write(new ServerboundMovePlayerPacket.PosRot(to.x, to.y, to.z, yRot, 0.0F, true, false));
+
+        if (this.options.blockInterval() > 0 && this.ticks % this.options.blockInterval() == this.blockPhase) {
+            this.changeBlock(channel, to);
+        }
+        if (this.options.chatInterval() > 0 && this.ticks % this.options.chatInterval() == this.chatPhase) {
+            channel.write(new ServerboundChatPacket("Load test message " + ++this.messages + " from " + this.name, Instant.now(), 0L, null, new LastSeenMessages.Update(0, new BitSet(), (byte) 0)));
+        }
+        channel.flush();
+    }
+
+    private void changeBlock(final Channel channel, final Vec3 position) {
+        final BlockPos placed = this.placedBlock;
+        if (placed != null) {
+            this.placedBlock = null;
+            if (placed.distToCenterSqr(position) < 16.0D) {
+                channel.write(new ServerboundPlayerActionPacket(ServerboundPlayerActionPacket.Action.START_DESTROY_BLOCK, placed, Direction.UP, ++this.sequence));
+                return;
+            }
+        }
+        // place on top of the ground next to the player
+        final BlockPos ground = BlockPos.containing(position).offset(2, -1, 0);
+        channel.write(new ServerboundUseItemOnPacket(InteractionHand.MAIN_HAND, new BlockHitResult(Vec3.upFromBottomCenterOf(ground, 1.0D), Direction.UP, ground, false), ++this.sequence));
+        this.placedBlock = ground.above();
+    }
+
+    private void disconnected(final ChannelHandlerContext ctx, final Component reason) {
+        LOGGER.warn("{} was disconnected in state {}: {}", this.name, this.state, reason.getString());
+        ctx.close();
+    }
+
+    private void setupInbound(final ProtocolInfo<?> protocol) {
+        // terminal packets replace the codec by a placeholder and stop reading until the next protocol is set up
+        final ChannelPipeline pipeline = this.channel.pipeline();
+        pipeline.replace("decoder", "decoder", new PacketDecoder<>(protocol));
+        this.channel.config().setAutoRead(true);
+    }
+
+    private void setupOutbound(final ProtocolInfo<?> protocol) {
+        final ChannelPipeline pipeline = this.channel.pipeline();
+        pipeline.replace("encoder", "encoder", new PacketEncoder<>(protocol));
+        this.channel.config().setAutoRead(true);
+    }
+
+    private enum State {
+        LOGIN,
+        CONFIGURATION,
+        PLAY,
+        DISCONNECTED
+    }
+
+    /**
+     * Counts the bytes sent by the server, as they arrive on the socket.
+     */
+    private static final class ByteCounter extends ChannelInboundHandlerAdapter {
+        private final ClientStats stats;
+
+        private ByteCounter(final ClientStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+            if (msg instanceof final ByteBuf buf) {
+                this.stats.bytesReceived.add(buf.readableBytes());
+            }
+            ctx.fireChannelRead(msg);
+        }
+    }
+}
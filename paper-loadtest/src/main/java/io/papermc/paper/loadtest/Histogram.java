@@ -0,0 +1,49 @@
+package io.papermc.paper.loadtest;
+
+import com.google.gson.JsonObject;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.util.Arrays;
+
+/**
+ * Records durations in nanoseconds and summarizes them as percentiles in milliseconds.
+ */
+final class Histogram {
+
+    private static final double[] PERCENTILES = {50.0D, 90.0D, 95.0D, 99.0D, 99.9D};
+
+    private final LongArrayList values = new LongArrayList();
+
+    synchronized void record(final long nanos) {
+        this.values.add(nanos);
+    }
+
+    synchronized void reset() {
+        this.values.clear();
+    }
+
+    synchronized JsonObject summarize() {
+        final JsonObject summary = new JsonObject();
+        summary.addProperty("count", this.values.size());
+        if (this.values.isEmpty()) {
+            return summary;
+        }
+
+        final long[] sorted = this.values.toLongArray();
+        Arrays.sort(sorted);
+        long total = 0L;
+        for (final long value : sorted) {
+            total += value;
+        }
+        summary.addProperty("mean", millis((double) total / sorted.length));
+        for (final double percentile : PERCENTILES) {
+            final int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0D * sorted.length) - 1);
+            summary.addProperty("p" + (percentile == Math.rint(percentile) ? Integer.toString((int) percentile) : Double.toString(percentile)), millis(sorted[Math.max(0, index)]));
+        }
+        summary.addProperty("max", millis(sorted[sorted.length - 1]));
+        return summary;
+    }
+
+    private static double millis(final double nanos) {
+        return Math.round(nanos / 1_000.0D) / 1_000.0D;
+    }
+}
@@ -0,0 +1,181 @@
+package io.papermc.paper.loadtest;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.mojang.logging.LogUtils;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import net.minecraft.server.MinecraftServer;
+import org.slf4j.Logger;
+
+/**
+ * Starts a server in this process, connects scripted fake players to it over the loopback interface and reports
+ * tick times and network measurements as JSON.
+ * <p>
+ * The players connect over a real socket instead of a local channel, as local channels skip the encoding and
+ * compression of packets, which are a large part of the cost of players.
+ */
+public final class LoadTest {
+
+    private static final Logger LOGGER = LogUtils.getClassLogger();
+
+    private LoadTest() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final LoadTestOptions options = LoadTestOptions.parse(args);
+        writeServerProperties(options);
+
+        LOGGER.info("Starting server for a load test with {} players", options.players());
+        org.bukkit.craftbukkit.Main.main(new String[]{"--nogui"});
+        final MinecraftServer server = awaitServer();
+
+        final ClientStats stats = new ClientStats();
+        final TickSampler ticks = new TickSampler(server);
+        final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "Load Test Tick Sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(ticks::sample, 1L, 1L, TimeUnit.SECONDS);
+
+        final EventLoopGroup group = new NioEventLoopGroup(options.clientThreads());
+        final InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), options.port());
+        final List<FakeClient> clients = new ArrayList<>(options.players());
+        try {
+            final long joinDelay = TimeUnit.SECONDS.toNanos(1L) / options.joinRate();
+            final long joinStart = System.nanoTime();
+            for (int i = 0; i < options.players(); i++) {
+                final long wait = joinStart + i * joinDelay - System.nanoTime();
+                if (wait > 0L) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                final FakeClient client = new FakeClient(options, stats, server.registryAccess(), i);
+                clients.add(client);
+                client.connect(group, address);
+            }
+            LOGGER.info("All players connecting, warming up for {} seconds", options.warmup().toSeconds());
+            Thread.sleep(options.warmup().toMillis());
+
+            LOGGER.info("{} players playing, measuring for {} seconds", stats.playing.get(), options.duration().toSeconds());
+            ticks.reset();
+            stats.reset();
+            final long measureStart = System.nanoTime();
+            Thread.sleep(options.duration().toMillis());
+            ticks.sample();
+            final double seconds = (System.nanoTime() - measureStart) / 1.0E9D;
+
+            final JsonObject report = new JsonObject();
+            report.addProperty("options", options.toString());
+            report.addProperty("seconds", seconds);
+            report.add("tickTimes", ticks.summarize());
+            report.add("players", stats.summarize(stats.playing.get(), seconds));
+            writeReport(options.report(), report);
+            LOGGER.info("Load test finished, report written to {}:\n{}", options.report().toAbsolutePath(), new GsonBuilder().setPrettyPrinting().create().toJson(report));
+        } finally {
+            sampler.shutdownNow();
+            clients.forEach(FakeClient::disconnect);
+            group.shutdownGracefully().awaitUninterruptibly(10L, TimeUnit.SECONDS);
+            server.halt(true);
+        }
+        System.exit(0);
+    }
+
+    private static void writeServerProperties(final LoadTestOptions options) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty("online-mode", "false");
+        properties.setProperty("enforce-secure-profile", "false");
+        properties.setProperty("server-ip", InetAddress.getLoopbackAddress().getHostAddress());
+        properties.setProperty("server-port", Integer.toString(options.port()));
+        properties.setProperty("level-seed", Long.toString(options.seed()));
+        properties.setProperty("level-type", "minecraft:flat");
+        properties.setProperty("generate-structures", "false");
+        properties.setProperty("gamemode", "creative");
+        properties.setProperty("force-gamemode", "true");
+        properties.setProperty("allow-flight", "true");
+        properties.setProperty("spawn-protection", "0");
+        properties.setProperty("view-distance", Integer.toString(options.viewDistance()));
+        properties.setProperty("simulation-distance", Integer.toString(Math.min(options.viewDistance(), 10)));
+        properties.setProperty("max-players", Integer.toString(options.players() + 10));
+        properties.setProperty("pause-when-empty-seconds", "-1");
+        try (final Writer writer = Files.newBufferedWriter(Path.of("server.properties"))) {
+            properties.store(writer, "Generated by the load test, changes are overwritten");
+        }
+    }
+
+    private static MinecraftServer awaitServer() throws InterruptedException {
+        while (true) {
+            final MinecraftServer server = MinecraftServer.getServer();
+            if (server != null && server.isReady()) {
+                return server;
+            }
+            if (server != null && server.isStopped()) {
+                throw new IllegalStateException("The server stopped before it was ready");
+            }
+            Thread.sleep(100L);
+        }
+    }
+
+    private static void writeReport(final Path path, final JsonObject report) throws IOException {
+        final Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (final Writer writer = Files.newBufferedWriter(path)) {
+            new GsonBuilder().setPrettyPrinting().create().toJson(report, writer);
+        }
+    }
+
+    /**
+     * Copies the duration of every tick from the ring buffer of the server before it is overwritten.
+     */
+    private static final class TickSampler {
+        private final MinecraftServer server;
+        private final Histogram tickTimes = new Histogram();
+        private int lastTick;
+        private long overloadedTicks;
+
+        private TickSampler(final MinecraftServer server) {
+            this.server = server;
+            this.lastTick = server.getTickCount();
+        }
+
+        synchronized void sample() {
+            final int tick = this.server.getTickCount();
+            final long[] times = this.server.tickTimes60s.getTimes();
+            // the buffer holds a minute of ticks and is sampled every second, so nothing is lost unless the server stalls
+            for (int i = Math.max(this.lastTick, tick - times.length) + 1; i <= tick; i++) {
+                final long time = times[i % times.length];
+                this.tickTimes.record(time);
+                if (time > TimeUnit.MILLISECONDS.toNanos(50L)) {
+                    this.overloadedTicks++;
+                }
+            }
+            this.lastTick = tick;
+        }
+
+        synchronized void reset() {
+            this.sample();
+            this.tickTimes.reset();
+            this.overloadedTicks = 0L;
+        }
+
+        synchronized JsonObject summarize() {
+            final JsonObject summary = this.tickTimes.summarize();
+            summary.addProperty("overloaded", this.overloadedTicks);
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.papermc.paper.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import joptsimple.OptionParser;
+import joptsimple.OptionSet;
+import joptsimple.OptionSpec;
+import joptsimple.util.PathConverter;
+
+/**
+ * Options of a load test run.
+ *
+ * @param players the number of fake players
+ * @param joinRate the number of players connecting per second
+ * @param warmup the time between the last player joining and the start of the measurement
+ * @param duration the time measured
+ * @param seed the seed of the world and the scripts of the players
+ * @param port the port the server listens on, only bound to the loopback address
+ * @param viewDistance the view distance of the server and the players
+ * @param chunksPerTick the chunks per tick the players ask the server to send
+ * @param pathRadius the radius of the circles the players walk on
+ * @param spread the distance between the centers of the circles of neighbouring players
+ * @param blockInterval the ticks between a player placing or breaking a block, 0 to never change blocks
+ * @param chatInterval the ticks between a player sending a chat message, 0 to never chat
+ * @param clientThreads the number of threads handling the connections of the players
+ * @param report the file to write the report to
+ */
+record LoadTestOptions(
+    int players,
+    int joinRate,
+    Duration warmup,
+    Duration duration,
+    long seed,
+    int port,
+    int viewDistance,
+    float chunksPerTick,
+    double pathRadius,
+    double spread,
+    int blockInterval,
+    int chatInterval,
+    int clientThreads,
+    Path report
+) {
+
+    static LoadTestOptions parse(final String[] args) {
+        final OptionParser parser = new OptionParser();
+        final OptionSpec<Void> help = parser.acceptsAll(List.of("?", "help"), "Show the help").forHelp();
+        final OptionSpec<Integer> players = parser.accepts("players", "Number of fake players").withRequiredArg().ofType(Integer.class).defaultsTo(200);
+        final OptionSpec<Integer> joinRate = parser.accepts("join-rate", "Players connecting per second").withRequiredArg().ofType(Integer.class).defaultsTo(20);
+        final OptionSpec<Integer> warmup = parser.accepts("warmup", "Seconds between the last join and the measurement").withRequiredArg().ofType(Integer.class).defaultsTo(30);
+        final OptionSpec<Integer> duration = parser.accepts("duration", "Seconds to measure").withRequiredArg().ofType(Integer.class).defaultsTo(120);
+        final OptionSpec<Long> seed = parser.accepts("seed", "Seed of the world and the player scripts").withRequiredArg().ofType(Long.class).defaultsTo(0L);
+        final OptionSpec<Integer> port = parser.accepts("port", "Port of the server").withRequiredArg().ofType(Integer.class).defaultsTo(25599);
+        final OptionSpec<Integer> viewDistance = parser.accepts("view-distance", "View distance of the server and the players").withRequiredArg().ofType(Integer.class).defaultsTo(10);
+        final OptionSpec<Float> chunksPerTick = parser.accepts("chunks-per-tick", "Chunks per tick the players ask for").withRequiredArg().ofType(Float.class).defaultsTo(25.0F);
+        final OptionSpec<Double> pathRadius = parser.accepts("path-radius", "Radius of the circles the players walk on").withRequiredArg().ofType(Double.class).defaultsTo(32.0D);
+        final OptionSpec<Double> spread = parser.accepts("spread", "Distance between the circles of neighbouring players").withRequiredArg().ofType(Double.class).defaultsTo(48.0D);
+        final OptionSpec<Integer> blockInterval = parser.accepts("block-interval", "Ticks between block changes of a player, 0 to disable").withRequiredArg().ofType(Integer.class).defaultsTo(40);
+        final OptionSpec<Integer> chatInterval = parser.accepts("chat-interval", "Ticks between chat messages of a player, 0 to disable").withRequiredArg().ofType(Integer.class).defaultsTo(600);
+        final OptionSpec<Integer> clientThreads = parser.accepts("client-threads", "Threads handling the fake players").withRequiredArg().ofType(Integer.class).defaultsTo(Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+        final OptionSpec<Path> report = parser.accepts("report", "File to write the report to").withRequiredArg().withValuesConvertedBy(new PathConverter()).defaultsTo(Path.of("loadtest-report.json"));
+
+        final OptionSet options = parser.parse(args);
+        if (options.has(help)) {
+            try {
+                parser.printHelpOn(System.out);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            System.exit(0);
+        }
+
+        final LoadTestOptions parsed = new LoadTestOptions(
+            options.valueOf(players),
+            options.valueOf(joinRate),
+            Duration.ofSeconds(options.valueOf(warmup)),
+            Duration.ofSeconds(options.valueOf(duration)),
+            options.valueOf(seed),
+            options.valueOf(port),
+            options.valueOf(viewDistance),
+            options.valueOf(chunksPerTick),
+            options.valueOf(pathRadius),
+            options.valueOf(spread),
+            options.valueOf(blockInterval),
+            options.valueOf(chatInterval),
+            options.valueOf(clientThreads),
+            options.valueOf(report)
+        );
+        if (parsed.players() <= 0 || parsed.joinRate() <= 0 || parsed.clientThreads() <= 0) {
+            throw new IllegalArgumentException("players, join-rate and client-threads must be positive");
+        }
+        return parsed;
+    }
+}
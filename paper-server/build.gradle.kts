@@ -112,6 +112,11 @@ val log4jPlugins = sourceSets.create("log4jPlugins")
 configurations.named(log4jPlugins.compileClasspathConfigurationName) {
     extendsFrom(configurations.compileClasspath.get())
 }
+// Anti-Xray can use the incubating Vector API, it's compiled on its own so the main source set doesn't need the incubator module
+val vectorApi = sourceSets.create("vectorApi")
+configurations.named(vectorApi.compileClasspathConfigurationName) {
+    extendsFrom(configurations.compileClasspath.get())
+}
 val alsoShade: Configuration by configurations.creating
 
 val runtimeConfiguration by configurations.consumable("runtimeConfiguration") {
@@ -148,6 +153,9 @@ dependencies {
     log4jPlugins.annotationProcessorConfigurationName("org.apache.logging.log4j:log4j-core:2.19.0") // Needed to generate meta for our Log4j plugins
     runtimeOnly(log4jPlugins.output)
     alsoShade(log4jPlugins.output)
+    vectorApi.compileOnlyConfigurationName(sourceSets.main.map { it.output })
+    runtimeOnly(vectorApi.output)
+    alsoShade(vectorApi.output)
 
     implementation("com.velocitypowered:velocity-native:3.4.0-SNAPSHOT") {
         isTransitive = false
@@ -220,6 +228,11 @@ tasks.jar {
     }
 }
 
+// The incubating module warning can't be turned off on its own, there's nothing else to warn about in the few Vector API classes
+tasks.named<JavaCompile>(vectorApi.compileJavaTaskName) {
+    options.compilerArgs.addAll(listOf("--add-modules=jdk.incubator.vector", "-nowarn"))
+}
+
 // Compile tests with -parameters for better junit parameterized test names
 tasks.compileTestJava {
     options.compilerArgs.add("-parameters")
@@ -256,6 +269,8 @@ tasks.test {
         excludeTags("Slow")
     }
 
+    jvmArgs("--add-modules=jdk.incubator.vector")
+
     // Configure mockito agent that is needed in newer java versions
     val provider = objects.newInstance<MockitoAgentProvider>()
     provider.fileCollection.from(mockitoAgent)
@@ -302,7 +317,7 @@ fun TaskContainer.registerRunTask(
         languageVersion.set(JavaLanguageVersion.of(21))
         vendor.set(JvmVendorSpec.JETBRAINS)
     })
-    jvmArgs("-XX:+AllowEnhancedClassRedefinition")
+    jvmArgs("-XX:+AllowEnhancedClassRedefinition", "--add-modules=jdk.incubator.vector")
 
     if (rootProject.childProjects["test-plugin"] != null) {
         val testPluginJar = rootProject.project(":test-plugin").tasks.jar.flatMap { it.archiveFile }
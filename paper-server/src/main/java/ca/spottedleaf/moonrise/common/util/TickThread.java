@@ -94,6 +94,7 @@ public class TickThread extends Thread {
     }
 
     public final int id; /* We don't override getId as the spec requires that it be unique (with respect to all other threads) */
+    private Level tickingLevel;
 
     private static final AtomicInteger ID_GENERATOR = new AtomicInteger();
 
@@ -127,46 +128,70 @@ public class TickThread extends Thread {
     }
 
     public static boolean isTickThreadFor(final Level world, final BlockPos pos) {
-        return isTickThread();
+        return isTickThreadFor(world);
     }
 
     public static boolean isTickThreadFor(final Level world, final BlockPos pos, final int blockRadius) {
-        return isTickThread();
+        return isTickThreadFor(world);
     }
 
     public static boolean isTickThreadFor(final Level world, final ChunkPos pos) {
-        return isTickThread();
+        return isTickThreadFor(world);
     }
 
     public static boolean isTickThreadFor(final Level world, final Vec3 pos) {
-        return isTickThread();
+        return isTickThreadFor(world);
     }
 
     public static boolean isTickThreadFor(final Level world, final int chunkX, final int chunkZ) {
-        return isTickThread();
+        return isTickThreadFor(world);
     }
 
     public static boolean isTickThreadFor(final Level world, final AABB aabb) {
-        return isTickThread();
+        return isTickThreadFor(world);
     }
 
     public static boolean isTickThreadFor(final Level world, final double blockX, final double blockZ) {
-        return isTickThread();
+        return isTickThreadFor(world);
     }
 
     public static boolean isTickThreadFor(final Level world, final Vec3 position, final Vec3 deltaMovement, final int buffer) {
-        return isTickThread();
+        return isTickThreadFor(world);
     }
 
     public static boolean isTickThreadFor(final Level world, final int fromChunkX, final int fromChunkZ, final int toChunkX, final int toChunkZ) {
-        return isTickThread();
+        return isTickThreadFor(world);
     }
 
     public static boolean isTickThreadFor(final Level world, final int chunkX, final int chunkZ, final int radius) {
-        return isTickThread();
+        return isTickThreadFor(world);
     }
 
     public static boolean isTickThreadFor(final Entity entity) {
-        return isTickThread();
+        return isTickThreadFor(entity.level());
+    }
+
+    /**
+     * Returns whether the current thread may access the given world. While worlds are ticked in parallel, each
+     * tick thread only owns the world it is ticking.
+     */
+    public static boolean isTickThreadFor(final Level world) {
+        if (!(Thread.currentThread() instanceof TickThread tickThread)) {
+            return false;
+        }
+        final Level tickingLevel = tickThread.tickingLevel;
+        return tickingLevel == null || tickingLevel == world;
+    }
+
+    /**
+     * Returns the world the current thread is ticking in parallel to other worlds, or {@code null} if the current
+     * thread is not ticking a world in parallel.
+     */
+    public static Level getTickingLevel() {
+        return Thread.currentThread() instanceof TickThread tickThread ? tickThread.tickingLevel : null;
+    }
+
+    public static void setTickingLevel(final Level level) {
+        getCurrentTickThread().tickingLevel = level;
     }
 }
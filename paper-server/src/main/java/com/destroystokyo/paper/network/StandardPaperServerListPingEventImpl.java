@@ -3,6 +3,7 @@ package com.destroystokyo.paper.network;
 import com.destroystokyo.paper.profile.PlayerProfile;
 import com.mojang.authlib.GameProfile;
 import io.papermc.paper.adventure.AdventureComponent;
+import io.papermc.paper.network.StatusResponseCache;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -14,6 +15,7 @@ import net.minecraft.network.protocol.status.ClientboundStatusResponsePacket;
 import net.minecraft.network.protocol.status.ServerStatus;
 import net.minecraft.server.MinecraftServer;
 import org.bukkit.craftbukkit.util.CraftIconCache;
+import org.bukkit.event.server.ServerListPingEvent;
 import org.jetbrains.annotations.NotNull;
 
 public final class StandardPaperServerListPingEventImpl extends PaperServerListPingEventImpl {
@@ -64,11 +66,27 @@ public final class StandardPaperServerListPingEventImpl extends PaperServerListP
     }
 
     public static void processRequest(MinecraftServer server, Connection networkManager) {
+        final StatusResponseCache cache = StatusResponseCache.INSTANCE;
+        final StatusResponseCache.Key cacheKey = cache.key(networkManager);
+        final int playerCount = server.getPlayerCount();
+        if (cacheKey != null) {
+            final StatusResponseCache.Response cached = cache.get(cacheKey, playerCount);
+            if (cached != null) {
+                cached.send(networkManager);
+                return;
+            }
+        }
+
         StandardPaperServerListPingEventImpl event = new StandardPaperServerListPingEventImpl(server, networkManager, server.getStatus());
-        server.server.getPluginManager().callEvent(event);
+        if (ServerListPingEvent.getHandlerList().getRegisteredListeners().length != 0) {
+            server.server.getPluginManager().callEvent(event);
+        }
 
         // Close connection immediately if event is cancelled
         if (event.isCancelled()) {
+            if (cacheKey != null) {
+                cache.put(cacheKey, playerCount, null);
+            }
             networkManager.disconnect((Component) null);
             return;
         }
@@ -99,7 +117,12 @@ public final class StandardPaperServerListPingEventImpl extends PaperServerListP
         final ServerStatus ping = new ServerStatus(description, players, Optional.of(version), favicon, server.enforceSecureProfile());
 
         // Send response
-        networkManager.send(new ClientboundStatusResponsePacket(ping));
+        final ClientboundStatusResponsePacket packet = new ClientboundStatusResponsePacket(ping);
+        if (cacheKey != null) {
+            cache.put(cacheKey, playerCount, packet).send(networkManager);
+        } else {
+            networkManager.send(packet);
+        }
     }
 
 }
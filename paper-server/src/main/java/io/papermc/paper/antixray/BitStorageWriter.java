@@ -76,4 +76,24 @@ public final class BitStorageWriter {
             init();
         }
     }
+
+    public void skip(int count) {
+        if (bits == 0 || count == 0) {
+            return;
+        }
+
+        int valuesPerLong = 64 / bits;
+        int values = bitInLongIndex / bits + count;
+
+        if (values > valuesPerLong) {
+            // Same as calling skip() count times, the last long is never left empty
+            int longs = (values - 1) / valuesPerLong;
+            flush();
+            longInBufferIndex += 8 * longs;
+            init();
+            values -= longs * valuesPerLong;
+        }
+
+        bitInLongIndex = values * bits;
+    }
 }
@@ -1,8 +1,10 @@
 package io.papermc.paper.antixray;
 
+import com.mojang.logging.LogUtils;
 import io.papermc.paper.configuration.WorldConfiguration;
 import io.papermc.paper.configuration.type.EngineMode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -19,6 +21,7 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.server.level.ServerPlayerGameMode;
+import net.minecraft.world.level.BlockGetter;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.Biomes;
@@ -33,11 +36,14 @@ import net.minecraft.world.level.chunk.LevelChunkSection;
 import net.minecraft.world.level.chunk.MissingPaletteEntryException;
 import net.minecraft.world.level.chunk.Palette;
 import org.bukkit.Bukkit;
+import org.slf4j.Logger;
 
 public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockController {
 
+    private static final Logger LOGGER = LogUtils.getClassLogger();
     private static final Palette<BlockState> GLOBAL_BLOCKSTATE_PALETTE = new GlobalPalette<>(Block.BLOCK_STATE_REGISTRY);
     private static final LevelChunkSection EMPTY_SECTION = null;
+    private static final String VECTOR_LAYER_OBFUSCATOR = "io.papermc.paper.antixray.VectorLayerObfuscator";
     private final Executor executor;
     private final EngineMode engineMode;
     private final int maxBlockHeight;
@@ -58,10 +64,16 @@ public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockCo
     private final boolean[] obfuscateGlobal = new boolean[Block.BLOCK_STATE_REGISTRY.size()];
     private final LevelChunkSection[] emptyNearbyChunkSections = {EMPTY_SECTION, EMPTY_SECTION, EMPTY_SECTION, EMPTY_SECTION};
     private final int maxBlockHeightUpdatePosition;
+    private final ObfuscatedSectionCache sectionCache;
+    private final boolean useVectorApi;
 
     public ChunkPacketBlockControllerAntiXray(Level level, Executor executor) {
+        this(level.paperConfig().anticheat.antiXray, new EmptyLevelChunk(level, new ChunkPos(0, 0), MinecraftServer.getServer().registryAccess().lookupOrThrow(Registries.BIOME).getOrThrow(Biomes.PLAINS)), executor);
+    }
+
+    // The block getter is only used to resolve which block states are solid, an empty chunk is enough for that
+    ChunkPacketBlockControllerAntiXray(WorldConfiguration.Anticheat.AntiXray paperWorldConfig, BlockGetter solidityLevel, Executor executor) {
         this.executor = executor;
-        WorldConfiguration.Anticheat.AntiXray paperWorldConfig = level.paperConfig().anticheat.antiXray;
         engineMode = paperWorldConfig.engineMode;
         maxBlockHeight = paperWorldConfig.maxBlockHeight >> 4 << 4;
         updateRadius = paperWorldConfig.updateRadius;
@@ -126,14 +138,13 @@ public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockCo
             }
         }
 
-        EmptyLevelChunk emptyChunk = new EmptyLevelChunk(level, new ChunkPos(0, 0), MinecraftServer.getServer().registryAccess().lookupOrThrow(Registries.BIOME).getOrThrow(Biomes.PLAINS));
         BlockPos zeroPos = new BlockPos(0, 0, 0);
 
         for (int i = 0; i < solidGlobal.length; i++) {
             BlockState blockState = GLOBAL_BLOCKSTATE_PALETTE.valueFor(i);
 
             if (blockState != null) {
-                solidGlobal[i] = blockState.isRedstoneConductor(emptyChunk, zeroPos)
+                solidGlobal[i] = blockState.isRedstoneConductor(solidityLevel, zeroPos)
                     && !blockState.is(Blocks.SPAWNER) && !blockState.is(Blocks.BARRIER) && !blockState.is(Blocks.SHULKER_BOX) && !blockState.is(Blocks.SLIME_BLOCK) && !blockState.is(Blocks.MANGROVE_ROOTS) || paperWorldConfig.lavaObscures && blockState == Blocks.LAVA.defaultBlockState();
                 // Comparing blockState == Blocks.LAVA.defaultBlockState() instead of blockState.is(Blocks.LAVA) ensures that only "stationary lava" is used
                 // shulker box checks TE.
@@ -141,6 +152,14 @@ public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockCo
         }
 
         maxBlockHeightUpdatePosition = maxBlockHeight + updateRadius - 1;
+        sectionCache = paperWorldConfig.cacheObfuscatedSections ? new ObfuscatedSectionCache(paperWorldConfig.obfuscatedSectionCacheSize) : null;
+
+        if (paperWorldConfig.useVectorApi && ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            LOGGER.warn("Anti-Xray is configured to use the Vector API but the jdk.incubator.vector module isn't available, add --add-modules=jdk.incubator.vector to the JVM arguments to enable it");
+            useVectorApi = false;
+        } else {
+            useVectorApi = paperWorldConfig.useVectorApi;
+        }
     }
 
     private int getPresetBlockStatesFullLength() {
@@ -204,18 +223,32 @@ public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockCo
     private final ThreadLocal<int[]> presetBlockStateBits = ThreadLocal.withInitial(() -> new int[getPresetBlockStatesFullLength()]);
     private static final ThreadLocal<boolean[]> SOLID = ThreadLocal.withInitial(() -> new boolean[Block.BLOCK_STATE_REGISTRY.size()]);
     private static final ThreadLocal<boolean[]> OBFUSCATE = ThreadLocal.withInitial(() -> new boolean[Block.BLOCK_STATE_REGISTRY.size()]);
-    // These boolean arrays represent chunk layers, true means don't obfuscate, false means obfuscate
-    private static final ThreadLocal<boolean[][]> CURRENT = ThreadLocal.withInitial(() -> new boolean[16][16]);
-    private static final ThreadLocal<boolean[][]> NEXT = ThreadLocal.withInitial(() -> new boolean[16][16]);
-    private static final ThreadLocal<boolean[][]> NEXT_NEXT = ThreadLocal.withInitial(() -> new boolean[16][16]);
+    private final ThreadLocal<LayerObfuscator> layerObfuscator = ThreadLocal.withInitial(() -> createLayerObfuscator(useVectorApi));
+
+    LayerObfuscator createLayerObfuscator(boolean useVectorApi) {
+        if (!useVectorApi) {
+            return new ScalarLayerObfuscator(this);
+        }
+
+        // The Vector API engine is compiled in its own source set with the incubator module, so it can't be referenced directly
+        try {
+            return (LayerObfuscator) Class.forName(VECTOR_LAYER_OBFUSCATOR).getDeclaredConstructor(ChunkPacketBlockControllerAntiXray.class).newInstance(this);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Couldn't create the Vector API layer obfuscator", e);
+        }
+    }
 
     public void obfuscate(ChunkPacketInfoAntiXray chunkPacketInfoAntiXray) {
+        int seed;
+        while ((seed = ThreadLocalRandom.current().nextInt()) == 0) ;
+        obfuscate(chunkPacketInfoAntiXray, seed, layerObfuscator.get());
+    }
+
+    // The seed must not be 0, obfuscating the same chunk packet with the same seed produces the same result with every layer obfuscator
+    void obfuscate(ChunkPacketInfoAntiXray chunkPacketInfoAntiXray, int seed, LayerObfuscator layerObfuscator) {
         int[] presetBlockStateBits = this.presetBlockStateBits.get();
         boolean[] solid = SOLID.get();
         boolean[] obfuscate = OBFUSCATE.get();
-        boolean[][] current = CURRENT.get();
-        boolean[][] next = NEXT.get();
-        boolean[][] nextNext = NEXT_NEXT.get();
         // bitStorageReader, bitStorageWriter and nearbyChunkSections could also be reused (with ThreadLocal if necessary) but it's not worth it
         BitStorageReader bitStorageReader = new BitStorageReader();
         BitStorageWriter bitStorageWriter = new BitStorageWriter();
@@ -228,6 +261,34 @@ public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockCo
         bitStorageReader.setBuffer(chunkPacketInfoAntiXray.getBuffer());
         bitStorageWriter.setBuffer(chunkPacketInfoAntiXray.getBuffer());
         int numberOfBlocks = presetBlockStateBits.length;
+        // Sections with cached obfuscated data are copied from the cache and then treated like sections that don't need obfuscation
+        // Skipping them doesn't change the result for the sections around them, the fallback paths read the same neighbour blocks
+        boolean[] cached = sectionCache == null ? null : new boolean[chunk.getSectionsCount()];
+        long[] sectionVersions = sectionCache == null ? null : new long[chunk.getSectionsCount()];
+        int nearbyChunksMask = 0;
+
+        if (sectionCache != null) {
+            LevelChunk[] nearbyChunks = chunkPacketInfoAntiXray.getNearbyChunks();
+
+            for (int i = 0; i < nearbyChunks.length; i++) {
+                if (nearbyChunks[i] != null) {
+                    nearbyChunksMask |= 1 << i;
+                }
+            }
+
+            for (int chunkSectionIndex = 0; chunkSectionIndex <= maxChunkSectionIndex; chunkSectionIndex++) {
+                if (chunkPacketInfoAntiXray.isWritten(chunkSectionIndex) && chunkPacketInfoAntiXray.getPresetValues(chunkSectionIndex) != null) {
+                    sectionVersions[chunkSectionIndex] = getSectionVersion(chunkPacketInfoAntiXray, nearbyChunks, chunkSectionIndex);
+                    byte[] data = sectionCache.get(chunk.getPos().x, chunkSectionIndex + chunk.getMinSectionY(), chunk.getPos().z, chunk.getSections()[chunkSectionIndex], nearbyChunksMask, sectionVersions[chunkSectionIndex]);
+
+                    if (data != null && data.length == getSectionDataLength(chunkPacketInfoAntiXray.getBits(chunkSectionIndex))) {
+                        System.arraycopy(data, 0, chunkPacketInfoAntiXray.getBuffer(), chunkPacketInfoAntiXray.getIndex(chunkSectionIndex), data.length);
+                        cached[chunkSectionIndex] = true;
+                    }
+                }
+            }
+        }
+
         // Keep the lambda expressions as simple as possible. They are used very frequently.
         LayeredIntSupplier random = numberOfBlocks == 1 ? (() -> 0) : engineMode == EngineMode.OBFUSCATE_LAYER ? new LayeredIntSupplier() {
             // engine-mode: 3
@@ -235,7 +296,7 @@ public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockCo
             private int next;
 
             {
-                while ((state = ThreadLocalRandom.current().nextInt()) == 0) ;
+                state = seed;
             }
 
             @Override
@@ -257,7 +318,7 @@ public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockCo
             private int state;
 
             {
-                while ((state = ThreadLocalRandom.current().nextInt()) == 0) ;
+                state = seed;
             }
 
             @Override
@@ -272,7 +333,7 @@ public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockCo
         };
 
         for (int chunkSectionIndex = 0; chunkSectionIndex <= maxChunkSectionIndex; chunkSectionIndex++) {
-            if (chunkPacketInfoAntiXray.isWritten(chunkSectionIndex) && chunkPacketInfoAntiXray.getPresetValues(chunkSectionIndex) != null) {
+            if (needsObfuscation(chunkPacketInfoAntiXray, cached, chunkSectionIndex)) {
                 int[] presetBlockStateBitsTemp;
 
                 if (chunkPacketInfoAntiXray.getPalette(chunkSectionIndex) instanceof GlobalPalette) {
@@ -300,26 +361,17 @@ public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockCo
                 bitStorageWriter.setIndex(chunkPacketInfoAntiXray.getIndex(chunkSectionIndex));
 
                 // Check if the chunk section below was not obfuscated
-                if (chunkSectionIndex == 0 || !chunkPacketInfoAntiXray.isWritten(chunkSectionIndex - 1) || chunkPacketInfoAntiXray.getPresetValues(chunkSectionIndex - 1) == null) {
+                if (chunkSectionIndex == 0 || !needsObfuscation(chunkPacketInfoAntiXray, cached, chunkSectionIndex - 1)) {
                     // If so, initialize some stuff
                     bitStorageReader.setBits(chunkPacketInfoAntiXray.getBits(chunkSectionIndex));
                     bitStorageReader.setIndex(chunkPacketInfoAntiXray.getIndex(chunkSectionIndex));
                     solidTemp = readPalette(chunkPacketInfoAntiXray.getPalette(chunkSectionIndex), solid, solidGlobal);
                     obfuscateTemp = readPalette(chunkPacketInfoAntiXray.getPalette(chunkSectionIndex), obfuscate, obfuscateGlobal);
                     // Read the blocks of the upper layer of the chunk section below if it exists
-                    LevelChunkSection belowChunkSection = null;
-                    boolean skipFirstLayer = chunkSectionIndex == 0 || (belowChunkSection = chunk.getSections()[chunkSectionIndex - 1]) == EMPTY_SECTION;
-
-                    for (int z = 0; z < 16; z++) {
-                        for (int x = 0; x < 16; x++) {
-                            current[z][x] = true;
-                            next[z][x] = skipFirstLayer || isTransparent(belowChunkSection, x, 15, z);
-                        }
-                    }
-
+                    layerObfuscator.resetLayers(chunkSectionIndex == 0 ? EMPTY_SECTION : chunk.getSections()[chunkSectionIndex - 1]);
                     // Abuse the obfuscateLayer method to read the blocks of the first layer of the current chunk section
                     bitStorageWriter.setBits(0);
-                    obfuscateLayer(-1, bitStorageReader, bitStorageWriter, solidTemp, obfuscateTemp, presetBlockStateBitsTemp, current, next, nextNext, emptyNearbyChunkSections, random);
+                    layerObfuscator.obfuscateLayer(-1, bitStorageReader, bitStorageWriter, solidTemp, obfuscateTemp, presetBlockStateBitsTemp, emptyNearbyChunkSections, random);
                 }
 
                 bitStorageWriter.setBits(chunkPacketInfoAntiXray.getBits(chunkSectionIndex));
@@ -330,38 +382,24 @@ public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockCo
 
                 // Obfuscate all layers of the current chunk section except the upper one
                 for (int y = 0; y < 15; y++) {
-                    boolean[][] temp = current;
-                    current = next;
-                    next = nextNext;
-                    nextNext = temp;
+                    layerObfuscator.nextLayer();
                     random.nextLayer();
-                    obfuscateLayer(y, bitStorageReader, bitStorageWriter, solidTemp, obfuscateTemp, presetBlockStateBitsTemp, current, next, nextNext, nearbyChunkSections, random);
+                    layerObfuscator.obfuscateLayer(y, bitStorageReader, bitStorageWriter, solidTemp, obfuscateTemp, presetBlockStateBitsTemp, nearbyChunkSections, random);
                 }
 
                 // Check if the chunk section above doesn't need obfuscation
-                if (chunkSectionIndex == maxChunkSectionIndex || !chunkPacketInfoAntiXray.isWritten(chunkSectionIndex + 1) || chunkPacketInfoAntiXray.getPresetValues(chunkSectionIndex + 1) == null) {
+                if (chunkSectionIndex == maxChunkSectionIndex || !needsObfuscation(chunkPacketInfoAntiXray, cached, chunkSectionIndex + 1)) {
                     // If so, obfuscate the upper layer of the current chunk section by reading blocks of the first layer from the chunk section above if it exists
                     LevelChunkSection aboveChunkSection;
 
                     if (chunkSectionIndex != chunk.getSectionsCount() - 1 && (aboveChunkSection = chunk.getSections()[chunkSectionIndex + 1]) != EMPTY_SECTION) {
-                        boolean[][] temp = current;
-                        current = next;
-                        next = nextNext;
-                        nextNext = temp;
-
-                        for (int z = 0; z < 16; z++) {
-                            for (int x = 0; x < 16; x++) {
-                                if (isTransparent(aboveChunkSection, x, 0, z)) {
-                                    current[z][x] = true;
-                                }
-                            }
-                        }
-
+                        layerObfuscator.nextLayer();
+                        layerObfuscator.markTransparentAbove(aboveChunkSection);
                         // There is nothing to read anymore
                         bitStorageReader.setBits(0);
                         solid[0] = true;
                         random.nextLayer();
-                        obfuscateLayer(15, bitStorageReader, bitStorageWriter, solid, obfuscateTemp, presetBlockStateBitsTemp, current, next, nextNext, nearbyChunkSections, random);
+                        layerObfuscator.obfuscateLayer(15, bitStorageReader, bitStorageWriter, solid, obfuscateTemp, presetBlockStateBitsTemp, nearbyChunkSections, random);
                     }
                 } else {
                     // If not, initialize the reader and other stuff for the chunk section above to obfuscate the upper layer of the current chunk section
@@ -369,210 +407,61 @@ public final class ChunkPacketBlockControllerAntiXray extends ChunkPacketBlockCo
                     bitStorageReader.setIndex(chunkPacketInfoAntiXray.getIndex(chunkSectionIndex + 1));
                     solidTemp = readPalette(chunkPacketInfoAntiXray.getPalette(chunkSectionIndex + 1), solid, solidGlobal);
                     obfuscateTemp = readPalette(chunkPacketInfoAntiXray.getPalette(chunkSectionIndex + 1), obfuscate, obfuscateGlobal);
-                    boolean[][] temp = current;
-                    current = next;
-                    next = nextNext;
-                    nextNext = temp;
+                    layerObfuscator.nextLayer();
                     random.nextLayer();
-                    obfuscateLayer(15, bitStorageReader, bitStorageWriter, solidTemp, obfuscateTemp, presetBlockStateBitsTemp, current, next, nextNext, nearbyChunkSections, random);
+                    layerObfuscator.obfuscateLayer(15, bitStorageReader, bitStorageWriter, solidTemp, obfuscateTemp, presetBlockStateBitsTemp, nearbyChunkSections, random);
                 }
 
                 bitStorageWriter.flush();
-            }
-        }
 
-        chunkPacketInfoAntiXray.getChunkPacket().setReady(true);
-    }
-
-    private void obfuscateLayer(int y, BitStorageReader bitStorageReader, BitStorageWriter bitStorageWriter, boolean[] solid, boolean[] obfuscate, int[] presetBlockStateBits, boolean[][] current, boolean[][] next, boolean[][] nextNext, LevelChunkSection[] nearbyChunkSections, IntSupplier random) {
-        // First block of first line
-        int bits = bitStorageReader.read();
-
-        if (nextNext[0][0] = !solid[bits]) {
-            bitStorageWriter.skip();
-            next[0][1] = true;
-            next[1][0] = true;
-        } else {
-            if (current[0][0] || isTransparent(nearbyChunkSections[2], 0, y, 15) || isTransparent(nearbyChunkSections[0], 15, y, 0)) {
-                bitStorageWriter.skip();
-            } else {
-                bitStorageWriter.write(presetBlockStateBits[random.getAsInt()]);
-            }
-        }
-
-        if (!obfuscate[bits]) {
-            next[0][0] = true;
-        }
-
-        // First line
-        for (int x = 1; x < 15; x++) {
-            bits = bitStorageReader.read();
-
-            if (nextNext[0][x] = !solid[bits]) {
-                bitStorageWriter.skip();
-                next[0][x - 1] = true;
-                next[0][x + 1] = true;
-                next[1][x] = true;
-            } else {
-                if (current[0][x] || isTransparent(nearbyChunkSections[2], x, y, 15)) {
-                    bitStorageWriter.skip();
-                } else {
-                    bitStorageWriter.write(presetBlockStateBits[random.getAsInt()]);
+                if (sectionCache != null) {
+                    int index = chunkPacketInfoAntiXray.getIndex(chunkSectionIndex);
+                    byte[] data = Arrays.copyOfRange(chunkPacketInfoAntiXray.getBuffer(), index, index + getSectionDataLength(chunkPacketInfoAntiXray.getBits(chunkSectionIndex)));
+                    sectionCache.put(chunk.getPos().x, chunkSectionIndex + chunk.getMinSectionY(), chunk.getPos().z, chunk.getSections()[chunkSectionIndex], nearbyChunksMask, sectionVersions[chunkSectionIndex], data);
                 }
             }
-
-            if (!obfuscate[bits]) {
-                next[0][x] = true;
-            }
         }
 
-        // Last block of first line
-        bits = bitStorageReader.read();
-
-        if (nextNext[0][15] = !solid[bits]) {
-            bitStorageWriter.skip();
-            next[0][14] = true;
-            next[1][15] = true;
-        } else {
-            if (current[0][15] || isTransparent(nearbyChunkSections[2], 15, y, 15) || isTransparent(nearbyChunkSections[1], 0, y, 0)) {
-                bitStorageWriter.skip();
-            } else {
-                bitStorageWriter.write(presetBlockStateBits[random.getAsInt()]);
-            }
-        }
-
-        if (!obfuscate[bits]) {
-            next[0][15] = true;
-        }
-
-        // All inner lines
-        for (int z = 1; z < 15; z++) {
-            // First block
-            bits = bitStorageReader.read();
-
-            if (nextNext[z][0] = !solid[bits]) {
-                bitStorageWriter.skip();
-                next[z][1] = true;
-                next[z - 1][0] = true;
-                next[z + 1][0] = true;
-            } else {
-                if (current[z][0] || isTransparent(nearbyChunkSections[0], 15, y, z)) {
-                    bitStorageWriter.skip();
-                } else {
-                    bitStorageWriter.write(presetBlockStateBits[random.getAsInt()]);
-                }
-            }
-
-            if (!obfuscate[bits]) {
-                next[z][0] = true;
-            }
-
-            // All inner blocks
-            for (int x = 1; x < 15; x++) {
-                bits = bitStorageReader.read();
-
-                if (nextNext[z][x] = !solid[bits]) {
-                    bitStorageWriter.skip();
-                    next[z][x - 1] = true;
-                    next[z][x + 1] = true;
-                    next[z - 1][x] = true;
-                    next[z + 1][x] = true;
-                } else {
-                    if (current[z][x]) {
-                        bitStorageWriter.skip();
-                    } else {
-                        bitStorageWriter.write(presetBlockStateBits[random.getAsInt()]);
-                    }
-                }
-
-                if (!obfuscate[bits]) {
-                    next[z][x] = true;
-                }
-            }
-
-            // Last block
-            bits = bitStorageReader.read();
-
-            if (nextNext[z][15] = !solid[bits]) {
-                bitStorageWriter.skip();
-                next[z][14] = true;
-                next[z - 1][15] = true;
-                next[z + 1][15] = true;
-            } else {
-                if (current[z][15] || isTransparent(nearbyChunkSections[1], 0, y, z)) {
-                    bitStorageWriter.skip();
-                } else {
-                    bitStorageWriter.write(presetBlockStateBits[random.getAsInt()]);
-                }
-            }
-
-            if (!obfuscate[bits]) {
-                next[z][15] = true;
-            }
-        }
-
-        // First block of last line
-        bits = bitStorageReader.read();
+        chunkPacketInfoAntiXray.getChunkPacket().setReady(true);
+    }
 
-        if (nextNext[15][0] = !solid[bits]) {
-            bitStorageWriter.skip();
-            next[15][1] = true;
-            next[14][0] = true;
-        } else {
-            if (current[15][0] || isTransparent(nearbyChunkSections[3], 0, y, 0) || isTransparent(nearbyChunkSections[0], 15, y, 15)) {
-                bitStorageWriter.skip();
-            } else {
-                bitStorageWriter.write(presetBlockStateBits[random.getAsInt()]);
-            }
+    /**
+     * Sums the modification counts of the block states the obfuscation of a section reads, which are those of the
+     * section itself and of the sections next to it. Sections above and below count as of when the packet was
+     * created, as their data is read from the packet. The sections of nearby chunks are read while obfuscating, so
+     * their current counts are used, which must be taken before obfuscating.
+     */
+    static long getSectionVersion(ChunkPacketInfo<BlockState> chunkPacketInfo, LevelChunk[] nearbyChunks, int chunkSectionIndex) {
+        long version = chunkPacketInfo.getModificationCount(chunkSectionIndex);
+
+        if (chunkSectionIndex > 0) {
+            version += chunkPacketInfo.getModificationCount(chunkSectionIndex - 1);
         }
 
-        if (!obfuscate[bits]) {
-            next[15][0] = true;
+        if (chunkSectionIndex < chunkPacketInfo.getChunk().getSectionsCount() - 1) {
+            version += chunkPacketInfo.getModificationCount(chunkSectionIndex + 1);
         }
 
-        // Last line
-        for (int x = 1; x < 15; x++) {
-            bits = bitStorageReader.read();
-
-            if (nextNext[15][x] = !solid[bits]) {
-                bitStorageWriter.skip();
-                next[15][x - 1] = true;
-                next[15][x + 1] = true;
-                next[14][x] = true;
-            } else {
-                if (current[15][x] || isTransparent(nearbyChunkSections[3], x, y, 0)) {
-                    bitStorageWriter.skip();
-                } else {
-                    bitStorageWriter.write(presetBlockStateBits[random.getAsInt()]);
-                }
-            }
-
-            if (!obfuscate[bits]) {
-                next[15][x] = true;
+        for (LevelChunk nearbyChunk : nearbyChunks) {
+            if (nearbyChunk != null) {
+                version += nearbyChunk.getSections()[chunkSectionIndex].getStates().getModificationCount();
             }
         }
 
-        // Last block of last line
-        bits = bitStorageReader.read();
+        return version;
+    }
 
-        if (nextNext[15][15] = !solid[bits]) {
-            bitStorageWriter.skip();
-            next[15][14] = true;
-            next[14][15] = true;
-        } else {
-            if (current[15][15] || isTransparent(nearbyChunkSections[3], 15, y, 0) || isTransparent(nearbyChunkSections[1], 0, y, 15)) {
-                bitStorageWriter.skip();
-            } else {
-                bitStorageWriter.write(presetBlockStateBits[random.getAsInt()]);
-            }
-        }
+    private static boolean needsObfuscation(ChunkPacketInfoAntiXray chunkPacketInfoAntiXray, boolean[] cached, int chunkSectionIndex) {
+        return chunkPacketInfoAntiXray.isWritten(chunkSectionIndex) && chunkPacketInfoAntiXray.getPresetValues(chunkSectionIndex) != null && (cached == null || !cached[chunkSectionIndex]);
+    }
 
-        if (!obfuscate[bits]) {
-            next[15][15] = true;
-        }
+    private static int getSectionDataLength(int bits) {
+        // Same layout as SimpleBitStorage, values don't span multiple longs
+        int valuesPerLong = 64 / bits;
+        return (4096 + valuesPerLong - 1) / valuesPerLong * Long.BYTES;
     }
 
-    private boolean isTransparent(LevelChunkSection chunkSection, int x, int y, int z) {
+    boolean isTransparent(LevelChunkSection chunkSection, int x, int y, int z) {
         if (chunkSection == EMPTY_SECTION) {
             return true;
         }
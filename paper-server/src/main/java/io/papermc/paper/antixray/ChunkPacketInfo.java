@@ -12,6 +12,7 @@ public class ChunkPacketInfo<T> {
     private final Object[] palettes;
     private final int[] indexes;
     private final Object[][] presetValues;
+    private final long[] modificationCounts;
     private byte[] buffer;
 
     public ChunkPacketInfo(ClientboundLevelChunkWithLightPacket chunkPacket, LevelChunk chunk) {
@@ -22,6 +23,7 @@ public class ChunkPacketInfo<T> {
         palettes = new Object[sections];
         indexes = new int[sections];
         presetValues = new Object[sections][];
+        modificationCounts = new long[sections];
     }
 
     public ClientboundLevelChunkWithLightPacket getChunkPacket() {
@@ -74,6 +76,14 @@ public class ChunkPacketInfo<T> {
         this.presetValues[chunkSectionIndex] = presetValues;
     }
 
+    public long getModificationCount(int chunkSectionIndex) {
+        return modificationCounts[chunkSectionIndex];
+    }
+
+    public void setModificationCount(int chunkSectionIndex, long modificationCount) {
+        modificationCounts[chunkSectionIndex] = modificationCount;
+    }
+
     public boolean isWritten(int chunkSectionIndex) {
         return bits[chunkSectionIndex] != 0;
     }
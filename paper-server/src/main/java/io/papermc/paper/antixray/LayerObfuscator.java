@@ -0,0 +1,31 @@
+package io.papermc.paper.antixray;
+
+import java.util.function.IntSupplier;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+/**
+ * Obfuscates chunk sections layer by layer and keeps the visibility state of the current and the two following layers.
+ * Instances hold mutable state and must only be used by one thread at a time.
+ */
+interface LayerObfuscator {
+
+    /**
+     * Marks all blocks of the current layer as visible and the blocks of the next layer as visible if the block below them is transparent.
+     */
+    void resetLayers(LevelChunkSection belowChunkSection);
+
+    /**
+     * Moves on to the next layer, the state of the next layer becomes the state of the current layer and so on.
+     */
+    void nextLayer();
+
+    /**
+     * Marks the blocks of the current layer as visible if the block above them is transparent.
+     */
+    void markTransparentAbove(LevelChunkSection aboveChunkSection);
+
+    /**
+     * Reads the layer above the current one and obfuscates the current layer.
+     */
+    void obfuscateLayer(int y, BitStorageReader bitStorageReader, BitStorageWriter bitStorageWriter, boolean[] solid, boolean[] obfuscate, int[] presetBlockStateBits, LevelChunkSection[] nearbyChunkSections, IntSupplier random);
+}
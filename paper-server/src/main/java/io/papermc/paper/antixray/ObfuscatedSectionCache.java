@@ -0,0 +1,68 @@
+package io.papermc.paper.antixray;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+/**
+ * Bounded cache of obfuscated block state data of chunk sections, keyed by section position.
+ * <p>
+ * Entries record the version of the block states they were obfuscated from, see
+ * {@link ChunkPacketBlockControllerAntiXray#getSectionVersion}. Every write to a section or the sections next to it
+ * increases the version, including writes that don't go through the block change hooks, so data is only returned
+ * for packets of exactly the same version.
+ */
+public final class ObfuscatedSectionCache {
+
+    private final int maxSize;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public ObfuscatedSectionCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public byte[] get(int chunkX, int sectionY, int chunkZ, LevelChunkSection section, int nearbyChunksMask, long version) {
+        Entry entry = entries.get(SectionPos.asLong(chunkX, sectionY, chunkZ));
+
+        if (entry == null || entry.version != version || entry.nearbyChunksMask != nearbyChunksMask || entry.section.get() != section) {
+            return null;
+        }
+
+        return entry.data;
+    }
+
+    public void put(int chunkX, int sectionY, int chunkZ, LevelChunkSection section, int nearbyChunksMask, long version, byte[] data) {
+        Entry newEntry = new Entry(version, new WeakReference<>(section), nearbyChunksMask, data);
+        entries.compute(SectionPos.asLong(chunkX, sectionY, chunkZ), (key, entry) -> {
+            // Packets can finish obfuscating out of order, keep data of a newer version of the same section
+            return entry != null && entry.section.get() == section && entry.version > version ? entry : newEntry;
+        });
+        evictIfNecessary();
+    }
+
+    private void evictIfNecessary() {
+        if (entries.size() <= maxSize || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            // Evict an eighth of the entries in iteration order, which is effectively random for section keys
+            int toRemove = entries.size() - maxSize + (maxSize >> 3);
+
+            for (Iterator<Map.Entry<Long, Entry>> iterator = entries.entrySet().iterator(); toRemove > 0 && iterator.hasNext(); toRemove--) {
+                Map.Entry<Long, Entry> mapEntry = iterator.next();
+                entries.remove(mapEntry.getKey(), mapEntry.getValue());
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private record Entry(long version, WeakReference<LevelChunkSection> section, int nearbyChunksMask, byte[] data) {
+    }
+}
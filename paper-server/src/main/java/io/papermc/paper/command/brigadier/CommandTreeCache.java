@@ -0,0 +1,231 @@
+package io.papermc.paper.command.brigadier;
+
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import com.mojang.brigadier.tree.CommandNode;
+import com.mojang.brigadier.tree.RootCommandNode;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.SharedSuggestionProvider;
+import net.minecraft.network.protocol.game.ClientboundCommandsPacket;
+import net.minecraft.server.level.ServerPlayer;
+import org.bukkit.craftbukkit.entity.CraftHumanEntity;
+import org.bukkit.permissions.Permission;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Cache of the command trees sent to players.
+ * <p>
+ * While a tree is built, every permission check of the player is recorded. Another player gets the same tree if
+ * the same checks give the same results for them, which assumes the requirements of the command nodes only depend
+ * on permissions. The cache is cleared when the root commands of the dispatcher change or commands are synced.
+ */
+@NullMarked
+public final class CommandTreeCache {
+
+    private static final int MAX_TREES = 32;
+    private static final ThreadLocal<@Nullable Recorder> RECORDER = new ThreadLocal<>();
+    private static final AtomicInteger RECORDING = new AtomicInteger();
+
+    private final ArrayDeque<Tree> trees = new ArrayDeque<>();
+    private List<CommandNode<CommandSourceStack>> rootChildren = List.of();
+
+    /**
+     * Returns the tree of the player, building and caching it if none of the cached trees matches.
+     *
+     * @param player the player to get the tree of
+     * @param rootChildren the root commands of the dispatcher the tree is built from
+     * @param builder builds the tree for the player, called on this thread
+     * @return the tree
+     */
+    public Tree get(final ServerPlayer player, final Collection<CommandNode<CommandSourceStack>> rootChildren, final Supplier<RootCommandNode<SharedSuggestionProvider>> builder) {
+        final CraftHumanEntity permissible = player.getBukkitEntity();
+        final Key key = new Key(player.server.getProfilePermissions(player.getGameProfile()), permissible.isOp(), org.spigotmc.SpigotConfig.sendNamespaced, player.server.server.ignoreVanillaPermissions);
+        final Tree[] trees;
+        synchronized (this) {
+            if (this.rootChildrenChanged(rootChildren)) {
+                this.trees.clear();
+                this.rootChildren = List.copyOf(rootChildren);
+            }
+            trees = this.trees.toArray(new Tree[0]);
+        }
+        for (final Tree tree : trees) {
+            if (tree.matches(key, permissible)) {
+                return tree;
+            }
+        }
+
+        final Recorder recorder = new Recorder(permissible);
+        final Recorder previous = RECORDER.get();
+        RECORDER.set(recorder);
+        RECORDING.incrementAndGet();
+        final RootCommandNode<SharedSuggestionProvider> root;
+        try {
+            root = builder.get();
+        } finally {
+            RECORDING.decrementAndGet();
+            RECORDER.set(previous);
+        }
+
+        final Tree tree = new Tree(key, recorder.checks.toArray(new Check[0]), root);
+        synchronized (this) {
+            if (!this.rootChildrenChanged(rootChildren)) {
+                if (this.trees.size() >= MAX_TREES) {
+                    this.trees.removeLast();
+                }
+                this.trees.addFirst(tree);
+            }
+        }
+        return tree;
+    }
+
+    private boolean rootChildrenChanged(final Collection<CommandNode<CommandSourceStack>> rootChildren) {
+        if (rootChildren.size() != this.rootChildren.size()) {
+            return true;
+        }
+        final Iterator<CommandNode<CommandSourceStack>> iterator = this.rootChildren.iterator();
+        for (final CommandNode<CommandSourceStack> child : rootChildren) {
+            if (iterator.next() != child) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void clear() {
+        this.trees.clear();
+        this.rootChildren = List.of();
+    }
+
+    /**
+     * Records the result of a permission check if a command tree is being built for the checked permissible on
+     * this thread.
+     *
+     * @param permissible the checked permissible
+     * @param type the type of the check
+     * @param permission the checked permission name or {@link Permission}
+     * @param result the result of the check
+     * @return the result
+     */
+    public static boolean record(final CraftHumanEntity permissible, final CheckType type, final Object permission, final boolean result) {
+        if (RECORDING.get() == 0) {
+            return result;
+        }
+        final Recorder recorder = RECORDER.get();
+        if (recorder != null && recorder.permissible == permissible) {
+            recorder.checks.add(new Check(type, permission, result));
+        }
+        return result;
+    }
+
+    public enum CheckType {
+        HAS_PERMISSION,
+        IS_PERMISSION_SET;
+
+        boolean test(final CraftHumanEntity permissible, final Object permission) {
+            return switch (this) {
+                case HAS_PERMISSION -> permission instanceof final Permission perm ? permissible.hasPermission(perm) : permissible.hasPermission((String) permission);
+                case IS_PERMISSION_SET -> permission instanceof final Permission perm ? permissible.isPermissionSet(perm) : permissible.isPermissionSet((String) permission);
+            };
+        }
+    }
+
+    private record Check(CheckType type, Object permission, boolean result) {
+    }
+
+    private record Key(int permissionLevel, boolean op, boolean sendNamespaced, boolean ignoreVanillaPermissions) {
+    }
+
+    private static final class Recorder {
+        private final CraftHumanEntity permissible;
+        // the same permission is usually checked by many nodes
+        private final Set<Check> checks = new LinkedHashSet<>();
+
+        private Recorder(final CraftHumanEntity permissible) {
+            this.permissible = permissible;
+        }
+    }
+
+    public static final class Tree {
+        private final Key key;
+        private final Check[] checks;
+        private final RootCommandNode<SharedSuggestionProvider> root;
+        private volatile @Nullable ClientboundCommandsPacket packet;
+
+        private Tree(final Key key, final Check[] checks, final RootCommandNode<SharedSuggestionProvider> root) {
+            this.key = key;
+            this.checks = checks;
+            this.root = root;
+        }
+
+        private boolean matches(final Key key, final CraftHumanEntity permissible) {
+            if (!this.key.equals(key)) {
+                return false;
+            }
+            for (final Check check : this.checks) {
+                if (check.type().test(permissible, check.permission()) != check.result()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Returns the names of the root commands of the tree.
+         */
+        public Collection<String> labels() {
+            final Collection<String> labels = new LinkedHashSet<>();
+            for (final CommandNode<SharedSuggestionProvider> node : this.root.getChildren()) {
+                labels.add(node.getName());
+            }
+            return labels;
+        }
+
+        /**
+         * Returns a copy of the tree that can be modified.
+         */
+        public RootCommandNode<SharedSuggestionProvider> copy() {
+            final RootCommandNode<SharedSuggestionProvider> root = new RootCommandNode<>();
+            final Map<CommandNode<SharedSuggestionProvider>, CommandNode<SharedSuggestionProvider>> copies = new IdentityHashMap<>();
+            copies.put(this.root, root);
+            for (final CommandNode<SharedSuggestionProvider> child : this.root.getChildren()) {
+                root.addChild(copy(child, copies));
+            }
+            return root;
+        }
+
+        private static CommandNode<SharedSuggestionProvider> copy(final CommandNode<SharedSuggestionProvider> node, final Map<CommandNode<SharedSuggestionProvider>, CommandNode<SharedSuggestionProvider>> copies) {
+            final ArgumentBuilder<SharedSuggestionProvider, ?> builder = node.createBuilder();
+            if (node.getRedirect() != null) {
+                // redirect targets are built before the nodes redirecting to them, see Commands#fillUsableCommands
+                builder.forward(copies.getOrDefault(node.getRedirect(), node.getRedirect()), node.getRedirectModifier(), node.isFork());
+            }
+            final CommandNode<SharedSuggestionProvider> copy = builder.build();
+            copies.put(node, copy);
+            for (final CommandNode<SharedSuggestionProvider> child : node.getChildren()) {
+                copy.addChild(copy(child, copies));
+            }
+            return copy;
+        }
+
+        /**
+         * Returns the packet of the unmodified tree.
+         */
+        public ClientboundCommandsPacket packet() {
+            ClientboundCommandsPacket packet = this.packet;
+            if (packet == null) {
+                this.packet = packet = new ClientboundCommandsPacket(this.root);
+            }
+            return packet;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.mojang.brigadier.suggestion.Suggestions;
 import com.mojang.brigadier.suggestion.SuggestionsBuilder;
 import com.mojang.brigadier.tree.LiteralCommandNode;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
+import io.papermc.paper.world.ParallelWorldTicker;
 import java.util.ArrayList;
 import net.minecraft.commands.CommandSource;
 import org.bukkit.Bukkit;
@@ -21,6 +22,7 @@ import org.bukkit.command.CommandSender;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
 import java.util.logging.Level;
 import org.bukkit.entity.Player;
 import org.bukkit.event.server.TabCompleteEvent;
@@ -79,7 +81,18 @@ public class BukkitCommandNode extends LiteralCommandNode<CommandSourceStack> {
             String[] args = org.apache.commons.lang3.StringUtils.split(content, ' '); // fix adjacent spaces (from console/plugins) causing empty array elements
 
             // Note: we don't return the result of target.execute as thats success / failure, we return handled (true) or not handled (false)
-            this.command.execute(sender, this.literal, Arrays.copyOfRange(args, 1, args.length));
+            // Commands run by levels ticked in parallel, like from command blocks, are executed one at a time
+            Lock lock = ParallelWorldTicker.getPluginLock();
+            if (lock != null) {
+                lock.lock();
+            }
+            try {
+                this.command.execute(sender, this.literal, Arrays.copyOfRange(args, 1, args.length));
+            } finally {
+                if (lock != null) {
+                    lock.unlock();
+                }
+            }
 
             // return true as command was handled
             return 1;
@@ -73,6 +73,33 @@ public class GlobalConfiguration extends ConfigurationPart {
         )
         public int playerMaxConcurrentChunkGenerates = 0;
     }
+
+    public AdaptiveDistance adaptiveDistance;
+
+    public class AdaptiveDistance extends ConfigurationPart {
+        @Comment("Whether the view distance of players and the simulation distance of worlds should be lowered while the server is overloaded, and raised again once it has recovered.")
+        public boolean enabled = false;
+        @Comment("The average tick time in milliseconds over the last 5 seconds above which distances are lowered.")
+        public double targetMspt = 45.0;
+        @Comment("The average tick time in milliseconds over the last 5 seconds below which distances are raised again.")
+        public double restoreMspt = 35.0;
+        @Comment("The number of ticks between two adjustments, giving the tick times time to react to the previous one.")
+        @Constraints.Min(1)
+        public int adjustInterval = 40;
+        @Comment("The maximum number of players whose view distance is changed by one chunk in a single adjustment.")
+        @Constraints.Min(1)
+        public int playersPerAdjustment = 10;
+        @Comment("The time in seconds without any action after which players are considered idle and are lowered first.")
+        public int idleTime = 60;
+        @Comment("The view distance players are never lowered below.")
+        @Constraints.Min(2)
+        public int minViewDistance = 4;
+        @Comment("The view distance players are never raised above while this is enabled. Values below 2 use the view distance of the world.")
+        public int maxViewDistance = -1;
+        @Comment("The simulation distance worlds are never lowered below. Simulation distances are only lowered once all players of a world are at the minimum view distance.")
+        @Constraints.Min(2)
+        public int minSimulationDistance = 4;
+    }
     static void set(final GlobalConfiguration instance) {
         GlobalConfiguration.instance = instance;
     }
@@ -181,7 +208,7 @@ public class GlobalConfiguration extends ConfigurationPart {
         public boolean allowHeadlessPistons = false;
         @Comment("This setting controls if the vanilla damage tick should be skipped if damage was blocked via a shield.")
         public boolean skipVanillaDamageTickWhenShieldBlocked = false;
-        @Comment("This setting controls what compression format is used for region files.")
+        @Comment("This setting controls what compression format is used for region files. ZLIB_DICTIONARY uses a dictionary trained for each world with the --recompressRegionFiles startup flag, and ZLIB until then.")
         public CompressionFormat compressionFormat = CompressionFormat.ZLIB;
         @Comment("This setting controls if equipment should be updated when handling certain player actions.")
         public boolean updateEquipmentOnPlayerActions = true;
@@ -191,6 +218,7 @@ public class GlobalConfiguration extends ConfigurationPart {
         public enum CompressionFormat {
             GZIP,
             ZLIB,
+            ZLIB_DICTIONARY,
             LZ4,
             NONE
         }
@@ -203,6 +231,8 @@ public class GlobalConfiguration extends ConfigurationPart {
         public boolean timeCommandAffectsAllWorlds = false;
         @Comment("Allow mounting entities to a player in the Vanilla '/ride' command.")
         public boolean rideCommandAllowPlayerAsVehicle = false;
+        @Comment("Share the command trees sent to players between players with the same permissions. Only enable this if the requirements of all commands depend on permissions alone.")
+        public boolean cacheCommandTrees = false;
     }
 
     public Logging logging;
@@ -249,6 +279,30 @@ public class GlobalConfiguration extends ConfigurationPart {
         }
     }
 
+    @SuppressWarnings("unused") // used in postProcess
+    public AsyncTasks asyncTasks;
+
+    public class AsyncTasks extends ConfigurationPart {
+        @Comment("Whether async plugin tasks should run on virtual threads instead of a pool of platform threads. This keeps memory use low when plugins block in their async tasks.")
+        public boolean useVirtualThreads = false;
+        @Comment("The maximum number of async tasks a single plugin may run at the same time, further tasks wait for a running one to finish. Values below 1 disable the limit. Tasks that wait for another async task of the same plugin, for example by joining its future, never finish once all running tasks of the plugin are waiting, so the limit must stay above the number of such tasks a plugin runs at once.")
+        public int maxConcurrentTasksPerPlugin = -1;
+
+        @PostProcess
+        private void postProcess() {
+            io.papermc.paper.util.concurrent.PluginTaskExecutor.configure(this.useVirtualThreads, this.maxConcurrentTasksPerPlugin);
+        }
+    }
+
+    public ParallelWorldTicking parallelWorldTicking;
+
+    public class ParallelWorldTicking extends ConfigurationPart {
+        @Comment("Whether worlds should be ticked in parallel instead of one after another. Entities changing worlds, players disconnecting and scoreboard criteria updates during world ticks are handled once all worlds are ticked. Plugin event listeners and commands called from world ticks run on the thread of the world, one at a time. They may only access the world they are called for, accessing another world fails with an exception. Only enable this if all plugins support it.")
+        public boolean enabled = false;
+        @Comment("The maximum number of threads ticking worlds at the same time. Values below 1 use one less than the number of available processors.")
+        public int threads = -1;
+    }
+
     public ItemValidation itemValidation;
 
     public class ItemValidation extends ConfigurationPart {
@@ -349,6 +403,30 @@ public class GlobalConfiguration extends ConfigurationPart {
         public boolean loadPermissionsYmlBeforePlugins = true;
         @Constraints.Min(4)
         public int regionFileCacheSize = 256;
+        public RegionFileIo regionFileIo;
+
+        public class RegionFileIo extends ConfigurationPart {
+            @Comment("Whether region files should memory-map their header instead of writing it after every chunk write. On Windows, region files can not be deleted while they are open with a mapped header.")
+            public boolean mapHeaders = false;
+            @Comment("The maximum number of chunk writes to a region file combined into one write. Values below 2 write every chunk on its own. Writes are never batched while sync-chunk-writes is enabled in server.properties, as batched chunks are written after the write returned.")
+            public int maxBatchedWrites = 1;
+            @Comment("The maximum time in milliseconds a chunk write may wait for more writes to the same region file.")
+            public int batchDelay = 50;
+            @Comment("The maximum size in megabytes of the recently saved chunks kept in memory, so loading them again does not read and decompress the region file. 0 disables the cache.")
+            public int savedChunkCacheSize = 0;
+            @Comment("The maximum size in megabytes of the chunks kept in memory by worlds using the BLOB region storage format, shared by all of them. Chunks are kept compressed, and the regions used least recently are saved and dropped first.")
+            public int regionBlobCacheSize = 256;
+        }
+        @Comment("The minimum number of players a packet has to be broadcast to for it to be encoded and compressed once for all of them. Packets containing text and players with plugins changing outgoing packets are still handled per player. Values below 2 encode every packet per player.")
+        public int sharedPacketEncodingMinReceivers = 0;
+        public StatusResponseCache statusResponseCache;
+
+        public class StatusResponseCache extends ConfigurationPart {
+            @Comment("How long in milliseconds a response to a server list ping is reused. Responses are shared by all clients unless a plugin listens to server list pings, then they are cached per client. 0 disables the cache.")
+            public int ttl = 0;
+            @Comment("The maximum number of clients responses are cached for if a plugin listens to server list pings.")
+            public int maxClients = 1024;
+        }
         @Comment("See https://luckformula.emc.gs")
         public boolean useAlternativeLuckFormula = false;
         public boolean useDimensionTypeForCustomSpawners = false;
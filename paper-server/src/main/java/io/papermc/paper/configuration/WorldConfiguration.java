@@ -126,6 +126,12 @@ public class WorldConfiguration extends ConfigurationPart {
                 //</editor-fold>
             );
             public List<Block> replacementBlocks = List.of(Blocks.STONE, Blocks.OAK_PLANKS, Blocks.DEEPSLATE);
+            @Comment("Reuses the obfuscated data of unchanged chunk sections when chunks are sent again, instead of obfuscating them for every send.")
+            public boolean cacheObfuscatedSections = false;
+            @Comment("The maximum number of obfuscated chunk sections kept in the cache of this world.")
+            public int obfuscatedSectionCacheSize = 4096;
+            @Comment("Updates the obfuscation state of chunk layers using the incubating Vector API. Requires the JVM argument --add-modules=jdk.incubator.vector.")
+            public boolean useVectorApi = false;
         }
     }
 
@@ -512,6 +518,13 @@ public class WorldConfiguration extends ConfigurationPart {
             map.put(EntityType.SMALL_FIREBALL, -1);
         });
         public boolean flushRegionsOnSave = false;
+        @Comment("How the chunks of this world are stored. BLOB stores each region as a single compressed file, which is smaller and read sequentially but rewritten as a whole when saved, suiting worlds that rarely change. Saved chunks reach the disk up to 10 seconds later, or before the save returns if sync-chunk-writes is enabled in server.properties, which rewrites the region on every chunk save. The world is converted when it loads with a different format.")
+        public RegionStorageFormat regionStorageFormat = RegionStorageFormat.ANVIL;
+
+        public enum RegionStorageFormat {
+            ANVIL,
+            BLOB
+        }
     }
 
     public FishingTimeRange fishingTimeRange;
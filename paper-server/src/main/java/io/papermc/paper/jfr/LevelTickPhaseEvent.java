@@ -0,0 +1,47 @@
+package io.papermc.paper.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import net.minecraft.world.level.Level;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A phase of the tick of a single level, like ticking its entities or block entities.
+ */
+@NullMarked
+@Name("io.papermc.paper.LevelTickPhase")
+@Label("Level Tick Phase")
+@Category({"Paper", "Tick"})
+@Description("A phase of the tick of a world")
+@StackTrace(false)
+public final class LevelTickPhaseEvent extends Event {
+
+    public static final String ENTITIES = "entities";
+    public static final String BLOCK_ENTITIES = "blockEntities";
+
+    @Label("World")
+    public @Nullable String world;
+
+    @Label("Phase")
+    public @Nullable String phase;
+
+    public static LevelTickPhaseEvent start() {
+        final LevelTickPhaseEvent event = new LevelTickPhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    public void commit(final Level level, final String phase) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.world = level.getWorld().getName();
+            this.phase = phase;
+            this.commit();
+        }
+    }
+}
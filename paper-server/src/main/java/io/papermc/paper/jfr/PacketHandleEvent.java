@@ -0,0 +1,51 @@
+package io.papermc.paper.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import net.minecraft.network.PacketListener;
+import net.minecraft.network.protocol.Packet;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A packet handled on the main thread.
+ */
+@NullMarked
+@Name("io.papermc.paper.PacketHandle")
+@Label("Packet Handle")
+@Category({"Paper", "Network"})
+@Description("A packet handled on the main thread")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class PacketHandleEvent extends Event {
+
+    @Label("Packet Type")
+    public @Nullable String packetType;
+
+    @Label("Packet Class")
+    public @Nullable Class<?> packetClass;
+
+    @Label("Protocol")
+    public @Nullable String protocol;
+
+    public static PacketHandleEvent start() {
+        final PacketHandleEvent event = new PacketHandleEvent();
+        event.begin();
+        return event;
+    }
+
+    public void commit(final Packet<?> packet, final PacketListener listener) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.packetType = packet.type().toString();
+            this.packetClass = packet.getClass();
+            this.protocol = listener.protocol().id();
+            this.commit();
+        }
+    }
+}
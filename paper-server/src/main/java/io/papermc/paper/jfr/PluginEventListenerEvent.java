@@ -0,0 +1,68 @@
+package io.papermc.paper.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.bukkit.plugin.RegisteredListener;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A listener of a plugin handling a Bukkit event.
+ * <p>
+ * Listeners are called very often, so only slow calls are recorded unless the threshold is lowered.
+ */
+@NullMarked
+@Name("io.papermc.paper.PluginEventListener")
+@Label("Plugin Event Listener")
+@Category({"Paper", "Plugins"})
+@Description("A plugin listener handling an event")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class PluginEventListenerEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(PluginEventListenerEvent.class);
+
+    @Label("Event Type")
+    public @Nullable Class<?> eventType;
+
+    @Label("Plugin")
+    public @Nullable String plugin;
+
+    @Label("Listener")
+    public @Nullable Class<?> listener;
+
+    @Label("Priority")
+    public @Nullable String priority;
+
+    /**
+     * {@return whether this event is recorded}
+     * <p>
+     * The generated event dispatchers call the listeners directly, so they can't be used while it is.
+     */
+    public static boolean isRecorded() {
+        return TYPE.isEnabled();
+    }
+
+    public static PluginEventListenerEvent start() {
+        final PluginEventListenerEvent event = new PluginEventListenerEvent();
+        event.begin();
+        return event;
+    }
+
+    public void commit(final org.bukkit.event.Event event, final RegisteredListener registration) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.eventType = event.getClass();
+            this.plugin = registration.getPlugin().getName();
+            this.listener = registration.getListener().getClass();
+            this.priority = registration.getPriority().name();
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.papermc.paper.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import org.bukkit.plugin.Plugin;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A task of a plugin run by the Bukkit scheduler, either on the main thread or asynchronously.
+ */
+@NullMarked
+@Name("io.papermc.paper.PluginTask")
+@Label("Plugin Task")
+@Category({"Paper", "Plugins"})
+@Description("A scheduled task of a plugin running")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class PluginTaskEvent extends Event {
+
+    @Label("Plugin")
+    public @Nullable String plugin;
+
+    @Label("Task Id")
+    public int taskId;
+
+    @Label("Task Class")
+    public @Nullable Class<?> taskClass;
+
+    @Label("Synchronous")
+    public boolean sync;
+
+    public static PluginTaskEvent start() {
+        final PluginTaskEvent event = new PluginTaskEvent();
+        event.begin();
+        return event;
+    }
+
+    public void commit(final Plugin plugin, final int taskId, final @Nullable Class<?> taskClass, final boolean sync) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.plugin = plugin.getName();
+            this.taskId = taskId;
+            this.taskClass = taskClass;
+            this.sync = sync;
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.papermc.paper.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A full server tick, the phases of it are recorded as {@link ServerTickPhaseEvent}s.
+ */
+@NullMarked
+@Name("io.papermc.paper.ServerTick")
+@Label("Server Tick")
+@Category({"Paper", "Tick"})
+@Description("A tick of the server")
+@StackTrace(false)
+public final class ServerTickEvent extends Event {
+
+    @Label("Tick")
+    public int tick;
+
+    public static ServerTickEvent start() {
+        final ServerTickEvent event = new ServerTickEvent();
+        event.begin();
+        return event;
+    }
+
+    public void commit(final int tick) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.tick = tick;
+            this.commit();
+        }
+    }
+}
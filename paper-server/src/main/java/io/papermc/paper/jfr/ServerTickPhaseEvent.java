@@ -0,0 +1,43 @@
+package io.papermc.paper.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A phase of a server tick, like running the scheduler or ticking the levels.
+ */
+@NullMarked
+@Name("io.papermc.paper.ServerTickPhase")
+@Label("Server Tick Phase")
+@Category({"Paper", "Tick"})
+@Description("A phase of a server tick")
+@StackTrace(false)
+public final class ServerTickPhaseEvent extends Event {
+
+    @Label("Tick")
+    public int tick;
+
+    @Label("Phase")
+    public @Nullable String phase;
+
+    public static ServerTickPhaseEvent start() {
+        final ServerTickPhaseEvent event = new ServerTickPhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    public void commit(final int tick, final String phase) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.tick = tick;
+            this.phase = phase;
+            this.commit();
+        }
+    }
+}
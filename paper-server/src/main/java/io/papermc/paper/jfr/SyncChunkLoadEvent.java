@@ -0,0 +1,51 @@
+package io.papermc.paper.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The main thread blocking on a chunk that was not loaded yet. The stack trace of the event shows the caller.
+ */
+@NullMarked
+@Name("io.papermc.paper.SyncChunkLoad")
+@Label("Synchronous Chunk Load")
+@Category({"Paper", "Chunks"})
+@Description("The main thread waiting for a chunk to load or generate")
+public final class SyncChunkLoadEvent extends Event {
+
+    @Label("World")
+    public @Nullable String world;
+
+    @Label("Chunk X")
+    public int chunkX;
+
+    @Label("Chunk Z")
+    public int chunkZ;
+
+    @Label("Status")
+    public @Nullable String status;
+
+    public static SyncChunkLoadEvent start() {
+        final SyncChunkLoadEvent event = new SyncChunkLoadEvent();
+        event.begin();
+        return event;
+    }
+
+    public void commit(final Level level, final int chunkX, final int chunkZ, final ChunkStatus status) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.world = level.getWorld().getName();
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.status = status.getName();
+            this.commit();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package io.papermc.paper.network;
+
+import io.papermc.paper.configuration.GlobalConfiguration;
+import io.papermc.paper.util.IntervalledCounter;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.network.protocol.Packet;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Counts the packets received by a connection against the configured packet limits.
+ * <p>
+ * The limits applying to a packet class are resolved once per class and configuration, so counting a packet
+ * only does array lookups. A limiter must only be used by the event loop of its connection, which is the only
+ * thread reading packets from it, so the counters need no synchronization.
+ */
+@NullMarked
+public final class PacketLimiter {
+
+    private static final Violation ALL_PACKETS_VIOLATION = new Violation(null, GlobalConfiguration.PacketLimiter.PacketLimit.ViolateAction.KICK);
+    private static volatile @Nullable Limits currentLimits;
+
+    private @Nullable Limits limits;
+    private @Nullable IntervalledCounter allPackets;
+    private @Nullable IntervalledCounter[] overrides = new IntervalledCounter[0];
+
+    /**
+     * Counts a received packet.
+     *
+     * @param packet the packet
+     * @return the violated limit, or {@code null} if the packet is within all limits
+     */
+    public @Nullable Violation count(final Packet<?> packet) {
+        final Limits limits = PacketLimiter.limits();
+        if (limits != this.limits) {
+            this.reset(limits);
+        }
+        final IntervalledCounter allPackets = this.allPackets;
+        final int[] overrides = limits.overrides.get(packet.getClass());
+        if (allPackets == null && overrides.length == 0) {
+            return null;
+        }
+
+        final long time = System.nanoTime();
+        if (allPackets != null) {
+            allPackets.updateAndAdd(1, time);
+            if (allPackets.getRate() >= limits.allPackets.maxPacketRate()) {
+                return PacketLimiter.ALL_PACKETS_VIOLATION;
+            }
+        }
+
+        // Ordered from the packet class up to its superclasses
+        for (final int index : overrides) {
+            IntervalledCounter counter = this.overrides[index];
+            if (counter == null) {
+                this.overrides[index] = counter = new IntervalledCounter(limits.intervals[index]);
+            }
+            counter.updateAndAdd(1, time);
+            if (counter.getRate() >= limits.limits[index].maxPacketRate()) {
+                return limits.violations[index];
+            }
+        }
+        return null;
+    }
+
+    private void reset(final Limits limits) {
+        this.limits = limits;
+        this.allPackets = limits.allPackets.isEnabled() ? new IntervalledCounter(PacketLimiter.toNanos(limits.allPackets.interval())) : null;
+        this.overrides = new IntervalledCounter[limits.limits.length];
+    }
+
+    private static Limits limits() {
+        final GlobalConfiguration.PacketLimiter config = GlobalConfiguration.get().packetLimiter;
+        Limits limits = PacketLimiter.currentLimits;
+        if (limits == null || limits.config != config) {
+            // Racing threads may both resolve the new configuration, which is harmless
+            PacketLimiter.currentLimits = limits = new Limits(config);
+        }
+        return limits;
+    }
+
+    private static long toNanos(final double seconds) {
+        return (long) (seconds * 1.0e9);
+    }
+
+    /**
+     * A violated packet limit.
+     *
+     * @param packetClass the packet class of the violated limit, or {@code null} for the limit of all packets
+     * @param action the action to take
+     */
+    public record Violation(@Nullable Class<?> packetClass, GlobalConfiguration.PacketLimiter.PacketLimit.ViolateAction action) {
+    }
+
+    private static final class Limits {
+
+        private final GlobalConfiguration.PacketLimiter config;
+        private final GlobalConfiguration.PacketLimiter.PacketLimit allPackets;
+        private final GlobalConfiguration.PacketLimiter.PacketLimit[] limits;
+        private final long[] intervals;
+        private final Violation[] violations;
+        private final Reference2IntMap<Class<?>> indices = new Reference2IntOpenHashMap<>();
+        private final ClassValue<int[]> overrides = new ClassValue<>() {
+            @Override
+            protected int[] computeValue(final Class<?> type) {
+                final IntArrayList overrides = new IntArrayList();
+                for (Class<?> check = type; check != null && check != Object.class; check = check.getSuperclass()) {
+                    final int index = Limits.this.indices.getInt(check);
+                    if (index != -1) {
+                        overrides.add(index);
+                    }
+                }
+                return overrides.toIntArray();
+            }
+        };
+
+        private Limits(final GlobalConfiguration.PacketLimiter config) {
+            this.config = config;
+            this.allPackets = config.allPackets;
+            this.indices.defaultReturnValue(-1);
+            final List<GlobalConfiguration.PacketLimiter.PacketLimit> limits = new ArrayList<>();
+            final List<Violation> violations = new ArrayList<>();
+            for (final Map.Entry<Class<? extends Packet<?>>, GlobalConfiguration.PacketLimiter.PacketLimit> entry : config.overrides.entrySet()) {
+                final GlobalConfiguration.PacketLimiter.PacketLimit limit = entry.getValue();
+                if (!limit.isEnabled()) {
+                    continue;
+                }
+                this.indices.put(entry.getKey(), limits.size());
+                limits.add(limit);
+                violations.add(new Violation(entry.getKey(), limit.action()));
+            }
+            this.limits = limits.toArray(GlobalConfiguration.PacketLimiter.PacketLimit[]::new);
+            this.violations = violations.toArray(Violation[]::new);
+            this.intervals = new long[this.limits.length];
+            for (int i = 0; i < this.limits.length; i++) {
+                this.intervals[i] = PacketLimiter.toNanos(this.limits[i].interval());
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package io.papermc.paper.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelOutboundHandler;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.flow.FlowControlHandler;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import net.minecraft.network.CipherEncoder;
+import net.minecraft.network.CompressionEncoder;
+import net.minecraft.network.ConnectionProtocol;
+import net.minecraft.network.PacketBundleUnpacker;
+import net.minecraft.network.PacketEncoder;
+import net.minecraft.network.ProtocolInfo;
+import net.minecraft.network.VarInt;
+import net.minecraft.network.Varint21LengthFieldPrepender;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.BundlePacket;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.network.protocol.game.ClientboundSetDefaultSpawnPositionPacket;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.ServerCommonPacketListenerImpl;
+import net.minecraft.server.network.ServerPlayerConnection;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Encodes and compresses a packet broadcast to many players once, instead of once in the pipeline of every
+ * connection.
+ * <p>
+ * The framed packet is written to each connection below its length prepender, so only encryption still runs per
+ * connection. Connections with outbound handlers the server does not know about, for example from plugins
+ * modifying packets, and packets containing text components, which are rendered for the locale of each player,
+ * are sent the normal way.
+ */
+@NullMarked
+public final class SharedPacketEncoder {
+
+    // packet size is encoded into a 3-byte varint
+    private static final int MAX_FRAMED_SIZE = (1 << 21) - 1;
+    private static final int MAX_PACKET_SIZE = 8388608;
+    private static final Set<Class<?>> KNOWN_OUTBOUND_HANDLERS = Set.of(
+        PacketEncoder.class,
+        CompressionEncoder.class,
+        Varint21LengthFieldPrepender.class,
+        CipherEncoder.class,
+        PacketBundleUnpacker.class,
+        FlowControlHandler.class,
+        FlushConsolidationHandler.class
+    );
+    private static final ThreadLocal<boolean[]> PLAYER_DEPENDENT = ThreadLocal.withInitial(() -> new boolean[1]);
+    private static final ThreadLocal<Deflater> DEFLATER = new ThreadLocal<>();
+
+    private final Packet<?> packet;
+    private final Int2ObjectMap<ByteBuf> frames = new Int2ObjectArrayMap<>(2);
+    private @Nullable ByteBuf encoded;
+    private boolean failed;
+
+    SharedPacketEncoder(final Packet<?> packet) {
+        this.packet = packet;
+    }
+
+    /**
+     * Sends a packet to the given players.
+     */
+    public static void broadcast(final Packet<?> packet, final Collection<ServerPlayer> players) {
+        broadcast(packet, players, player -> player.connection);
+    }
+
+    /**
+     * Sends a packet to the given player connections.
+     */
+    public static void broadcastToConnections(final Packet<?> packet, final Collection<? extends ServerPlayerConnection> connections) {
+        broadcast(packet, connections, Function.identity());
+    }
+
+    private static <T> void broadcast(final Packet<?> packet, final Collection<T> receivers, final Function<? super T, ? extends ServerPlayerConnection> connection) {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        final int minReceivers = config == null ? 0 : config.misc.sharedPacketEncodingMinReceivers;
+        if (minReceivers < 2 || receivers.size() < minReceivers || !isShareable(packet)) {
+            for (final T receiver : receivers) {
+                connection.apply(receiver).send(packet);
+            }
+            return;
+        }
+
+        final SharedPacketEncoder encoder = new SharedPacketEncoder(packet);
+        try {
+            for (final T receiver : receivers) {
+                final ServerPlayerConnection playerConnection = connection.apply(receiver);
+                if (encoder.failed || !(playerConnection instanceof ServerCommonPacketListenerImpl listener) || !listener.sendEncoded(encoder)) {
+                    playerConnection.send(packet);
+                }
+            }
+        } finally {
+            encoder.release();
+        }
+    }
+
+    private static boolean isShareable(final Packet<?> packet) {
+        // bundles are split by the pipeline, terminal packets switch the protocol, the spawn position is
+        // tracked by ServerCommonPacketListenerImpl#send, and delayed packets or those with extra packets are queued
+        return !(packet instanceof BundlePacket<?>)
+            && !packet.isTerminal()
+            && !(packet instanceof ClientboundSetDefaultSpawnPositionPacket)
+            && packet.isReady()
+            && !packet.hasFinishListener()
+            && packet.getExtraPackets() == null;
+    }
+
+    /**
+     * Marks the packet currently encoded on this thread as depending on the player it is sent to.
+     */
+    public static void markPlayerDependent() {
+        PLAYER_DEPENDENT.get()[0] = true;
+    }
+
+    /**
+     * Checks whether the pipeline only has outbound handlers known to not modify packets.
+     */
+    public static boolean supportsPipeline(final ChannelPipeline pipeline) {
+        if (!(pipeline.get("prepender") instanceof Varint21LengthFieldPrepender)) {
+            return false;
+        }
+        for (final Map.Entry<String, ChannelHandler> entry : pipeline) {
+            final ChannelHandler handler = entry.getValue();
+            if (handler instanceof ChannelOutboundHandler && !KNOWN_OUTBOUND_HANDLERS.contains(handler.getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the framed packet to write below the length prepender of the given pipeline.
+     *
+     * @param pipeline the pipeline of the connection
+     * @param copyWith the allocator to copy the frame with, for handlers modifying it in place, or {@code null} to share it
+     * @return the frame, to be released by the caller, or {@code null} if the packet must be sent the normal way
+     */
+    public @Nullable ByteBuf frame(final ChannelPipeline pipeline, final @Nullable ByteBufAllocator copyWith) {
+        if (this.failed
+            || !(pipeline.get("encoder") instanceof PacketEncoder<?> packetEncoder)
+            || packetEncoder.protocolInfo().id() != ConnectionProtocol.PLAY
+            || packetEncoder.protocolInfo().flow() != PacketFlow.CLIENTBOUND) {
+            return null;
+        }
+        final int threshold = pipeline.get("compress") instanceof CompressionEncoder compressionEncoder ? compressionEncoder.getThreshold() : -1;
+        ByteBuf frame = this.frames.get(threshold);
+        if (frame == null) {
+            frame = this.createFrame(packetEncoder.protocolInfo(), threshold);
+            if (frame == null) {
+                this.failed = true;
+                return null;
+            }
+            this.frames.put(threshold, frame);
+        }
+        if (copyWith != null) {
+            return copyWith.buffer(frame.readableBytes()).writeBytes(frame, frame.readerIndex(), frame.readableBytes());
+        }
+        return frame.retainedDuplicate();
+    }
+
+    /**
+     * Encodes and frames a packet for connections without compression and encryption, for example in the status
+     * protocol.
+     *
+     * @param packet the packet
+     * @param protocolInfo the protocol of the connections
+     * @return the frame, or {@code null} if the packet must be sent the normal way
+     */
+    public static byte @Nullable [] frameUncompressed(final Packet<?> packet, final ProtocolInfo<?> protocolInfo) {
+        final SharedPacketEncoder encoder = new SharedPacketEncoder(packet);
+        try {
+            final ByteBuf frame = encoder.createFrame(protocolInfo, -1);
+            if (frame == null) {
+                return null;
+            }
+            try {
+                final byte[] bytes = new byte[frame.readableBytes()];
+                frame.readBytes(bytes);
+                return bytes;
+            } finally {
+                frame.release();
+            }
+        } finally {
+            encoder.release();
+        }
+    }
+
+    private @Nullable ByteBuf createFrame(final ProtocolInfo<?> protocolInfo, final int threshold) {
+        ByteBuf encoded = this.encoded;
+        if (encoded == null) {
+            this.encoded = encoded = this.encode(protocolInfo);
+            if (encoded == null) {
+                return null;
+            }
+        }
+
+        final ByteBuf body;
+        final int size = encoded.readableBytes();
+        if (threshold < 0) {
+            body = encoded.retainedDuplicate();
+        } else if (size < threshold) {
+            body = ByteBufAllocator.DEFAULT.buffer(size + 1);
+            VarInt.write(body, 0);
+            body.writeBytes(encoded, encoded.readerIndex(), size);
+        } else {
+            body = ByteBufAllocator.DEFAULT.buffer(size / 2 + VarInt.MAX_VARINT_SIZE);
+            VarInt.write(body, size);
+            deflate(encoded, body);
+        }
+
+        try {
+            final int bodySize = body.readableBytes();
+            if (bodySize > MAX_FRAMED_SIZE) {
+                return null;
+            }
+            final ByteBuf frame = ByteBufAllocator.DEFAULT.buffer(VarInt.getByteSize(bodySize) + bodySize);
+            VarInt.write(frame, bodySize);
+            frame.writeBytes(body);
+            return frame;
+        } finally {
+            body.release();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable ByteBuf encode(final ProtocolInfo<?> protocolInfo) {
+        final boolean[] playerDependent = PLAYER_DEPENDENT.get();
+        playerDependent[0] = false;
+        final ByteBuf buf = ByteBufAllocator.DEFAULT.buffer();
+        try {
+            ((StreamCodec<ByteBuf, Packet<?>>) (StreamCodec<?, ?>) protocolInfo.codec()).encode(buf, this.packet);
+        } catch (final RuntimeException ex) {
+            // let the pipeline of each connection handle the error
+            buf.release();
+            return null;
+        }
+        if (playerDependent[0] || buf.readableBytes() > MAX_PACKET_SIZE) {
+            buf.release();
+            return null;
+        }
+        return buf;
+    }
+
+    private static void deflate(final ByteBuf in, final ByteBuf out) {
+        final int level = GlobalConfiguration.get().misc.compressionLevel.or(Deflater.DEFAULT_COMPRESSION);
+        Deflater deflater = DEFLATER.get();
+        if (deflater == null) {
+            deflater = new Deflater(level);
+            DEFLATER.set(deflater);
+        } else {
+            deflater.setLevel(level);
+        }
+
+        final byte[] input = new byte[in.readableBytes()];
+        in.getBytes(in.readerIndex(), input);
+        deflater.setInput(input);
+        deflater.finish();
+        final byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            final int length = deflater.deflate(buffer);
+            out.writeBytes(buffer, 0, length);
+        }
+        deflater.reset();
+    }
+
+    void release() {
+        if (this.encoded != null) {
+            this.encoded.release();
+            this.encoded = null;
+        }
+        for (final ByteBuf frame : this.frames.values()) {
+            frame.release();
+        }
+        this.frames.clear();
+    }
+}
@@ -0,0 +1,169 @@
+package io.papermc.paper.network;
+
+import io.netty.buffer.Unpooled;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.network.Connection;
+import net.minecraft.network.ConnectionProtocol;
+import net.minecraft.network.PacketEncoder;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.network.protocol.status.ClientboundStatusResponsePacket;
+import org.bukkit.event.server.ServerListPingEvent;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Cache of the responses to server list pings.
+ * <p>
+ * If no plugin listens to server list pings, a single response is shared by all clients. Otherwise responses are
+ * cached per client address, protocol version and virtual host, so repeated pings of the same client do not fire
+ * the event again. Responses are discarded when they expire, when the player count changes, or when they are
+ * invalidated through the API. The response packet is encoded once and written to the connections as is.
+ */
+@NullMarked
+public final class StatusResponseCache {
+
+    public static final StatusResponseCache INSTANCE = new StatusResponseCache();
+
+    private final Map<Key, Response> responses = new ConcurrentHashMap<>();
+    private volatile @Nullable Response shared;
+
+    private StatusResponseCache() {
+    }
+
+    /**
+     * Returns the key to cache the response for a connection with.
+     *
+     * @param connection the connection of the client
+     * @return the key, or {@code null} if responses are not cached
+     */
+    public @Nullable Key key(final Connection connection) {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        if (config == null || config.misc.statusResponseCache.ttl <= 0) {
+            return null;
+        }
+        if (ServerListPingEvent.getHandlerList().getRegisteredListeners().length == 0) {
+            return Key.SHARED;
+        }
+        if (config.misc.statusResponseCache.maxClients <= 0) {
+            return null;
+        }
+        final SocketAddress address = connection.getRemoteAddress();
+        return new Key(
+            address instanceof final InetSocketAddress inetAddress && inetAddress.getAddress() != null ? inetAddress.getAddress() : address,
+            connection.protocolVersion,
+            connection.virtualHost == null ? null : connection.virtualHost.getHostString()
+        );
+    }
+
+    /**
+     * Returns the cached response.
+     *
+     * @param key the key of the client
+     * @param playerCount the current player count
+     * @return the response, or {@code null} if none is cached
+     */
+    public @Nullable Response get(final Key key, final int playerCount) {
+        final Response response = key == Key.SHARED ? this.shared : this.responses.get(key);
+        if (response == null || response.playerCount != playerCount || response.expiresAt - System.nanoTime() < 0L) {
+            return null;
+        }
+        return response;
+    }
+
+    /**
+     * Caches a response.
+     *
+     * @param key the key of the client
+     * @param playerCount the player count the response was created for
+     * @param packet the response, or {@code null} if the client is disconnected
+     * @return the cached response
+     */
+    public Response put(final Key key, final int playerCount, final @Nullable ClientboundStatusResponsePacket packet) {
+        final GlobalConfiguration.Misc.StatusResponseCache config = GlobalConfiguration.get().misc.statusResponseCache;
+        final long now = System.nanoTime();
+        final Response response = new Response(now + config.ttl * 1_000_000L, playerCount, packet);
+        if (key == Key.SHARED) {
+            this.shared = response;
+        } else {
+            if (this.responses.size() >= config.maxClients) {
+                this.responses.values().removeIf(cached -> cached.expiresAt - now < 0L);
+            }
+            if (this.responses.size() < config.maxClients) {
+                this.responses.put(key, response);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Discards all cached responses.
+     */
+    public void invalidate() {
+        this.shared = null;
+        this.responses.clear();
+    }
+
+    public record Key(@Nullable Object address, int protocolVersion, @Nullable String virtualHost) {
+        static final Key SHARED = new Key(null, -1, null);
+    }
+
+    public static final class Response {
+        private final long expiresAt;
+        private final int playerCount;
+        private final @Nullable ClientboundStatusResponsePacket packet;
+        private volatile byte @Nullable [] frame;
+        private volatile boolean unframeable;
+
+        private Response(final long expiresAt, final int playerCount, final @Nullable ClientboundStatusResponsePacket packet) {
+            this.expiresAt = expiresAt;
+            this.playerCount = playerCount;
+            this.packet = packet;
+        }
+
+        /**
+         * Sends the response to a client.
+         *
+         * @param connection the connection of the client
+         */
+        public void send(final Connection connection) {
+            final ClientboundStatusResponsePacket packet = this.packet;
+            if (packet == null) {
+                connection.disconnect((Component) null);
+                return;
+            }
+            final byte[] frame = this.frame(connection, packet);
+            if (frame != null) {
+                connection.sendFramed(Unpooled.wrappedBuffer(frame), true);
+            } else {
+                connection.send(packet);
+            }
+        }
+
+        private byte @Nullable [] frame(final Connection connection, final ClientboundStatusResponsePacket packet) {
+            // status connections are neither compressed nor encrypted
+            if (this.unframeable
+                || connection.channel.pipeline().get("compress") != null
+                || !SharedPacketEncoder.supportsPipeline(connection.channel.pipeline())
+                || !(connection.channel.pipeline().get("encoder") instanceof PacketEncoder<?> encoder)
+                || encoder.protocolInfo().id() != ConnectionProtocol.STATUS
+                || encoder.protocolInfo().flow() != PacketFlow.CLIENTBOUND) {
+                return null;
+            }
+            byte[] frame = this.frame;
+            if (frame == null) {
+                frame = SharedPacketEncoder.frameUncompressed(packet, encoder.protocolInfo());
+                if (frame == null) {
+                    this.unframeable = true;
+                    return null;
+                }
+                this.frame = frame;
+            }
+            return frame;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package io.papermc.paper.plugin.manager;
+
+import org.bukkit.event.Event;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Calls all listeners of a baked {@link org.bukkit.event.HandlerList} in priority order.
+ * Implementations are generated by {@link EventDispatcherFactory}.
+ */
+@NullMarked
+interface EventDispatcher {
+
+    void dispatch(PaperEventManager manager, Event event);
+}
@@ -0,0 +1,204 @@
+package io.papermc.paper.plugin.manager;
+
+import com.mojang.logging.LogUtils;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.ConstantDynamic;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates a hidden class per baked handler list which calls every listener in order with straight-line code.
+ * <p>
+ * The listeners, their plugins and method handles are loaded from the class data as dynamic constants, so the JIT
+ * can inline the handler methods into the dispatcher. Listeners created from {@link org.bukkit.event.EventHandler}
+ * methods are called directly, all other listeners are called through {@link RegisteredListener#callEvent(Event)}.
+ */
+@NullMarked
+final class EventDispatcherFactory {
+
+    private static final Logger LOGGER = LogUtils.getClassLogger();
+    // Keep the generated methods below the size limit for JIT compilation, see DontCompileHugeMethods
+    private static final int LISTENERS_PER_METHOD = 32;
+    // Every listener takes three constant pool entries for its class data
+    private static final int MAX_LISTENERS = 4096;
+    private static final String CLASS_NAME = Type.getInternalName(EventDispatcherFactory.class).replace("EventDispatcherFactory", "GeneratedEventDispatcher");
+    private static final String DISPATCH_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(PaperEventManager.class), Type.getType(Event.class));
+    private static final Handle CLASS_DATA_AT = new Handle(H_INVOKESTATIC, Type.getInternalName(MethodHandles.class), "classDataAt",
+        Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(MethodHandles.Lookup.class), Type.getType(String.class), Type.getType(Class.class), Type.INT_TYPE), false);
+    private static final MethodType LISTENER_TYPE = MethodType.methodType(void.class, Event.class);
+    private static final MethodHandle CALL_EVENT;
+    private static final MethodHandle IS_INSTANCE;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            CALL_EVENT = lookup.findVirtual(RegisteredListener.class, "callEvent", LISTENER_TYPE);
+            IS_INSTANCE = lookup.findVirtual(Class.class, "isInstance", MethodType.methodType(boolean.class, Object.class));
+        } catch (final ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private EventDispatcherFactory() {
+    }
+
+    /**
+     * {@return a dispatcher calling the given listeners in order, or {@code null} if none could be generated}
+     *
+     * @param listeners the baked listeners of a handler list
+     */
+    static @Nullable EventDispatcher create(final RegisteredListener[] listeners) {
+        if (listeners.length > MAX_LISTENERS) {
+            return null;
+        }
+
+        try {
+            final List<Object> classData = new ArrayList<>(listeners.length * 3);
+            for (final RegisteredListener listener : listeners) {
+                classData.add(createHandle(listener));
+                classData.add(listener.getPlugin());
+                classData.add(listener);
+            }
+
+            final MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClassWithClassData(generate(listeners), List.copyOf(classData), true);
+            return (EventDispatcher) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (final Throwable e) {
+            LOGGER.error("Failed to generate event dispatcher, falling back to calling listeners one by one", e);
+            return null;
+        }
+    }
+
+    private static MethodHandle createHandle(final RegisteredListener listener) {
+        if (!(listener instanceof final MethodRegisteredListener methodListener)) {
+            return CALL_EVENT.bindTo(listener);
+        }
+
+        final Method method = methodListener.getMethod();
+        MethodHandle handle;
+        try {
+            // The method was made accessible on registration
+            handle = MethodHandles.lookup().unreflect(method);
+        } catch (final IllegalAccessException e) {
+            return CALL_EVENT.bindTo(listener);
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Listener.class);
+        }
+        handle = handle.bindTo(listener.getListener()).asType(LISTENER_TYPE);
+        // Listeners of event subclasses without their own handler list are registered to the handler list of the parent
+        return MethodHandles.guardWithTest(IS_INSTANCE.bindTo(methodListener.getEventClass()).asType(MethodType.methodType(boolean.class, Event.class)), handle, MethodHandles.empty(LISTENER_TYPE));
+    }
+
+    private static byte[] generate(final RegisteredListener[] listeners) {
+        final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(final String type1, final String type2) {
+                // Frames never merge unrelated types, don't load classes for it
+                return Type.getInternalName(Object.class);
+            }
+        };
+        cw.visit(V21, ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, CLASS_NAME, null, Type.getInternalName(Object.class), new String[]{Type.getInternalName(EventDispatcher.class)});
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, Type.getInternalName(Object.class), "<init>", "()V", false);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        final int methods = (listeners.length + LISTENERS_PER_METHOD - 1) / LISTENERS_PER_METHOD;
+        mv = cw.visitMethod(ACC_PUBLIC, "dispatch", DISPATCH_DESCRIPTOR, null, null);
+        mv.visitCode();
+        for (int i = 0; i < methods; i++) {
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitMethodInsn(INVOKESTATIC, CLASS_NAME, "dispatch" + i, DISPATCH_DESCRIPTOR, false);
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        for (int i = 0; i < methods; i++) {
+            mv = cw.visitMethod(ACC_PRIVATE | ACC_STATIC, "dispatch" + i, DISPATCH_DESCRIPTOR, null, null);
+            mv.visitCode();
+            final int end = Math.min(listeners.length, (i + 1) * LISTENERS_PER_METHOD);
+            for (int index = i * LISTENERS_PER_METHOD; index < end; index++) {
+                generateCall(mv, index, listeners[index]);
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    // Locals: 0 = manager, 1 = event, 2 = caught exception
+    private static void generateCall(final MethodVisitor mv, final int index, final RegisteredListener listener) {
+        final Label skip = new Label();
+        final Label tryStart = new Label();
+        final Label tryEnd = new Label();
+        final Label handler = new Label();
+        mv.visitTryCatchBlock(tryStart, tryEnd, handler, Type.getInternalName(Throwable.class));
+
+        mv.visitLdcInsn(classData(index * 3 + 1, Plugin.class));
+        mv.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(Plugin.class), "isEnabled", "()Z", true);
+        mv.visitJumpInsn(IFEQ, skip);
+
+        // RegisteredListener#callEvent checks this on its own
+        if (listener instanceof MethodRegisteredListener && listener.isIgnoringCancelled()) {
+            final Label call = new Label();
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitTypeInsn(INSTANCEOF, Type.getInternalName(Cancellable.class));
+            mv.visitJumpInsn(IFEQ, call);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitTypeInsn(CHECKCAST, Type.getInternalName(Cancellable.class));
+            mv.visitMethodInsn(INVOKEINTERFACE, Type.getInternalName(Cancellable.class), "isCancelled", "()Z", true);
+            mv.visitJumpInsn(IFNE, skip);
+            mv.visitLabel(call);
+        }
+
+        mv.visitLabel(tryStart);
+        mv.visitLdcInsn(classData(index * 3, MethodHandle.class));
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(MethodHandle.class), "invokeExact", LISTENER_TYPE.toMethodDescriptorString(), false);
+        mv.visitLabel(tryEnd);
+        mv.visitJumpInsn(GOTO, skip);
+
+        mv.visitLabel(handler);
+        mv.visitVarInsn(ASTORE, 2);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitLdcInsn(classData(index * 3 + 2, RegisteredListener.class));
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(PaperEventManager.class), "handleListenerException",
+            Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(RegisteredListener.class), Type.getType(Event.class), Type.getType(Throwable.class)), false);
+
+        mv.visitLabel(skip);
+    }
+
+    private static ConstantDynamic classData(final int index, final Class<?> type) {
+        return new ConstantDynamic("_", Type.getDescriptor(type), CLASS_DATA_AT, index);
+    }
+}
@@ -0,0 +1,35 @@
+package io.papermc.paper.plugin.manager;
+
+import java.lang.reflect.Method;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * A {@link RegisteredListener} created from an {@link org.bukkit.event.EventHandler} method, which allows
+ * {@link EventDispatcherFactory} to call the method directly instead of going through the executor.
+ */
+@NullMarked
+final class MethodRegisteredListener extends RegisteredListener {
+
+    private final Method method;
+    private final Class<? extends Event> eventClass;
+
+    MethodRegisteredListener(final Listener listener, final EventExecutor executor, final EventPriority priority, final Plugin plugin, final boolean ignoreCancelled, final Method method, final Class<? extends Event> eventClass) {
+        super(listener, executor, priority, plugin, ignoreCancelled);
+        this.method = method;
+        this.eventClass = eventClass;
+    }
+
+    Method getMethod() {
+        return this.method;
+    }
+
+    Class<? extends Event> getEventClass() {
+        return this.eventClass;
+    }
+}
@@ -1,9 +1,12 @@
 package io.papermc.paper.plugin.manager;
 
 import co.aikar.timings.TimedEventExecutor;
+import co.aikar.timings.Timings;
 import com.destroystokyo.paper.event.server.ServerExceptionEvent;
 import com.destroystokyo.paper.exception.ServerEventException;
 import com.google.common.collect.Sets;
+import io.papermc.paper.jfr.PluginEventListenerEvent;
+import io.papermc.paper.world.ParallelWorldTicker;
 import org.bukkit.Server;
 import org.bukkit.Warning;
 import org.bukkit.event.Event;
@@ -17,6 +20,7 @@ import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.RegisteredListener;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
@@ -24,11 +28,15 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 import java.util.logging.Level;
 
 class PaperEventManager {
 
     private final Server server;
+    // Handler lists live as long as their event class, replacing the entry drops the dispatcher of the previous listeners
+    private final Map<HandlerList, BakedHandlers> bakedHandlers = new ConcurrentHashMap<>();
 
     public PaperEventManager(Server server) {
         this.server = server;
@@ -45,33 +53,104 @@ class PaperEventManager {
         HandlerList handlers = event.getHandlers();
         RegisteredListener[] listeners = handlers.getRegisteredListeners();
 
+        if (listeners.length == 0) {
+            return;
+        }
+
+        // Listeners of levels ticked in parallel are called one at a time, like on the main thread
+        Lock lock = event.isAsynchronous() ? null : ParallelWorldTicker.getPluginLock();
+        if (lock == null) {
+            this.callListeners(event, handlers, listeners);
+            return;
+        }
+        lock.lock();
+        try {
+            this.callListeners(event, handlers, listeners);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void callListeners(Event event, HandlerList handlers, RegisteredListener[] listeners) {
+        // The generated dispatchers bypass the timed executors and the flight recorder events
+        EventDispatcher dispatcher = Timings.isTimingsEnabled() || PluginEventListenerEvent.isRecorded() ? null : this.getDispatcher(handlers, listeners);
+        if (dispatcher != null) {
+            dispatcher.dispatch(this, event);
+            return;
+        }
+
         for (RegisteredListener registration : listeners) {
             if (!registration.getPlugin().isEnabled()) {
                 continue;
             }
 
+            PluginEventListenerEvent listenerEvent = PluginEventListenerEvent.start();
             try {
                 registration.callEvent(event);
-            } catch (AuthorNagException ex) {
-                Plugin plugin = registration.getPlugin();
-
-                if (plugin.isNaggable()) {
-                    plugin.setNaggable(false);
-
-                    this.server.getLogger().log(Level.SEVERE, String.format(
-                        "Nag author(s): '%s' of '%s' about the following: %s",
-                        plugin.getPluginMeta().getAuthors(),
-                        plugin.getPluginMeta().getDisplayName(),
-                        ex.getMessage()
-                    ));
-                }
             } catch (Throwable ex) {
-                String msg = "Could not pass event " + event.getEventName() + " to " + registration.getPlugin().getPluginMeta().getDisplayName();
-                this.server.getLogger().log(Level.SEVERE, msg, ex);
-                if (!(event instanceof ServerExceptionEvent)) { // We don't want to cause an endless event loop
-                    this.callEvent(new ServerExceptionEvent(new ServerEventException(msg, ex, registration.getPlugin(), registration.getListener(), event)));
-                }
+                this.handleListenerException(registration, event, ex);
+            } finally {
+                listenerEvent.commit(event, registration);
+            }
+        }
+    }
+
+    // Called by the generated dispatchers
+    void handleListenerException(RegisteredListener registration, Event event, Throwable ex) {
+        if (ex instanceof AuthorNagException) {
+            Plugin plugin = registration.getPlugin();
+
+            if (plugin.isNaggable()) {
+                plugin.setNaggable(false);
+
+                this.server.getLogger().log(Level.SEVERE, String.format(
+                    "Nag author(s): '%s' of '%s' about the following: %s",
+                    plugin.getPluginMeta().getAuthors(),
+                    plugin.getPluginMeta().getDisplayName(),
+                    ex.getMessage()
+                ));
+            }
+            return;
+        }
+
+        String msg = "Could not pass event " + event.getEventName() + " to " + registration.getPlugin().getPluginMeta().getDisplayName();
+        this.server.getLogger().log(Level.SEVERE, msg, ex);
+        if (!(event instanceof ServerExceptionEvent)) { // We don't want to cause an endless event loop
+            this.callEvent(new ServerExceptionEvent(new ServerEventException(msg, ex, registration.getPlugin(), registration.getListener(), event)));
+        }
+    }
+
+    @Nullable
+    private EventDispatcher getDispatcher(HandlerList handlers, RegisteredListener[] listeners) {
+        BakedHandlers baked = this.bakedHandlers.get(handlers);
+        if (baked == null || baked.listeners != listeners) {
+            // The handler list was baked again, start counting calls for the new listeners
+            baked = new BakedHandlers(listeners);
+            this.bakedHandlers.put(handlers, baked);
+        }
+        return baked.getDispatcher();
+    }
+
+    // Generating a class is only worth it for events that are called often, the listeners of a handler list may change frequently
+    private static final class BakedHandlers {
+        private static final int CALLS_BEFORE_GENERATING = 64;
+
+        private final RegisteredListener[] listeners;
+        // Races only cause a few more calls through the fallback or a duplicate class
+        private int calls;
+        private @Nullable EventDispatcher dispatcher;
+
+        private BakedHandlers(RegisteredListener[] listeners) {
+            this.listeners = listeners;
+        }
+
+        @Nullable
+        private EventDispatcher getDispatcher() {
+            EventDispatcher dispatcher = this.dispatcher;
+            if (dispatcher == null && this.calls++ == CALLS_BEFORE_GENERATING) {
+                this.dispatcher = dispatcher = EventDispatcherFactory.create(this.listeners);
             }
+            return dispatcher;
         }
     }
 
@@ -183,12 +262,18 @@ class PaperEventManager {
             }
 
             EventExecutor executor = new TimedEventExecutor(EventExecutor.create(method, eventClass), plugin, method, eventClass);
-            eventSet.add(new RegisteredListener(listener, executor, eh.priority(), plugin, eh.ignoreCancelled()));
+            eventSet.add(new MethodRegisteredListener(listener, executor, eh.priority(), plugin, eh.ignoreCancelled(), method, eventClass));
         }
         return ret;
     }
 
     public void clearEvents() {
         HandlerList.unregisterAll();
+        this.clearDispatchers();
+    }
+
+    // Handler lists without listeners are never called again to replace their entry, so drop them when plugins are disabled
+    public void clearDispatchers() {
+        this.bakedHandlers.clear();
     }
 }
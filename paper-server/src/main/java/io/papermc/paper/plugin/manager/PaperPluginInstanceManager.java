@@ -318,6 +318,14 @@ class PaperPluginInstanceManager {
             this.handlePluginException("Error occurred (in the plugin loader) while removing chunk tickets for " + pluginName + " (Is it up to date?)", ex, plugin); // Paper
         }
 
+        try {
+            for (World world : this.server.getWorlds()) {
+                world.removePluginTriggerVolumes(plugin);
+            }
+        } catch (Throwable ex) {
+            this.handlePluginException("Error occurred (in the plugin loader) while removing trigger volumes for " + pluginName + " (Is it up to date?)", ex, plugin);
+        }
+
     }
 
     // TODO: Implement event part in future patch (paper patch move up, this patch is lower)
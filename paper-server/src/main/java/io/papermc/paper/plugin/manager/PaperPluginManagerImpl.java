@@ -95,6 +95,7 @@ public class PaperPluginManagerImpl implements PluginManager, DependencyContext
     @Override
     public void disablePlugins() {
         this.instanceManager.disablePlugins();
+        this.paperEventManager.clearDispatchers();
     }
 
     @Override
@@ -112,6 +113,7 @@ public class PaperPluginManagerImpl implements PluginManager, DependencyContext
     @Override
     public void disablePlugin(@NotNull Plugin plugin) {
         this.instanceManager.disablePlugin(plugin);
+        this.paperEventManager.clearDispatchers();
     }
 
     @Override
@@ -0,0 +1,176 @@
+package io.papermc.paper.pluginremap;
+
+import com.google.common.hash.Hasher;
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.util.AtomicFiles;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.apache.commons.io.file.PathUtils;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.checkerframework.framework.qual.DefaultQualifier;
+import org.slf4j.Logger;
+
+/**
+ * On-disk cache of plugin classes after they have been rewritten by Commodore and the reflection remapper.
+ * <p>
+ * Entries are addressed by a hash of the original class bytes together with everything else the rewrite
+ * depends on: the plugin name, its api version and the active compatibilities. A changed plugin jar therefore
+ * simply misses the cache for the classes that changed. Entries of other server builds are deleted when the
+ * cache is opened, as the rewrite rules may differ between builds. Entries that were not used since the previous
+ * boot started are deleted as well, so classes of updated or removed plugins do not accumulate.
+ */
+@DefaultQualifier(NonNull.class)
+public final class ProcessedClassCache {
+    public static final boolean DISABLED = Boolean.getBoolean("paper.disableProcessedClassCache");
+    private static final Logger LOGGER = LogUtils.getClassLogger();
+    private static final int FORMAT_VERSION = 1;
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String LAST_BOOT = "last-boot";
+
+    private final Path dir;
+    private volatile boolean failed;
+
+    ProcessedClassCache(final Path root, final String build) {
+        final String buildHash = com.google.common.hash.Hashing.sha256()
+            .hashString(FORMAT_VERSION + ":" + build, StandardCharsets.UTF_8)
+            .toString()
+            .substring(0, 16);
+        this.dir = root.resolve(buildHash);
+        deleteOtherBuilds(root, buildHash);
+        deleteUnused(this.dir);
+    }
+
+    /**
+     * Opens the cache for this server build.
+     *
+     * @return the cache, or {@code null} if it is disabled
+     */
+    public static @Nullable ProcessedClassCache create() {
+        if (DISABLED) {
+            return null;
+        }
+        // the flags change how classes are processed, so they are part of the build
+        final String build = io.papermc.paper.ServerBuildInfo.buildInfo().asString(io.papermc.paper.ServerBuildInfo.StringRepresentation.VERSION_FULL)
+            + ";oldApi=" + !org.bukkit.craftbukkit.util.CraftMagicNumbers.DISABLE_OLD_API_SUPPORT
+            + ";remap=" + !io.papermc.paper.util.MappingEnvironment.DISABLE_PLUGIN_REMAPPING;
+        return new ProcessedClassCache(Path.of("cache", "processed-plugin-classes"), build);
+    }
+
+    /**
+     * Returns the processed class from the cache, processing and caching it if it is missing.
+     * Errors accessing the cache are logged once, after which classes are only processed. Classes are
+     * not cached if processing them fails.
+     *
+     * @param pluginName the name of the plugin owning the class
+     * @param apiVersion the api version of the plugin
+     * @param compatibilities the active compatibilities
+     * @param clazz the original class bytes
+     * @param processor processes the class bytes
+     * @return the processed class bytes
+     * @throws Exception if processing the class fails
+     */
+    public byte[] process(final String pluginName, final String apiVersion, final Collection<String> compatibilities, final byte[] clazz, final Processor processor) throws Exception {
+        if (this.failed) {
+            return processor.process(clazz);
+        }
+
+        final String key = key(pluginName, apiVersion, compatibilities, clazz);
+        final Path file = this.dir.resolve(key.substring(0, 2)).resolve(key + CLASS_EXTENSION);
+        try {
+            final byte[] cached = Files.readAllBytes(file);
+            // marks the entry as used during this boot
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return cached;
+        } catch (final NoSuchFileException ignored) {
+            // not cached yet
+        } catch (final IOException ex) {
+            this.fail("read", ex);
+            return processor.process(clazz);
+        }
+
+        final byte[] processed = processor.process(clazz);
+        try {
+            Files.createDirectories(file.getParent());
+            AtomicFiles.atomicWrite(file, tmp -> Files.write(tmp, processed));
+        } catch (final IOException ex) {
+            this.fail("write", ex);
+        }
+        return processed;
+    }
+
+    private void fail(final String action, final IOException ex) {
+        if (!this.failed) {
+            this.failed = true;
+            LOGGER.warn("Failed to {} processed plugin class cache in '{}', disabling it", action, this.dir, ex);
+        }
+    }
+
+    static String key(final String pluginName, final String apiVersion, final Collection<String> compatibilities, final byte[] clazz) {
+        final List<String> sortedCompatibilities = new ArrayList<>(compatibilities);
+        sortedCompatibilities.sort(null);
+        final Hasher hasher = com.google.common.hash.Hashing.sha256().newHasher()
+            .putString(pluginName, StandardCharsets.UTF_8).putByte((byte) 0)
+            .putString(apiVersion, StandardCharsets.UTF_8).putByte((byte) 0);
+        for (final String compatibility : sortedCompatibilities) {
+            hasher.putString(compatibility, StandardCharsets.UTF_8).putByte((byte) 0);
+        }
+        return hasher.putInt(clazz.length).putBytes(clazz).hash().toString();
+    }
+
+    private static void deleteOtherBuilds(final Path root, final String buildHash) {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(root)) {
+            for (final Path dir : stream) {
+                if (!dir.getFileName().toString().equals(buildHash)) {
+                    PathUtils.deleteDirectory(dir);
+                }
+            }
+        } catch (final IOException ex) {
+            LOGGER.warn("Failed to delete outdated processed plugin classes in '{}'", root, ex);
+        }
+    }
+
+    private static void deleteUnused(final Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        final Path lastBoot = dir.resolve(LAST_BOOT);
+        try {
+            if (Files.exists(lastBoot)) {
+                final FileTime lastBootTime = Files.getLastModifiedTime(lastBoot);
+                try (final DirectoryStream<Path> prefixes = Files.newDirectoryStream(dir, Files::isDirectory)) {
+                    for (final Path prefix : prefixes) {
+                        try (final DirectoryStream<Path> entries = Files.newDirectoryStream(prefix, "*" + CLASS_EXTENSION)) {
+                            for (final Path entry : entries) {
+                                if (Files.getLastModifiedTime(entry).compareTo(lastBootTime) < 0) {
+                                    Files.deleteIfExists(entry);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            Files.write(lastBoot, new byte[0]);
+            Files.setLastModifiedTime(lastBoot, FileTime.from(Instant.now()));
+        } catch (final IOException ex) {
+            LOGGER.warn("Failed to delete unused processed plugin classes in '{}'", dir, ex);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Processor {
+        byte[] process(byte[] clazz) throws Exception;
+    }
+}
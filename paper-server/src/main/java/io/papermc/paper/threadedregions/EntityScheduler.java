@@ -2,13 +2,10 @@ package io.papermc.paper.threadedregions;
 
 import ca.spottedleaf.concurrentutil.util.Validate;
 import ca.spottedleaf.moonrise.common.util.TickThread;
-import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.world.entity.Entity;
 import org.bukkit.craftbukkit.entity.CraftEntity;
 
 import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.function.Consumer;
 
 /**
@@ -37,19 +34,151 @@ public final class EntityScheduler {
      */
     public final CraftEntity entity;
 
-    private static final record ScheduledTask(Consumer<? extends Entity> run, Consumer<? extends Entity> retired) {}
+    static final class ScheduledTask {
+        final EntityScheduler scheduler;
+        final Consumer<? extends Entity> run;
+        final Consumer<? extends Entity> retired;
+        // the tick of the wheel to run at while attached to a wheel, the remaining delay otherwise
+        long target;
+        // links of the wheel slot, guarded by the wheel
+        ScheduledTask wheelPrev;
+        ScheduledTask wheelNext;
+        // links of the scheduler's delayed tasks
+        ScheduledTask prev;
+        ScheduledTask next;
+
+        private ScheduledTask(final EntityScheduler scheduler, final Consumer<? extends Entity> run, final Consumer<? extends Entity> retired) {
+            this.scheduler = scheduler;
+            this.run = run;
+            this.retired = retired;
+        }
+    }
 
-    private long tickCount = 0L;
-    private static final long RETIRED_TICK_COUNT = -1L;
     private final Object stateLock = new Object();
-    private final Long2ObjectOpenHashMap<List<ScheduledTask>> oneTimeDelayed = new Long2ObjectOpenHashMap<>();
+    private boolean retired;
+    /**
+     * The wheel of the world the entity is in, or {@code null} while the entity is not in a world. Guarded by the
+     * state lock, and only modified by the thread owning the entity.
+     */
+    private EntitySchedulerWheel wheel;
+    /**
+     * Delayed tasks, guarded by the wheel while attached to a wheel and by the state lock otherwise.
+     */
+    private ScheduledTask oneTimeDelayed;
+    private ScheduledTask oneTimeDelayedTail;
 
     private final ArrayDeque<ScheduledTask> currentlyExecuting = new ArrayDeque<>();
+    // the next tick the scheduler is queued to execute on its wheel
+    long carriedTick = -1L;
 
     public EntityScheduler(final CraftEntity entity) {
         this.entity = Validate.notNull(entity);
     }
 
+    EntitySchedulerWheel getWheel() {
+        return this.wheel;
+    }
+
+    private void link(final ScheduledTask task) {
+        final ScheduledTask tail = this.oneTimeDelayedTail;
+        task.prev = tail;
+        if (tail == null) {
+            this.oneTimeDelayed = task;
+        } else {
+            tail.next = task;
+        }
+        this.oneTimeDelayedTail = task;
+    }
+
+    private void unlink(final ScheduledTask task) {
+        if (task.prev == null) {
+            this.oneTimeDelayed = task.next;
+        } else {
+            task.prev.next = task.next;
+        }
+        if (task.next == null) {
+            this.oneTimeDelayedTail = task.prev;
+        } else {
+            task.next.prev = task.prev;
+        }
+        task.prev = null;
+        task.next = null;
+    }
+
+    /**
+     * Moves a task the wheel found due to the tasks to execute. Invoked by the wheel while holding its monitor.
+     */
+    void makeDue(final ScheduledTask task) {
+        this.unlink(task);
+        this.currentlyExecuting.addLast(task);
+    }
+
+    /**
+     * Attaches the scheduler to the wheel of the world the entity was added to, so its delayed tasks start counting down.
+     *
+     * <p>
+     * Note: This should only be invoked by the thread owning the entity, when the entity is added to a world.
+     * </p>
+     *
+     * @param handle The entity added to the world, ignored unless it is the current entity object.
+     * @param wheel The wheel of the world.
+     */
+    public void attach(final Entity handle, final EntitySchedulerWheel wheel) {
+        if (this.entity.getHandleRaw() != handle) {
+            return;
+        }
+        synchronized (this.stateLock) {
+            if (this.retired || this.wheel == wheel) {
+                return;
+            }
+            if (this.wheel != null) {
+                this.detach0();
+            }
+            this.wheel = wheel;
+            synchronized (wheel) {
+                for (ScheduledTask task = this.oneTimeDelayed; task != null; task = task.next) {
+                    wheel.add(task, task.target);
+                }
+            }
+        }
+
+        if (!this.currentlyExecuting.isEmpty()) {
+            wheel.carry(this);
+        }
+    }
+
+    /**
+     * Detaches the scheduler from the wheel of the world the entity was removed from, pausing its delayed tasks
+     * until the entity is added to a world again.
+     *
+     * <p>
+     * Note: This should only be invoked by the thread owning the entity, when the entity is removed from a world.
+     * </p>
+     *
+     * @param handle The entity removed from the world, ignored unless it is the current entity object.
+     */
+    public void detach(final Entity handle) {
+        if (this.entity.getHandleRaw() != handle) {
+            // the entity moved to another world and was already attached to its wheel
+            return;
+        }
+        synchronized (this.stateLock) {
+            if (this.wheel != null) {
+                this.detach0();
+            }
+        }
+    }
+
+    private void detach0() {
+        final EntitySchedulerWheel wheel = this.wheel;
+        synchronized (wheel) {
+            for (ScheduledTask task = this.oneTimeDelayed; task != null; task = task.next) {
+                task.target = wheel.remove(task);
+            }
+        }
+        this.wheel = null;
+    }
+
     /**
      * Retires the scheduler, preventing new tasks from being scheduled and invoking the retired callback
      * on all currently scheduled tasks.
@@ -61,11 +190,18 @@ public final class EntityScheduler {
      * @throws IllegalStateException If the scheduler is already retired.
      */
     public void retire() {
+        final ScheduledTask delayed;
         synchronized (this.stateLock) {
-            if (this.tickCount == RETIRED_TICK_COUNT) {
+            if (this.retired) {
                 throw new IllegalStateException("Already retired");
             }
-            this.tickCount = RETIRED_TICK_COUNT;
+            this.retired = true;
+            if (this.wheel != null) {
+                this.detach0();
+            }
+            delayed = this.oneTimeDelayed;
+            this.oneTimeDelayed = null;
+            this.oneTimeDelayedTail = null;
         }
 
         final Entity thisEntity = this.entity.getHandleRaw();
@@ -81,16 +217,13 @@ public final class EntityScheduler {
             retireTask.accept(thisEntity);
         }
 
-        for (final List<ScheduledTask> tasks : this.oneTimeDelayed.values()) {
-            for (int i = 0, len = tasks.size(); i < len; ++i) {
-                final ScheduledTask task = tasks.get(i);
-                final Consumer<Entity> retireTask = (Consumer<Entity>)task.retired;
-                if (retireTask == null) {
-                    continue;
-                }
-
-                retireTask.accept(thisEntity);
+        for (ScheduledTask task = delayed; task != null; task = task.next) {
+            final Consumer<Entity> retireTask = (Consumer<Entity>)task.retired;
+            if (retireTask == null) {
+                continue;
             }
+
+            retireTask.accept(thisEntity);
         }
     }
 
@@ -119,45 +252,42 @@ public final class EntityScheduler {
     public boolean schedule(final Consumer<? extends Entity> run, final Consumer<? extends Entity> retired, final long delay) {
         Validate.notNull(run, "Run task may not be null");
 
-        final ScheduledTask task = new ScheduledTask(run, retired);
+        final ScheduledTask task = new ScheduledTask(this, run, retired);
         synchronized (this.stateLock) {
-            if (this.tickCount == RETIRED_TICK_COUNT) {
+            if (this.retired) {
                 return false;
             }
-            this.oneTimeDelayed.computeIfAbsent(this.tickCount + Math.max(1L, delay), (final long keyInMap) -> {
-                return new ArrayList<>();
-            }).add(task);
+            final EntitySchedulerWheel wheel = this.wheel;
+            if (wheel == null) {
+                // the delay only counts down while the entity is in a world
+                task.target = Math.max(1L, delay);
+                this.link(task);
+            } else {
+                synchronized (wheel) {
+                    this.link(task);
+                    wheel.add(task, delay);
+                }
+            }
         }
 
         return true;
     }
 
     /**
-     * Executes a tick for the scheduler.
+     * Executes the tasks due for the scheduler. Invoked by the wheel the scheduler is attached to.
      *
-     * @throws IllegalStateException If the scheduler is retired.
+     * @return {@code true} if tasks are left over to execute on the next tick.
      */
-    public void executeTick() {
+    boolean executeTick() {
         final Entity thisEntity = this.entity.getHandleRaw();
 
         TickThread.ensureTickThread(thisEntity, "May not tick entity scheduler asynchronously");
-        final List<ScheduledTask> toRun;
-        synchronized (this.stateLock) {
-            if (this.tickCount == RETIRED_TICK_COUNT) {
-                throw new IllegalStateException("Ticking retired scheduler");
-            }
-            ++this.tickCount;
-            if (this.oneTimeDelayed.isEmpty()) {
-                toRun = null;
-            } else {
-                toRun = this.oneTimeDelayed.remove(this.tickCount);
-            }
+        if (this.retired) {
+            return false;
         }
-
-        if (toRun != null) {
-            for (int i = 0, len = toRun.size(); i < len; ++i) {
-                this.currentlyExecuting.addLast(toRun.get(i));
-            }
+        if (thisEntity.isRemoved()) {
+            // removed, but not yet detached from the world
+            return !this.currentlyExecuting.isEmpty();
         }
 
         // Note: It is allowed for the tasks executed to retire the entity in a given task.
@@ -169,7 +299,7 @@ public final class EntityScheduler {
             }
             final ScheduledTask task = this.currentlyExecuting.pollFirst();
 
-            if (this.tickCount != RETIRED_TICK_COUNT) {
+            if (!this.retired) {
                 ((Consumer<Entity>)task.run).accept(thisEntity);
             } else {
                 // retired synchronously
@@ -177,5 +307,7 @@ public final class EntityScheduler {
                 break;
             }
         }
+
+        return !this.retired && !this.currentlyExecuting.isEmpty();
     }
 }
@@ -0,0 +1,129 @@
+package io.papermc.paper.threadedregions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Timing wheel holding the delayed tasks of all entity schedulers attached to a world.
+ *
+ * <p>
+ * Tasks are linked into one of 256 slots by the tick they are due at, so scheduling and removing a task are
+ * constant time. Each tick only visits the tasks in the slot of that tick and the schedulers which have due
+ * work, instead of every entity in the world. Tasks due more than 256 ticks ahead stay in their slot until
+ * the wheel has come around often enough.
+ * </p>
+ * <p>
+ * The slots are guarded by the wheel's monitor, as tasks may be scheduled from any thread. The tick itself,
+ * and the lists of schedulers to execute, are only touched by the thread ticking the world.
+ * </p>
+ */
+public final class EntitySchedulerWheel {
+
+    private static final int SLOT_BITS = 8;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final EntityScheduler.ScheduledTask[] heads = new EntityScheduler.ScheduledTask[SLOTS];
+    private final EntityScheduler.ScheduledTask[] tails = new EntityScheduler.ScheduledTask[SLOTS];
+    private long tick;
+
+    // schedulers with tasks left over from the previous tick, see EntityScheduler#executeTick
+    private List<EntityScheduler> carried = new ArrayList<>();
+    private List<EntityScheduler> toExecute = new ArrayList<>();
+
+    /**
+     * Returns the last tick executed by this wheel. Must hold the wheel's monitor.
+     */
+    long getTick() {
+        return this.tick;
+    }
+
+    /**
+     * Adds the task to run after the given delay. Must hold the wheel's monitor.
+     */
+    void add(final EntityScheduler.ScheduledTask task, final long delay) {
+        final long target = this.tick + Math.max(1L, delay);
+        final int slot = (int)target & SLOT_MASK;
+        task.target = target;
+        task.wheelNext = null;
+        task.wheelPrev = this.tails[slot];
+        if (task.wheelPrev == null) {
+            this.heads[slot] = task;
+        } else {
+            task.wheelPrev.wheelNext = task;
+        }
+        this.tails[slot] = task;
+    }
+
+    /**
+     * Removes a task which was added to this wheel. Must hold the wheel's monitor.
+     *
+     * @return the remaining delay of the task
+     */
+    long remove(final EntityScheduler.ScheduledTask task) {
+        final int slot = (int)task.target & SLOT_MASK;
+        final EntityScheduler.ScheduledTask prev = task.wheelPrev;
+        final EntityScheduler.ScheduledTask next = task.wheelNext;
+        if (prev == null) {
+            this.heads[slot] = next;
+        } else {
+            prev.wheelNext = next;
+        }
+        if (next == null) {
+            this.tails[slot] = prev;
+        } else {
+            next.wheelPrev = prev;
+        }
+        task.wheelPrev = null;
+        task.wheelNext = null;
+        return task.target - this.tick;
+    }
+
+    /**
+     * Queues a scheduler which has tasks left over to execute on the next tick.
+     */
+    void carry(final EntityScheduler scheduler) {
+        if (scheduler.carriedTick != this.tick + 1L) {
+            scheduler.carriedTick = this.tick + 1L;
+            this.carried.add(scheduler);
+        }
+    }
+
+    /**
+     * Advances the wheel by one tick and executes the tasks due.
+     */
+    public void tick() {
+        final List<EntityScheduler> toExecute = this.carried;
+        this.carried = this.toExecute;
+
+        final long tick;
+        synchronized (this) {
+            tick = ++this.tick;
+            final int slot = (int)tick & SLOT_MASK;
+            EntityScheduler.ScheduledTask next;
+            for (EntityScheduler.ScheduledTask task = this.heads[slot]; task != null; task = next) {
+                next = task.wheelNext;
+                if (task.target != tick) {
+                    continue;
+                }
+                this.remove(task);
+                final EntityScheduler scheduler = task.scheduler;
+                scheduler.makeDue(task);
+                if (scheduler.carriedTick != tick) {
+                    scheduler.carriedTick = tick;
+                    toExecute.add(scheduler);
+                }
+            }
+        }
+
+        for (int i = 0, len = toExecute.size(); i < len; ++i) {
+            final EntityScheduler scheduler = toExecute.get(i);
+            // the scheduler may have moved to another world or been retired since it was queued
+            if (scheduler.getWheel() == this && scheduler.executeTick()) {
+                this.carry(scheduler);
+            }
+        }
+        toExecute.clear();
+        this.toExecute = toExecute;
+    }
+}
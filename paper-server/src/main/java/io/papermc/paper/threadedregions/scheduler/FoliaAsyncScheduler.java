@@ -2,6 +2,7 @@ package io.papermc.paper.threadedregions.scheduler;
 
 import ca.spottedleaf.concurrentutil.util.Validate;
 import com.mojang.logging.LogUtils;
+import io.papermc.paper.util.concurrent.PluginTaskExecutor;
 import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.plugin.Plugin;
 import org.slf4j.Logger;
@@ -43,6 +44,7 @@ public final class FoliaAsyncScheduler implements AsyncScheduler {
             }
         }
     );
+    private final PluginTaskExecutor taskExecutor = new PluginTaskExecutor(this.executors, "Folia Async Scheduler Virtual Thread #");
 
     private final ScheduledExecutorService timerThread = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
         @Override
@@ -73,7 +75,7 @@ public final class FoliaAsyncScheduler implements AsyncScheduler {
         final AsyncScheduledTask ret = new AsyncScheduledTask(plugin, -1L, task, null, -1L);
 
         this.tasks.add(ret);
-        this.executors.execute(ret);
+        this.taskExecutor.execute(plugin, ret);
 
         if (!plugin.isEnabled()) {
             // handle race condition where plugin is disabled asynchronously
@@ -142,6 +144,10 @@ public final class FoliaAsyncScheduler implements AsyncScheduler {
         return ret;
     }
 
+    public PluginTaskExecutor getTaskExecutor() {
+        return this.taskExecutor;
+    }
+
     @Override
     public void cancelTasks(final Plugin plugin) {
         Validate.notNull(plugin, "Plugin may not be null");
@@ -151,6 +157,9 @@ public final class FoliaAsyncScheduler implements AsyncScheduler {
                 task.cancel();
             }
         }
+        if (!plugin.isEnabled()) {
+            this.taskExecutor.removePlugin(plugin);
+        }
     }
 
     private final class AsyncScheduledTask implements ScheduledTask, Runnable {
@@ -209,7 +218,7 @@ public final class FoliaAsyncScheduler implements AsyncScheduler {
             if (timer) {
                 // the scheduled executor is single thread, and unfortunately not expandable with threads
                 // so we just schedule onto the executor
-                FoliaAsyncScheduler.this.executors.execute(this);
+                FoliaAsyncScheduler.this.taskExecutor.execute(this.plugin, this);
                 return;
             }
 
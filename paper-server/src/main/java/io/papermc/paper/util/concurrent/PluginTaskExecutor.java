@@ -0,0 +1,153 @@
+package io.papermc.paper.util.concurrent;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Executes async plugin tasks either on a pool of platform threads or on virtual threads,
+ * limiting how many tasks of a single plugin may run at the same time.
+ * <p>
+ * Tasks over the limit of their plugin are queued and started once a running task of the plugin finishes.
+ * The settings are shared by all instances and may be changed at any time, they apply to tasks submitted afterwards.
+ */
+public final class PluginTaskExecutor {
+
+    private static volatile boolean useVirtualThreads = false;
+    private static volatile int maxConcurrentTasksPerPlugin = -1;
+
+    private final Executor platformExecutor;
+    private final ThreadFactory virtualThreadFactory;
+    private volatile ExecutorService virtualExecutor;
+    private final Map<String, PluginTasks> plugins = new ConcurrentHashMap<>();
+
+    public PluginTaskExecutor(final Executor platformExecutor, final String virtualThreadPrefix) {
+        this.platformExecutor = platformExecutor;
+        this.virtualThreadFactory = Thread.ofVirtual().name(virtualThreadPrefix, 0).factory();
+    }
+
+    /**
+     * Updates the settings of all plugin task executors.
+     *
+     * @param useVirtualThreads whether to run tasks on virtual threads
+     * @param maxConcurrentTasksPerPlugin the maximum number of running tasks per plugin, values below 1 disable the limit
+     */
+    public static void configure(final boolean useVirtualThreads, final int maxConcurrentTasksPerPlugin) {
+        PluginTaskExecutor.useVirtualThreads = useVirtualThreads;
+        PluginTaskExecutor.maxConcurrentTasksPerPlugin = maxConcurrentTasksPerPlugin;
+    }
+
+    public void execute(final Plugin plugin, final Runnable task) {
+        final int limit = PluginTaskExecutor.maxConcurrentTasksPerPlugin;
+        final PluginTasks tasks = this.plugins.computeIfAbsent(plugin.getName(), name -> new PluginTasks());
+        if (limit <= 0 && tasks.queued.get() == 0) {
+            tasks.running.incrementAndGet();
+            this.start(tasks, task);
+            return;
+        }
+        tasks.queue.add(task);
+        tasks.queued.incrementAndGet();
+        this.drain(tasks);
+    }
+
+    /**
+     * Forgets the tasks of a plugin that is being disabled, so it is not kept across reloads.
+     * <p>
+     * Tasks of the plugin that are already queued still start as its running tasks finish.
+     *
+     * @param plugin the plugin
+     */
+    public void removePlugin(final Plugin plugin) {
+        this.plugins.remove(plugin.getName());
+    }
+
+    /**
+     * Gets the number of tasks of the plugin waiting for one of its running tasks to finish.
+     *
+     * @param plugin the plugin
+     * @return the number of queued tasks
+     */
+    public int getQueuedTasks(final Plugin plugin) {
+        final PluginTasks tasks = this.plugins.get(plugin.getName());
+        return tasks == null ? 0 : tasks.queued.get();
+    }
+
+    /**
+     * Gets the number of tasks of the plugin currently running.
+     *
+     * @param plugin the plugin
+     * @return the number of running tasks
+     */
+    public int getRunningTasks(final Plugin plugin) {
+        final PluginTasks tasks = this.plugins.get(plugin.getName());
+        return tasks == null ? 0 : tasks.running.get();
+    }
+
+    private void drain(final PluginTasks tasks) {
+        while (true) {
+            final int limit = PluginTaskExecutor.maxConcurrentTasksPerPlugin;
+            final int running = tasks.running.get();
+            if ((limit > 0 && running >= limit) || tasks.queued.get() == 0) {
+                return;
+            }
+            if (!tasks.running.compareAndSet(running, running + 1)) {
+                continue;
+            }
+            final Runnable task = tasks.queue.poll();
+            if (task == null) {
+                // Another thread took the task between the check and the poll
+                tasks.running.decrementAndGet();
+                continue;
+            }
+            tasks.queued.decrementAndGet();
+            this.start(tasks, task);
+        }
+    }
+
+    private void start(final PluginTasks tasks, final Runnable task) {
+        final Runnable wrapped = () -> {
+            try {
+                task.run();
+            } finally {
+                tasks.running.decrementAndGet();
+                this.drain(tasks);
+            }
+        };
+        try {
+            this.executor().execute(wrapped);
+        } catch (final Throwable throwable) {
+            tasks.running.decrementAndGet();
+            throw throwable;
+        }
+    }
+
+    private Executor executor() {
+        if (!PluginTaskExecutor.useVirtualThreads) {
+            return this.platformExecutor;
+        }
+        ExecutorService executor = this.virtualExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.virtualExecutor;
+                if (executor == null) {
+                    this.virtualExecutor = executor = Executors.newThreadPerTaskExecutor(this.virtualThreadFactory);
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static final class PluginTasks {
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        // Tracked separately, as the size of the queue is not constant time
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+    }
+}
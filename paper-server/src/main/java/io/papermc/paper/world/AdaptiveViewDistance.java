@@ -0,0 +1,266 @@
+package io.papermc.paper.world;
+
+import io.papermc.paper.FeatureHooks;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import io.papermc.paper.event.player.PlayerViewDistanceAdaptEvent;
+import io.papermc.paper.event.world.WorldSimulationDistanceAdaptEvent;
+import it.unimi.dsi.fastutil.objects.Reference2DoubleOpenHashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Lowers the view distance of players and the simulation distance of worlds step by step while the server is
+ * overloaded, and raises them again once it has recovered.
+ * <p>
+ * Every adjustment lowers or raises the distance of a few players by one chunk. Idle players and players far away
+ * from all other players are lowered first and raised last, as they keep chunks loaded and sent for nobody else.
+ * Simulation distances only exist per world, so they are only lowered once no player can be lowered anymore,
+ * starting with the world taking the longest to tick. The lowered view distance of a player is stored in
+ * {@link ServerPlayer#adaptiveViewDistance} and caps the distance chunks and entities are sent to the player in.
+ */
+@NullMarked
+public final class AdaptiveViewDistance {
+
+    private static final double LEVEL_COST_SMOOTHING = 0.05;
+    private static @Nullable AdaptiveViewDistance instance;
+
+    private final Reference2DoubleOpenHashMap<ServerLevel> levelCosts = new Reference2DoubleOpenHashMap<>();
+    private final Map<ServerLevel, SimulationDistance> simulationDistances = new IdentityHashMap<>();
+
+    private AdaptiveViewDistance() {
+    }
+
+    /**
+     * Adjusts the distances if the configured interval has passed. Must be called from the main thread after all
+     * levels are ticked.
+     *
+     * @param server the server
+     */
+    public static void tick(final MinecraftServer server) {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        AdaptiveViewDistance current = instance;
+        if (config == null || !config.adaptiveDistance.enabled) {
+            if (current != null) {
+                instance = null;
+                current.restoreAll(server);
+            }
+            return;
+        }
+        if (current == null) {
+            current = instance = new AdaptiveViewDistance();
+        }
+
+        current.sampleLevelCosts(server);
+        if (server.getTickCount() % config.adaptiveDistance.adjustInterval == 0) {
+            current.adjust(server, config.adaptiveDistance);
+        }
+    }
+
+    private void sampleLevelCosts(final MinecraftServer server) {
+        this.levelCosts.keySet().removeIf(level -> server.getLevel(level.dimension()) != level);
+        this.simulationDistances.keySet().removeIf(level -> server.getLevel(level.dimension()) != level);
+        for (final ServerLevel level : server.getAllLevels()) {
+            final double cost = this.levelCosts.getOrDefault(level, (double) level.lastTickNanos);
+            this.levelCosts.put(level, cost + (level.lastTickNanos - cost) * LEVEL_COST_SMOOTHING);
+        }
+    }
+
+    private void adjust(final MinecraftServer server, final GlobalConfiguration.AdaptiveDistance config) {
+        final List<ServerPlayer> players = new ArrayList<>(server.getPlayerList().getPlayers());
+        players.removeIf(ServerPlayer::hasDisconnected);
+        this.applyCeiling(players, config);
+
+        final double mspt = server.tickTimes5s.getAverage();
+        if (mspt > config.targetMspt) {
+            if (!this.lowerPlayers(players, config)) {
+                this.lowerSimulationDistance(server, config);
+            }
+        } else if (mspt < config.restoreMspt) {
+            if (!this.raiseSimulationDistance()) {
+                this.raisePlayers(players, config);
+            }
+        }
+    }
+
+    private void applyCeiling(final List<ServerPlayer> players, final GlobalConfiguration.AdaptiveDistance config) {
+        if (config.maxViewDistance < 2) {
+            return;
+        }
+        for (final ServerPlayer player : players) {
+            if (player.adaptiveViewDistance <= 0 || player.adaptiveViewDistance > config.maxViewDistance) {
+                final int distance = viewDistance(player);
+                player.adaptiveViewDistance = config.maxViewDistance;
+                if (distance > config.maxViewDistance) {
+                    player.serverLevel().getChunkSource().chunkMap.updateChunkTracking(player);
+                }
+            }
+        }
+    }
+
+    private boolean lowerPlayers(final List<ServerPlayer> players, final GlobalConfiguration.AdaptiveDistance config) {
+        final int floor = Math.max(2, config.minViewDistance);
+        final List<Candidate> candidates = new ArrayList<>();
+        final long now = Util.getMillis();
+        for (final ServerPlayer player : players) {
+            final int distance = viewDistance(player);
+            if (distance > floor) {
+                candidates.add(this.candidate(player, distance, now, config));
+            }
+        }
+        candidates.sort(Candidate.LOWER_FIRST);
+
+        int changed = 0;
+        for (final Candidate candidate : candidates) {
+            if (changed >= config.playersPerAdjustment) {
+                break;
+            }
+            if (setViewDistance(candidate.player, candidate.distance, candidate.distance - 1)) {
+                changed++;
+            }
+        }
+        return changed > 0;
+    }
+
+    private void raisePlayers(final List<ServerPlayer> players, final GlobalConfiguration.AdaptiveDistance config) {
+        final List<Candidate> candidates = new ArrayList<>();
+        final long now = Util.getMillis();
+        for (final ServerPlayer player : players) {
+            final int distance = viewDistance(player);
+            if (player.adaptiveViewDistance > 0 && distance < maxViewDistance(player, config)) {
+                candidates.add(this.candidate(player, distance, now, config));
+            }
+        }
+        candidates.sort(Candidate.LOWER_FIRST.reversed());
+
+        int changed = 0;
+        for (final Candidate candidate : candidates) {
+            if (changed >= config.playersPerAdjustment) {
+                break;
+            }
+            if (setViewDistance(candidate.player, candidate.distance, candidate.distance + 1)) {
+                changed++;
+            }
+        }
+    }
+
+    private void lowerSimulationDistance(final MinecraftServer server, final GlobalConfiguration.AdaptiveDistance config) {
+        final int floor = Math.max(2, config.minSimulationDistance);
+        final List<ServerLevel> levels = new ArrayList<>();
+        for (final ServerLevel level : server.getAllLevels()) {
+            if (!level.players().isEmpty() && FeatureHooks.getSimulationDistance(level) > floor) {
+                levels.add(level);
+            }
+        }
+        levels.sort(Comparator.comparingDouble((ServerLevel level) -> this.levelCosts.getDouble(level)).reversed());
+
+        for (final ServerLevel level : levels) {
+            final int distance = FeatureHooks.getSimulationDistance(level);
+            final SimulationDistance previous = this.simulationDistances.get(level);
+            final int original = previous != null && previous.applied == distance ? previous.original : distance;
+            if (this.setSimulationDistance(level, distance, distance - 1, original)) {
+                return;
+            }
+        }
+    }
+
+    private boolean raiseSimulationDistance() {
+        for (final Map.Entry<ServerLevel, SimulationDistance> entry : List.copyOf(this.simulationDistances.entrySet())) {
+            final ServerLevel level = entry.getKey();
+            final SimulationDistance simulationDistance = entry.getValue();
+            final int distance = FeatureHooks.getSimulationDistance(level);
+            if (distance != simulationDistance.applied) {
+                // changed by someone else since, leave it to them
+                this.simulationDistances.remove(level);
+                continue;
+            }
+            if (this.setSimulationDistance(level, distance, distance + 1, simulationDistance.original)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean setSimulationDistance(final ServerLevel level, final int oldDistance, final int newDistance, final int original) {
+        if (!new WorldSimulationDistanceAdaptEvent(level.getWorld(), oldDistance, newDistance).callEvent()) {
+            return false;
+        }
+        FeatureHooks.setSimulationDistance(level, newDistance);
+        if (newDistance >= original) {
+            this.simulationDistances.remove(level);
+        } else {
+            this.simulationDistances.put(level, new SimulationDistance(original, newDistance));
+        }
+        return true;
+    }
+
+    private void restoreAll(final MinecraftServer server) {
+        for (final ServerPlayer player : server.getPlayerList().getPlayers()) {
+            if (player.adaptiveViewDistance > 0) {
+                player.adaptiveViewDistance = -1;
+                if (!player.hasDisconnected()) {
+                    player.serverLevel().getChunkSource().chunkMap.updateChunkTracking(player);
+                }
+            }
+        }
+        this.simulationDistances.forEach((level, simulationDistance) -> {
+            if (FeatureHooks.getSimulationDistance(level) == simulationDistance.applied) {
+                FeatureHooks.setSimulationDistance(level, simulationDistance.original);
+            }
+        });
+        this.simulationDistances.clear();
+    }
+
+    private Candidate candidate(final ServerPlayer player, final int distance, final long now, final GlobalConfiguration.AdaptiveDistance config) {
+        final boolean idle = player.getLastActionTime() > 0L && now - player.getLastActionTime() > config.idleTime * 1000L;
+        final ServerLevel level = player.serverLevel();
+        // players sharing their view with others keep chunks loaded and sent for those too
+        final double radius = (double) (level.getChunkSource().chunkMap.serverViewDistance << 4);
+        int neighbours = 0;
+        for (final ServerPlayer other : level.playerIndex.getPlayersInRange(player.getX(), player.getZ(), radius)) {
+            if (other != player && Mth.square(other.getX() - player.getX()) + Mth.square(other.getZ() - player.getZ()) <= radius * radius) {
+                neighbours++;
+            }
+        }
+        return new Candidate(player, distance, idle, neighbours, this.levelCosts.getDouble(level));
+    }
+
+    private static int viewDistance(final ServerPlayer player) {
+        return player.serverLevel().getChunkSource().chunkMap.getPlayerViewDistance(player);
+    }
+
+    private static int maxViewDistance(final ServerPlayer player, final GlobalConfiguration.AdaptiveDistance config) {
+        final int distance = Mth.clamp(player.requestedViewDistance(), 2, player.serverLevel().getChunkSource().chunkMap.serverViewDistance);
+        return config.maxViewDistance >= 2 ? Math.min(distance, config.maxViewDistance) : distance;
+    }
+
+    private static boolean setViewDistance(final ServerPlayer player, final int oldDistance, final int newDistance) {
+        if (!new PlayerViewDistanceAdaptEvent(player.getBukkitEntity(), oldDistance, newDistance).callEvent()) {
+            return false;
+        }
+        final int uncapped = Mth.clamp(player.requestedViewDistance(), 2, player.serverLevel().getChunkSource().chunkMap.serverViewDistance);
+        player.adaptiveViewDistance = newDistance >= uncapped ? -1 : newDistance;
+        player.serverLevel().getChunkSource().chunkMap.updateChunkTracking(player);
+        return true;
+    }
+
+    private record SimulationDistance(int original, int applied) {
+    }
+
+    private record Candidate(ServerPlayer player, int distance, boolean idle, int neighbours, double levelCost) {
+        // idle players first, then players alone, then players in expensive levels, then players seeing the furthest
+        static final Comparator<Candidate> LOWER_FIRST = Comparator.comparing(Candidate::idle).reversed()
+            .thenComparingInt(Candidate::neighbours)
+            .thenComparing(Comparator.comparingDouble(Candidate::levelCost).reversed())
+            .thenComparing(Comparator.comparingInt(Candidate::distance).reversed());
+    }
+}
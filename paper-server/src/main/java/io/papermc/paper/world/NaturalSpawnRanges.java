@@ -0,0 +1,120 @@
+package io.papermc.paper.world;
+
+import ca.spottedleaf.moonrise.common.misc.PositionCountingAreaMap;
+import com.destroystokyo.paper.event.entity.PlayerNaturallySpawnCreaturesEvent;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Tracks the chunks within the spawn radius of the players of a level, as set by
+ * {@link PlayerNaturallySpawnCreaturesEvent}, to find the chunks natural spawning happens in.
+ * <p>
+ * A chunk is close enough to a player if the horizontal distance between its center and the player is less than
+ * the spawn radius of the player in blocks. Two area maps answer this for most chunks without looking at players:
+ * chunks outside the outer square of every player are never close enough, chunks inside the inscribed square of
+ * any player always are. Only chunks in between are checked against the players near them.
+ */
+@NullMarked
+public final class NaturalSpawnRanges {
+
+    private final ServerLevel level;
+    private final PositionCountingAreaMap<ServerPlayer> spawnRange = new PositionCountingAreaMap<>();
+    private final PositionCountingAreaMap<ServerPlayer> inscribedSpawnRange = new PositionCountingAreaMap<>();
+    private final ReferenceOpenHashSet<ServerPlayer> updated = new ReferenceOpenHashSet<>();
+    private int maxSpawnRadius;
+
+    public NaturalSpawnRanges(final ServerLevel level) {
+        this.level = level;
+    }
+
+    /**
+     * Moves the areas to the current positions and spawn radii of the players. Must be called each tick before
+     * checking chunks.
+     */
+    public void update() {
+        int maxSpawnRadius = 0;
+        for (final ServerPlayer player : this.level.players()) {
+            final PlayerNaturallySpawnCreaturesEvent event = player.playerNaturallySpawnedEvent;
+            final int spawnRadius = event == null || event.isCancelled() || player.isSpectator() ? 0 : event.getSpawnRadius();
+            if (spawnRadius <= 0) {
+                this.spawnRange.remove(player);
+                this.inscribedSpawnRange.remove(player);
+                continue;
+            }
+
+            final ChunkPos pos = player.chunkPosition();
+            this.updated.add(player);
+            this.spawnRange.addOrUpdate(player, pos.x, pos.z, spawnRadius);
+            final int inscribedRadius = inscribedRadius(spawnRadius);
+            if (inscribedRadius >= 0) {
+                this.inscribedSpawnRange.addOrUpdate(player, pos.x, pos.z, inscribedRadius);
+            } else {
+                this.inscribedSpawnRange.remove(player);
+            }
+            maxSpawnRadius = Math.max(maxSpawnRadius, spawnRadius);
+        }
+        this.maxSpawnRadius = maxSpawnRadius;
+
+        // Players leaving the level are not in its player list anymore, sweep everyone that was not updated above
+        if (this.spawnRange.getObjects().size() > this.updated.size()) {
+            final List<ServerPlayer> removed = new ArrayList<>();
+            for (final ServerPlayer player : this.spawnRange.getObjects()) {
+                if (!this.updated.contains(player)) {
+                    removed.add(player);
+                }
+            }
+            for (final ServerPlayer player : removed) {
+                this.spawnRange.remove(player);
+                this.inscribedSpawnRange.remove(player);
+            }
+        }
+        this.updated.clear();
+    }
+
+    /**
+     * {@return whether any player is close enough to the chunk for natural spawning}
+     */
+    public boolean anyPlayerCloseEnough(final ChunkPos chunkPos) {
+        if (!this.spawnRange.hasObjectsNear(chunkPos.x, chunkPos.z)) {
+            return false;
+        }
+        if (this.inscribedSpawnRange.hasObjectsNear(chunkPos.x, chunkPos.z)) {
+            return true;
+        }
+
+        final double centerX = chunkPos.getMiddleBlockX();
+        final double centerZ = chunkPos.getMiddleBlockZ();
+        for (final ServerPlayer player : this.level.playerIndex.getPlayersInRange(centerX, centerZ, this.maxSpawnRadius << 4)) {
+            final PlayerNaturallySpawnCreaturesEvent event = player.playerNaturallySpawnedEvent;
+            if (event == null || event.isCancelled() || player.isSpectator()) {
+                continue;
+            }
+            final double blockRange = (double) ((event.getSpawnRadius() << 4) * (event.getSpawnRadius() << 4));
+            final double dx = centerX - player.getX();
+            final double dz = centerZ - player.getZ();
+            if (dx * dx + dz * dz < blockRange) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the largest chunk radius within which every chunk center is closer than the spawn radius to any
+     * position in the center chunk, or -1 if there is none.
+     */
+    static int inscribedRadius(final int spawnRadius) {
+        // the center of a chunk r chunks away is at most 16 * r + 8 blocks away on each axis
+        final long range = (long) (spawnRadius << 4) * (long) (spawnRadius << 4);
+        int radius = -1;
+        while (2L * (long) (((radius + 1) << 4) + 8) * (long) (((radius + 1) << 4) + 8) < range) {
+            radius++;
+        }
+        return radius;
+    }
+}
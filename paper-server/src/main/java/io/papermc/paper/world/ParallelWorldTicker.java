@@ -0,0 +1,199 @@
+package io.papermc.paper.world;
+
+import ca.spottedleaf.moonrise.common.util.TickThread;
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import net.minecraft.Util;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.storage.DimensionDataStorage;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Ticks the levels of the server in parallel, one level per thread.
+ * <p>
+ * While a level is ticked in parallel, the thread ticking it is the only tick thread owning it: it is the thread of the
+ * level and of its chunk source, and {@link TickThread#isTickThreadFor(net.minecraft.world.level.Level)} as well as
+ * the world checks of {@link org.spigotmc.AsyncCatcher} fail for all other levels. Operations spanning multiple levels,
+ * like entities changing dimensions, players disconnecting or scoreboard criteria updates, must be passed to
+ * {@link #defer(Runnable)} and are run on the main thread once all levels are ticked. Deferred teleports return
+ * {@code null}, the entity in the destination level does not exist yet. Everything else shared between levels must be
+ * safe to use from multiple threads, like the map data in the overworld storage and the scoreboard teams, which are
+ * locked, or be kept per level.
+ * <p>
+ * Plugins are written for a single main thread, so the levels keep reporting the main thread to them, but plugin code
+ * called while ticking, like event listeners and commands, holds the {@link #getPluginLock() plugin lock} and never
+ * runs concurrently with other plugin code.
+ */
+@NullMarked
+public final class ParallelWorldTicker {
+
+    private static final Logger LOGGER = LogUtils.getClassLogger();
+    private static final Lock PLUGIN_LOCK = new ReentrantLock();
+    private static @Nullable ParallelWorldTicker instance;
+
+    private final int threads;
+    private final ExecutorService executor;
+    private final Queue<Runnable> deferred = new ConcurrentLinkedQueue<>();
+
+    private ParallelWorldTicker(final int threads) {
+        this.threads = threads;
+        final AtomicInteger id = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, task -> {
+            final TickThread thread = new TickThread(task, "Paper World Tick Thread #" + id.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setUncaughtExceptionHandler(Util::onThreadException);
+            return thread;
+        });
+    }
+
+    /**
+     * {@return the ticker to tick the levels with, or {@code null} if levels are ticked one after another}
+     * <p>
+     * Must only be called from the main thread.
+     */
+    public static @Nullable ParallelWorldTicker get() {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        final ParallelWorldTicker current = instance;
+        if (config == null || !config.parallelWorldTicking.enabled) {
+            if (current != null) {
+                instance = null;
+                current.executor.shutdown();
+            }
+            return null;
+        }
+
+        final int threads = config.parallelWorldTicking.threads > 0 ? config.parallelWorldTicking.threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        if (current != null && current.threads == threads) {
+            return current;
+        }
+        if (current != null) {
+            current.executor.shutdown();
+        }
+        LOGGER.info("Ticking worlds in parallel on up to {} threads", threads);
+        return instance = new ParallelWorldTicker(threads);
+    }
+
+    /**
+     * Runs the operation on the main thread after all levels are ticked if the current thread is ticking a level in
+     * parallel to other levels.
+     *
+     * @param operation the operation, possibly accessing multiple levels
+     * @return whether the operation was deferred, if not the caller has to run it itself
+     */
+    public static boolean defer(final Runnable operation) {
+        final ParallelWorldTicker ticker = instance;
+        if (ticker == null || TickThread.getTickingLevel() == null) {
+            return false;
+        }
+        ticker.deferred.add(operation);
+        return true;
+    }
+
+    /**
+     * {@return the lock to hold while calling plugin code, or {@code null} if the current thread is not ticking a level
+     * in parallel to other levels}
+     * <p>
+     * The lock is reentrant, plugin code may call further plugin code while holding it.
+     */
+    public static @Nullable Lock getPluginLock() {
+        return instance == null || TickThread.getTickingLevel() == null ? null : PLUGIN_LOCK;
+    }
+
+    /**
+     * Ticks the levels in parallel and then runs the deferred operations. The main thread ticks the first level
+     * itself and waits for the others to finish.
+     *
+     * @param levels the levels to tick
+     * @param tick ticks a single level
+     */
+    public void tickLevels(final Iterable<ServerLevel> levels, final Consumer<ServerLevel> tick) {
+        final List<ServerLevel> toTick = new ArrayList<>();
+        levels.forEach(toTick::add);
+        if (toTick.isEmpty()) {
+            return;
+        }
+
+        // The map data of all levels is kept in the overworld storage, the overworld may load other data into it while
+        // another level accesses its maps
+        final DimensionDataStorage overworldStorage = toTick.getFirst().getServer().overworld().getDataStorage();
+        if (!(overworldStorage.cache instanceof ConcurrentHashMap)) {
+            overworldStorage.cache = new ConcurrentHashMap<>(overworldStorage.cache);
+        }
+
+        final List<Future<?>> futures = new ArrayList<>(toTick.size() - 1);
+        for (int i = 1; i < toTick.size(); i++) {
+            final ServerLevel level = toTick.get(i);
+            futures.add(this.executor.submit(() -> tickOwned(level, tick)));
+        }
+
+        Throwable thrown = null;
+        try {
+            tickOwned(toTick.getFirst(), tick);
+        } catch (final Throwable throwable) {
+            thrown = throwable;
+        }
+        // always wait for all levels, they must not be ticking anymore when the main thread continues
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final ExecutionException ex) {
+                thrown = addSuppressed(thrown, ex.getCause());
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                thrown = addSuppressed(thrown, ex);
+            }
+        }
+        if (thrown != null) {
+            this.deferred.clear();
+            throw Util.pauseInIde(thrown instanceof RuntimeException runtime ? runtime : new RuntimeException(thrown));
+        }
+
+        Runnable operation;
+        while ((operation = this.deferred.poll()) != null) {
+            try {
+                operation.run();
+            } catch (final Throwable throwable) {
+                LOGGER.error("Failed to run operation deferred from ticking worlds in parallel", throwable);
+            }
+        }
+    }
+
+    private static void tickOwned(final ServerLevel level, final Consumer<ServerLevel> tick) {
+        final Thread thread = Thread.currentThread();
+        final Thread levelThread = level.thread;
+        final Thread chunkThread = level.getChunkSource().mainThread;
+        TickThread.setTickingLevel(level);
+        level.thread = thread;
+        level.getChunkSource().mainThread = thread;
+        try {
+            tick.accept(level);
+        } finally {
+            level.thread = levelThread;
+            level.getChunkSource().mainThread = chunkThread;
+            TickThread.setTickingLevel(null);
+        }
+    }
+
+    private static Throwable addSuppressed(final @Nullable Throwable thrown, final Throwable throwable) {
+        if (thrown == null) {
+            return throwable;
+        }
+        thrown.addSuppressed(throwable);
+        return thrown;
+    }
+}
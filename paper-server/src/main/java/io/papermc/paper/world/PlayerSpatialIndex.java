@@ -0,0 +1,111 @@
+package io.papermc.paper.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Index of the players in a level by the 64x64 block cell they are in.
+ * <p>
+ * Players are added and removed with the level's entity tracking, and moved between cells whenever their
+ * entity section changes, so the index is always up to date with the block positions of the players.
+ * Range queries return the players of the cells overlapping the range, callers still have to check the
+ * exact distance. The index must only be used from the thread ticking the level.
+ */
+@NullMarked
+public final class PlayerSpatialIndex {
+
+    private static final int CELL_SHIFT = 6;
+
+    private final List<ServerPlayer> players;
+    private final Long2ObjectOpenHashMap<ReferenceArrayList<ServerPlayer>> cells = new Long2ObjectOpenHashMap<>();
+    private final Reference2LongOpenHashMap<ServerPlayer> playerCells = new Reference2LongOpenHashMap<>();
+
+    /**
+     * @param players the players of the level, returned by queries covering more cells than there are players
+     */
+    public PlayerSpatialIndex(final List<ServerPlayer> players) {
+        this.players = players;
+    }
+
+    public void add(final ServerPlayer player) {
+        final long cell = cell(player.blockPosition());
+        if (this.playerCells.containsKey(player)) {
+            this.move(player, cell);
+            return;
+        }
+        this.playerCells.put(player, cell);
+        this.addToCell(player, cell);
+    }
+
+    public void remove(final ServerPlayer player) {
+        if (this.playerCells.containsKey(player)) {
+            this.removeFromCell(player, this.playerCells.removeLong(player));
+        }
+    }
+
+    /**
+     * Updates the cell of a player after it moved.
+     */
+    public void update(final ServerPlayer player) {
+        if (this.playerCells.containsKey(player)) {
+            this.move(player, cell(player.blockPosition()));
+        }
+    }
+
+    /**
+     * Returns the players which may be within the given horizontal distance of a position. The returned list
+     * must not be modified.
+     */
+    public List<ServerPlayer> getPlayersInRange(final double x, final double z, final double radius) {
+        final int minX = Mth.floor(x - radius) >> CELL_SHIFT;
+        final int minZ = Mth.floor(z - radius) >> CELL_SHIFT;
+        final int maxX = Mth.floor(x + radius) >> CELL_SHIFT;
+        final int maxZ = Mth.floor(z + radius) >> CELL_SHIFT;
+        if ((long) (maxX - minX + 1) * (long) (maxZ - minZ + 1) >= this.playerCells.size()) {
+            // looking at every player is cheaper
+            return this.players;
+        }
+
+        final List<ServerPlayer> ret = new ArrayList<>();
+        for (int cellX = minX; cellX <= maxX; ++cellX) {
+            for (int cellZ = minZ; cellZ <= maxZ; ++cellZ) {
+                final ReferenceArrayList<ServerPlayer> players = this.cells.get(ChunkPos.asLong(cellX, cellZ));
+                if (players != null) {
+                    ret.addAll(players);
+                }
+            }
+        }
+        return ret;
+    }
+
+    private void move(final ServerPlayer player, final long cell) {
+        final long previous = this.playerCells.put(player, cell);
+        if (previous != cell) {
+            this.removeFromCell(player, previous);
+            this.addToCell(player, cell);
+        }
+    }
+
+    private void addToCell(final ServerPlayer player, final long cell) {
+        this.cells.computeIfAbsent(cell, key -> new ReferenceArrayList<>()).add(player);
+    }
+
+    private void removeFromCell(final ServerPlayer player, final long cell) {
+        final ReferenceArrayList<ServerPlayer> players = this.cells.get(cell);
+        if (players != null && players.remove(player) && players.isEmpty()) {
+            this.cells.remove(cell);
+        }
+    }
+
+    private static long cell(final BlockPos pos) {
+        return ChunkPos.asLong(pos.getX() >> CELL_SHIFT, pos.getZ() >> CELL_SHIFT);
+    }
+}
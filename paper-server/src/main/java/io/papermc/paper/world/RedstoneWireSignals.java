@@ -0,0 +1,66 @@
+package io.papermc.paper.world;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.RedStoneWireBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Computes the signal redstone wire receives from the blocks next to it without the signal of other wires.
+ * <p>
+ * Vanilla turns off the signal of all wires while doing this by clearing {@link RedStoneWireBlock#shouldSignal}.
+ * The wire block is a single instance shared by all levels, so levels ticked in parallel must not touch it and
+ * skip the wires while looking at the neighbors instead.
+ */
+@NullMarked
+public final class RedstoneWireSignals {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private RedstoneWireSignals() {
+    }
+
+    /**
+     * Same as {@link Level#getBestNeighborSignal(BlockPos)} while the signal of the wire is turned off.
+     *
+     * @param wire the wire block not to receive signal from
+     * @param level the level
+     * @param pos the position of the wire
+     * @return the strongest signal of the neighbors
+     */
+    public static int getBestNeighborSignal(final RedStoneWireBlock wire, final Level level, final BlockPos pos) {
+        int best = 0;
+        for (final Direction direction : DIRECTIONS) {
+            final int signal = getSignal(wire, level, pos.relative(direction), direction);
+            if (signal >= 15) {
+                return 15;
+            }
+            best = Math.max(best, signal);
+        }
+        return best;
+    }
+
+    private static int getSignal(final RedStoneWireBlock wire, final Level level, final BlockPos pos, final Direction direction) {
+        final BlockState state = level.getBlockState(pos);
+        final int signal = state.is(wire) ? 0 : state.getSignal(level, pos, direction);
+        return state.isRedstoneConductor(level, pos) ? Math.max(signal, getDirectSignalTo(wire, level, pos)) : signal;
+    }
+
+    private static int getDirectSignalTo(final RedStoneWireBlock wire, final Level level, final BlockPos pos) {
+        int best = 0;
+        for (final Direction direction : DIRECTIONS) {
+            final BlockPos neighborPos = pos.relative(direction);
+            final BlockState state = level.getBlockState(neighborPos);
+            if (state.is(wire)) {
+                continue;
+            }
+            best = Math.max(best, state.getDirectSignal(level, neighborPos, direction));
+            if (best >= 15) {
+                return 15;
+            }
+        }
+        return best;
+    }
+}
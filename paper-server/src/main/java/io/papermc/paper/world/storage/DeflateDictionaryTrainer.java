@@ -0,0 +1,157 @@
+package io.papermc.paper.world.storage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Builds a preset Deflate dictionary from sample data, following the cover algorithm of zstd.
+ * <p>
+ * Every 8 byte sequence is scored by the number of samples it appears in. The samples are split into one epoch per
+ * segment the dictionary has room for, and the 64 byte segment with the highest score is taken from each epoch.
+ * Samples are hashed one at a time, so besides the score tables only the hashes of a single sample are kept.
+ * Sequences of a taken segment score nothing for later segments, so the same content is not picked twice. The best
+ * segments end up last in the dictionary, as Deflate encodes closer matches with fewer bits.
+ */
+@NullMarked
+public final class DeflateDictionaryTrainer {
+
+    private static final int DMER_LENGTH = 8;
+    private static final int SEGMENT_LENGTH = 64;
+    private static final int HASH_BITS = 20;
+    private static final int DMERS_PER_SEGMENT = SEGMENT_LENGTH - DMER_LENGTH + 1;
+
+    private DeflateDictionaryTrainer() {
+    }
+
+    /**
+     * Trains a dictionary.
+     *
+     * @param samples the sample data, for example uncompressed chunks
+     * @param maxSize the maximum size of the dictionary
+     * @return the dictionary, empty if there was nothing shared between samples
+     */
+    public static byte[] train(final List<byte[]> samples, final int maxSize) {
+        long totalLength = 0L;
+        int maxLength = 0;
+        for (final byte[] sample : samples) {
+            totalLength += sample.length;
+            maxLength = Math.max(maxLength, sample.length);
+        }
+        if (maxSize <= 0 || maxLength < SEGMENT_LENGTH) {
+            return new byte[0];
+        }
+
+        // count the samples each sequence appears in, sequences of a single sample don't help compress others
+        final int[] frequencies = new int[1 << HASH_BITS];
+        final int[] lastSample = new int[1 << HASH_BITS];
+        for (int sample = 0; sample < samples.size(); sample++) {
+            final byte[] data = samples.get(sample);
+            for (int pos = 0; pos + DMER_LENGTH <= data.length; pos++) {
+                final int hash = hash(data, pos);
+                if (lastSample[hash] != sample + 1) {
+                    lastSample[hash] = sample + 1;
+                    frequencies[hash]++;
+                }
+            }
+        }
+        for (int hash = 0; hash < frequencies.length; hash++) {
+            if (frequencies[hash] < 2) {
+                frequencies[hash] = 0;
+            }
+        }
+
+        // epochs split the samples as if they were concatenated, segments don't span samples
+        final int segmentCount = Math.max(1, maxSize / SEGMENT_LENGTH);
+        final long epochLength = Math.max(SEGMENT_LENGTH, totalLength / segmentCount);
+        final int[] hashes = new int[maxLength - DMER_LENGTH + 1];
+        final List<Segment> segments = new ArrayList<>();
+        Segment best = null;
+        long epochEnd = epochLength;
+        long sampleStart = 0L;
+        for (int sample = 0; sample < samples.size(); sample++) {
+            final byte[] data = samples.get(sample);
+            final long sampleEnd = sampleStart + data.length;
+            for (int pos = 0; pos + DMER_LENGTH <= data.length; pos++) {
+                hashes[pos] = hash(data, pos);
+            }
+            int from = 0;
+            while (from < data.length) {
+                final int to = (int) Math.min(data.length, epochEnd - sampleStart);
+                best = bestSegment(frequencies, hashes, sample, from, to, best);
+                if (epochEnd <= sampleEnd) {
+                    take(samples, frequencies, segments, best);
+                    best = null;
+                    epochEnd += epochLength;
+                }
+                from = to;
+            }
+            sampleStart = sampleEnd;
+        }
+        take(samples, frequencies, segments, best);
+
+        segments.sort(Comparator.comparingLong(Segment::score).reversed());
+        final int taken = Math.min(segments.size(), segmentCount);
+        final byte[] dictionary = new byte[Math.min(maxSize, taken * SEGMENT_LENGTH)];
+        int offset = dictionary.length;
+        for (int i = 0; i < taken && offset > 0; i++) {
+            final int length = Math.min(SEGMENT_LENGTH, offset);
+            offset -= length;
+            final Segment segment = segments.get(i);
+            System.arraycopy(samples.get(segment.sample()), segment.start(), dictionary, offset, length);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Returns the segment with the highest score starting between {@code from} and {@code to} in a sample and
+     * ending before {@code to}, or {@code best} if none scores higher.
+     */
+    private static @Nullable Segment bestSegment(final int[] frequencies, final int[] hashes, final int sample, final int from, final int to, final @Nullable Segment best) {
+        if (to - from < SEGMENT_LENGTH) {
+            return best;
+        }
+        long score = 0L;
+        for (int i = 0; i < DMERS_PER_SEGMENT; i++) {
+            score += frequencies[hashes[from + i]];
+        }
+        long bestScore = best == null ? 0L : best.score();
+        int bestStart = -1;
+        if (score > bestScore) {
+            bestScore = score;
+            bestStart = from;
+        }
+        for (int start = from + 1; start <= to - SEGMENT_LENGTH; start++) {
+            score += frequencies[hashes[start + DMERS_PER_SEGMENT - 1]] - frequencies[hashes[start - 1]];
+            if (score > bestScore) {
+                bestScore = score;
+                bestStart = start;
+            }
+        }
+        return bestStart < 0 ? best : new Segment(sample, bestStart, bestScore);
+    }
+
+    private static void take(final List<byte[]> samples, final int[] frequencies, final List<Segment> segments, final @Nullable Segment segment) {
+        if (segment == null) {
+            return;
+        }
+        segments.add(segment);
+        final byte[] data = samples.get(segment.sample());
+        for (int i = 0; i < DMERS_PER_SEGMENT; i++) {
+            frequencies[hash(data, segment.start() + i)] = 0;
+        }
+    }
+
+    private static int hash(final byte[] data, final int pos) {
+        long value = 0L;
+        for (int i = 0; i < DMER_LENGTH; i++) {
+            value = (value << 8) | (data[pos + i] & 0xFFL);
+        }
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> (64 - HASH_BITS));
+    }
+
+    private record Segment(int sample, int start, long score) {
+    }
+}
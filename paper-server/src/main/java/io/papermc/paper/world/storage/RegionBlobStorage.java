@@ -0,0 +1,408 @@
+package io.papermc.paper.world.storage;
+
+import com.destroystokyo.paper.exception.ServerInternalException;
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import io.papermc.paper.util.AtomicFiles;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.StreamTagVisitor;
+import net.minecraft.util.FileUtil;
+import net.minecraft.world.level.ChunkPos;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Stores each region as a single file holding an index of chunk sizes followed by all chunks as one zlib stream,
+ * used instead of Anvil by region storages with a {@value #MARKER} file in their folder.
+ * <p>
+ * Compressing a region as a whole removes the sector padding of Anvil and shares redundancy between chunks, and a
+ * region is read with one sequential read. In exchange, regions are kept in memory while in use and each save
+ * rewrites the whole file, atomically through a temporary file. Writes are therefore kept in memory and saved a
+ * few seconds after the first change to a region, when the region is evicted, and when the storage is flushed or
+ * closed. Storages opened for sync writes save the region before the write returns instead. This suits worlds that
+ * are mostly read, like lobbies and minigame maps.
+ * <p>
+ * Cached chunks are kept LZ4 compressed, and the regions of all storages share the configured memory budget,
+ * evicting the least recently used regions of the storage loading a region. Regions are deflated and written
+ * outside the lock of the storage, so saving never blocks reads and writes of other chunks.
+ */
+@NullMarked
+public final class RegionBlobStorage {
+
+    private static final Logger LOGGER = LogUtils.getClassLogger();
+    public static final String EXTENSION = ".mcb";
+    static final String MARKER = "paper-region-blobs";
+    private static final int MAGIC = 0x50524231; // PRB1
+    private static final long SAVE_DELAY_SECONDS = 10L;
+    private static final long DEFAULT_MAX_CACHED_SIZE = 256L * 1024L * 1024L;
+    // estimated size of a region and its chunk array, and of a cached chunk, without the chunk data
+    private static final int REGION_OVERHEAD = 64 + RegionFiles.CHUNKS * 8;
+    private static final int CHUNK_OVERHEAD = 48;
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+    // size of the cached regions of all storages
+    private static final AtomicLong CACHED_SIZE = new AtomicLong();
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+    private static final ScheduledExecutorService SAVE_EXECUTOR = Executors.newSingleThreadScheduledExecutor(run -> {
+        final Thread thread = new Thread(run, "Region Blob Save Thread #" + THREAD_ID.getAndIncrement());
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((final Thread t, final Throwable throwable) -> {
+            LOGGER.error("Uncaught exception in thread: " + t.getName(), throwable);
+        });
+        return thread;
+    });
+
+    private final Path folder;
+    private final boolean sync;
+    // guarded by the monitor of the storage, like the dirty flags of the regions
+    private final Long2ObjectLinkedOpenHashMap<Region> regions = new Long2ObjectLinkedOpenHashMap<>();
+    // dirty regions dropped from the cache, still used for reads and writes until they are saved
+    private final Long2ObjectOpenHashMap<Region> evicted = new Long2ObjectOpenHashMap<>();
+    private @Nullable ScheduledFuture<?> scheduledSave;
+
+    public RegionBlobStorage(final Path folder, final boolean sync) {
+        this.folder = folder;
+        this.sync = sync;
+    }
+
+    /**
+     * {@return whether the region storage of a folder uses region blobs}
+     */
+    public static boolean isUsedBy(final Path folder) {
+        return Files.exists(folder.resolve(MARKER));
+    }
+
+    private static long maxCachedSize() {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        return config == null ? DEFAULT_MAX_CACHED_SIZE : config.misc.regionFileIo.regionBlobCacheSize * 1024L * 1024L;
+    }
+
+    public @Nullable CompoundTag read(final ChunkPos pos) throws IOException {
+        final byte[] data = this.getChunkData(pos);
+        return data == null ? null : NbtIo.read(new DataInputStream(new ByteArrayInputStream(data)));
+    }
+
+    public void scanChunk(final ChunkPos pos, final StreamTagVisitor visitor) throws IOException {
+        final byte[] data = this.getChunkData(pos);
+        if (data != null) {
+            NbtIo.parse(new DataInputStream(new ByteArrayInputStream(data)), visitor, NbtAccounter.unlimitedHeap());
+        }
+    }
+
+    private byte @Nullable [] getChunkData(final ChunkPos pos) throws IOException {
+        final ChunkData chunk;
+        synchronized (this) {
+            final Region region = this.getRegion(pos, true);
+            chunk = region == null ? null : region.chunks[index(pos)];
+        }
+        return chunk == null ? null : chunk.decompress();
+    }
+
+    public void write(final ChunkPos pos, final @Nullable CompoundTag chunkData) throws IOException {
+        ChunkData chunk = null;
+        if (chunkData != null) {
+            final ByteArrayOutputStream serialized = new ByteArrayOutputStream(8192);
+            NbtIo.write(chunkData, new DataOutputStream(serialized));
+            chunk = ChunkData.compress(serialized.toByteArray());
+        }
+
+        final Region region;
+        synchronized (this) {
+            region = this.getRegion(pos, chunkData == null);
+            if (region == null) {
+                return;
+            }
+            CACHED_SIZE.addAndGet(region.set(index(pos), chunk));
+            region.dirty = true;
+            if (!this.sync && this.scheduledSave == null) {
+                this.scheduledSave = SAVE_EXECUTOR.schedule(this::saveScheduled, SAVE_DELAY_SECONDS, TimeUnit.SECONDS);
+            }
+        }
+        if (this.sync) {
+            this.save(region);
+        }
+    }
+
+    private void saveScheduled() {
+        synchronized (this) {
+            this.scheduledSave = null;
+        }
+        try {
+            this.flush();
+        } catch (final IOException ex) {
+            ServerInternalException.reportInternalException(ex);
+            LOGGER.error("Failed to save region blobs in {}", this.folder, ex);
+        }
+    }
+
+    public void flush() throws IOException {
+        final List<Region> regions;
+        synchronized (this) {
+            regions = new ArrayList<>(this.regions.size() + this.evicted.size());
+            regions.addAll(this.regions.values());
+            regions.addAll(this.evicted.values());
+        }
+        IOException exception = null;
+        for (final Region region : regions) {
+            try {
+                this.save(region);
+            } catch (final IOException ex) {
+                if (exception == null) {
+                    exception = ex;
+                } else {
+                    exception.addSuppressed(ex);
+                }
+            }
+        }
+        synchronized (this) {
+            this.evicted.values().removeIf(region -> !region.dirty);
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    public void close() throws IOException {
+        synchronized (this) {
+            if (this.scheduledSave != null) {
+                this.scheduledSave.cancel(false);
+                this.scheduledSave = null;
+            }
+        }
+        try {
+            this.flush();
+        } finally {
+            synchronized (this) {
+                for (final Region region : this.regions.values()) {
+                    CACHED_SIZE.addAndGet(-region.size);
+                }
+                this.regions.clear();
+                this.evicted.clear();
+            }
+        }
+    }
+
+    // callers hold the monitor of the storage
+    private @Nullable Region getRegion(final ChunkPos pos, final boolean existingOnly) throws IOException {
+        final long key = ChunkPos.asLong(pos.getRegionX(), pos.getRegionZ());
+        Region region = this.regions.getAndMoveToFirst(key);
+        if (region != null) {
+            return region;
+        }
+
+        region = this.evicted.remove(key);
+        if (region == null) {
+            final Path path = this.folder.resolve("r." + pos.getRegionX() + "." + pos.getRegionZ() + EXTENSION);
+            final boolean exists = Files.exists(path);
+            if (existingOnly && !exists) {
+                return null;
+            }
+            region = new Region(path, exists ? readBlob(path) : new byte[RegionFiles.CHUNKS][]);
+        }
+        this.regions.putAndMoveToFirst(key, region);
+        CACHED_SIZE.addAndGet(region.size);
+        this.evict();
+        return region;
+    }
+
+    private void evict() {
+        final long maxSize = maxCachedSize();
+        // the region that was just loaded is kept even if it exceeds the budget on its own
+        while (CACHED_SIZE.get() > maxSize && this.regions.size() > 1) {
+            final long key = this.regions.lastLongKey();
+            final Region region = this.regions.removeLast();
+            CACHED_SIZE.addAndGet(-region.size);
+            if (region.dirty) {
+                this.evicted.put(key, region);
+                SAVE_EXECUTOR.execute(() -> this.saveEvicted(key, region));
+            }
+        }
+    }
+
+    private void saveEvicted(final long key, final Region region) {
+        try {
+            this.save(region);
+        } catch (final IOException ex) {
+            // kept for the next flush
+            ServerInternalException.reportInternalException(ex);
+            LOGGER.error("Failed to save region blob {}", region.path, ex);
+            return;
+        }
+        synchronized (this) {
+            if (this.evicted.get(key) == region && !region.dirty) {
+                this.evicted.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Saves a region if it changed. The chunks are taken under the monitor of the storage, while deflating and
+     * writing them only holds the save lock of the region, so saves of a region never overtake each other.
+     */
+    private void save(final Region region) throws IOException {
+        synchronized (region.saveLock) {
+            final @Nullable ChunkData[] chunks;
+            synchronized (this) {
+                if (!region.dirty) {
+                    return;
+                }
+                chunks = region.chunks.clone();
+                region.dirty = false;
+            }
+            try {
+                this.writeRegion(region.path, chunks);
+            } catch (final IOException | RuntimeException ex) {
+                synchronized (this) {
+                    region.dirty = true;
+                }
+                throw ex;
+            }
+        }
+    }
+
+    private void writeRegion(final Path path, final @Nullable ChunkData[] chunks) throws IOException {
+        final byte[][] data = new byte[RegionFiles.CHUNKS][];
+        boolean empty = true;
+        for (int index = 0; index < chunks.length; index++) {
+            final ChunkData chunk = chunks[index];
+            if (chunk != null) {
+                data[index] = chunk.decompress();
+                empty = false;
+            }
+        }
+        if (empty) {
+            Files.deleteIfExists(path);
+            return;
+        }
+        FileUtil.createDirectoriesSafe(this.folder);
+        writeBlob(path, data);
+    }
+
+    private static int index(final ChunkPos pos) {
+        return pos.getRegionLocalX() | (pos.getRegionLocalZ() << 5);
+    }
+
+    static byte[][] readBlob(final Path path) throws IOException {
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException("Not a region blob: " + path);
+            }
+            final int[] lengths = new int[RegionFiles.CHUNKS];
+            for (int index = 0; index < lengths.length; index++) {
+                lengths[index] = input.readInt();
+            }
+
+            final byte[][] chunks = new byte[RegionFiles.CHUNKS][];
+            final Inflater inflater = new Inflater();
+            try (final DataInputStream data = new DataInputStream(new InflaterInputStream(input, inflater))) {
+                for (int index = 0; index < lengths.length; index++) {
+                    if (lengths[index] > 0) {
+                        chunks[index] = new byte[lengths[index]];
+                        data.readFully(chunks[index]);
+                    }
+                }
+            } finally {
+                inflater.end();
+            }
+            return chunks;
+        }
+    }
+
+    static void writeBlob(final Path path, final byte[][] chunks) throws IOException {
+        AtomicFiles.atomicWrite(path, temp -> {
+            try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                output.writeInt(MAGIC);
+                // chunk data is never empty, 0 marks absent chunks
+                for (final byte[] chunk : chunks) {
+                    output.writeInt(chunk == null ? 0 : chunk.length);
+                }
+
+                final Deflater deflater = new Deflater();
+                try {
+                    final DeflaterOutputStream data = new DeflaterOutputStream(output, deflater, 65536);
+                    for (final byte[] chunk : chunks) {
+                        if (chunk != null) {
+                            data.write(chunk);
+                        }
+                    }
+                    data.finish();
+                } finally {
+                    deflater.end();
+                }
+            }
+        });
+    }
+
+    private record ChunkData(byte[] compressed, int length) {
+
+        static ChunkData compress(final byte[] data) {
+            return new ChunkData(COMPRESSOR.compress(data), data.length);
+        }
+
+        byte[] decompress() {
+            return DECOMPRESSOR.decompress(this.compressed, this.length);
+        }
+
+        long size() {
+            return (long) this.compressed.length + CHUNK_OVERHEAD;
+        }
+    }
+
+    private static final class Region {
+
+        private final Path path;
+        private final @Nullable ChunkData[] chunks = new ChunkData[RegionFiles.CHUNKS];
+        private final Object saveLock = new Object();
+        private long size = REGION_OVERHEAD;
+        private boolean dirty;
+
+        private Region(final Path path, final byte[][] chunks) {
+            this.path = path;
+            for (int index = 0; index < chunks.length; index++) {
+                if (chunks[index] != null) {
+                    this.set(index, ChunkData.compress(chunks[index]));
+                }
+            }
+        }
+
+        /**
+         * {@return the change in size of the region}
+         */
+        private long set(final int index, final @Nullable ChunkData chunk) {
+            final ChunkData previous = this.chunks[index];
+            this.chunks[index] = chunk;
+            final long change = (chunk == null ? 0L : chunk.size()) - (previous == null ? 0L : previous.size());
+            this.size += change;
+            return change;
+        }
+    }
+}
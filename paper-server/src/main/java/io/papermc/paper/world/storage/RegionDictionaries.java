@@ -0,0 +1,179 @@
+package io.papermc.paper.world.storage;
+
+import com.mojang.logging.LogUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Preset dictionaries for the zlib region compression, stored in a {@code dictionaries} folder next to the region
+ * files they were trained on.
+ * <p>
+ * zlib streams compressed with a preset dictionary carry the Adler-32 checksum of the dictionary in their header,
+ * so chunks are read back with whichever dictionary they were written with, and retraining the dictionary of a
+ * folder only affects chunks written afterward. Dictionaries of a folder are loaded the first time a region file of
+ * it is opened.
+ */
+@NullMarked
+public final class RegionDictionaries {
+
+    private static final Logger LOGGER = LogUtils.getClassLogger();
+    /**
+     * Deflate only refers back 32 KiB, a larger dictionary can't be used.
+     */
+    public static final int MAX_SIZE = 32 * 1024;
+    private static final String FOLDER = "dictionaries";
+    private static final String EXTENSION = ".zdict";
+    private static final String CURRENT = "current";
+
+    private static final Map<Integer, byte[]> BY_ID = new ConcurrentHashMap<>();
+    private static final Map<Path, Optional<byte[]>> CURRENT_BY_FOLDER = new ConcurrentHashMap<>();
+
+    private RegionDictionaries() {
+    }
+
+    /**
+     * Loads the dictionaries of a region folder if needed.
+     *
+     * @return the dictionary to compress chunks of the folder with, or {@code null} if none was trained yet
+     */
+    public static byte @Nullable [] getCurrent(final Path regionFolder) {
+        return CURRENT_BY_FOLDER.computeIfAbsent(regionFolder.toAbsolutePath().normalize(), RegionDictionaries::load).orElse(null);
+    }
+
+    private static Optional<byte[]> load(final Path regionFolder) {
+        final Path folder = regionFolder.resolve(FOLDER);
+        if (!Files.isDirectory(folder)) {
+            return Optional.empty();
+        }
+
+        byte[] current = null;
+        try {
+            final Path currentFile = folder.resolve(CURRENT);
+            final String currentId = Files.exists(currentFile) ? Files.readString(currentFile).trim() : null;
+            try (final DirectoryStream<Path> files = Files.newDirectoryStream(folder, "*" + EXTENSION)) {
+                for (final Path file : files) {
+                    final byte[] dictionary = Files.readAllBytes(file);
+                    final String id = idString(dictionary);
+                    if (!file.getFileName().toString().equals(id + EXTENSION)) {
+                        LOGGER.warn("Ignoring region compression dictionary {}, its name does not match its checksum {}", file, id);
+                        continue;
+                    }
+                    register(dictionary);
+                    if (id.equals(currentId)) {
+                        current = dictionary;
+                    }
+                }
+            }
+            if (currentId != null && current == null) {
+                LOGGER.warn("Missing current region compression dictionary {} in {}", currentId, folder);
+            }
+        } catch (final IOException ex) {
+            LOGGER.error("Failed to load region compression dictionaries from {}", folder, ex);
+        }
+        return Optional.ofNullable(current);
+    }
+
+    /**
+     * Stores a dictionary for a region folder and makes it the one new chunks are compressed with. Previous
+     * dictionaries are kept to read chunks written with them.
+     */
+    public static void store(final Path regionFolder, final byte[] dictionary) throws IOException {
+        getCurrent(regionFolder);
+        final Path folder = regionFolder.resolve(FOLDER);
+        Files.createDirectories(folder);
+        final String id = idString(dictionary);
+        Files.write(folder.resolve(id + EXTENSION), dictionary);
+        final Path currentFile = folder.resolve(CURRENT);
+        final Path tempFile = folder.resolve(CURRENT + ".tmp");
+        Files.writeString(tempFile, id);
+        Files.move(tempFile, currentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        register(dictionary);
+        CURRENT_BY_FOLDER.put(regionFolder.toAbsolutePath().normalize(), Optional.of(dictionary));
+    }
+
+    static void register(final byte[] dictionary) {
+        final byte[] previous = BY_ID.putIfAbsent(id(dictionary), dictionary);
+        if (previous != null && !Arrays.equals(previous, dictionary)) {
+            LOGGER.warn("Two region compression dictionaries share the checksum {}, chunks may only be read with the first", idString(dictionary));
+        }
+    }
+
+    static int id(final byte[] dictionary) {
+        final Adler32 checksum = new Adler32();
+        checksum.update(dictionary);
+        return (int) checksum.getValue();
+    }
+
+    private static String idString(final byte[] dictionary) {
+        return String.format("%08x", id(dictionary));
+    }
+
+    public static InputStream inflate(final InputStream stream) {
+        return new DictionaryInflaterInputStream(stream);
+    }
+
+    public static OutputStream deflate(final OutputStream stream, final byte[] dictionary) {
+        final Deflater deflater = new Deflater();
+        deflater.setDictionary(dictionary);
+        return new DeflaterOutputStream(stream, deflater) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // only the default deflater is ended by the stream itself
+                    this.def.end();
+                }
+            }
+        };
+    }
+
+    private static final class DictionaryInflaterInputStream extends InflaterInputStream {
+
+        private DictionaryInflaterInputStream(final InputStream stream) {
+            super(stream, new Inflater());
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read != -1 || !this.inf.needsDictionary()) {
+                return read;
+            }
+
+            final byte[] dictionary = BY_ID.get(this.inf.getAdler());
+            if (dictionary == null) {
+                throw new IOException("Missing region compression dictionary " + String.format("%08x", this.inf.getAdler()));
+            }
+            this.inf.setDictionary(dictionary);
+            return super.read(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                this.inf.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.papermc.paper.world.storage;
+
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.minecraft.world.level.ChunkPos;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+import org.slf4j.Logger;
+
+/**
+ * Chunk writes to a region file waiting to be written together.
+ * <p>
+ * Writes are committed by the region file once the batch is full, once the configured delay has passed since the
+ * first write of the batch, or before anything else needs to see the chunks, so data never waits longer than the
+ * delay to reach the file. Writes stay in the batch until they were written, a failed commit is retried by the
+ * next one. Guarded by the monitor of the owning region file.
+ */
+@NullMarked
+public final class RegionFileWriteBatch {
+
+    private static final Logger LOGGER = LogUtils.getClassLogger();
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+    private static final ScheduledExecutorService COMMIT_EXECUTOR = Executors.newSingleThreadScheduledExecutor(run -> {
+        final Thread thread = new Thread(run, "Region File Batch Commit Thread #" + THREAD_ID.getAndIncrement());
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((final Thread t, final Throwable throwable) -> {
+            LOGGER.error("Uncaught exception in thread: " + t.getName(), throwable);
+        });
+        return thread;
+    });
+
+    private static final @Nullable MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private final int maxWrites;
+    private final long delay;
+    private final Map<ChunkPos, ByteBuffer> writes = new LinkedHashMap<>();
+    private @Nullable ScheduledFuture<?> commit;
+
+    private RegionFileWriteBatch(final int maxWrites, final long delay) {
+        this.maxWrites = maxWrites;
+        this.delay = delay;
+    }
+
+    /**
+     * Creates the write batch for a new region file.
+     *
+     * @return the batch, or {@code null} if writes should not be batched
+     */
+    public static @Nullable RegionFileWriteBatch create() {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        if (config == null || config.misc.regionFileIo.maxBatchedWrites < 2) {
+            return null;
+        }
+        return new RegionFileWriteBatch(config.misc.regionFileIo.maxBatchedWrites, Math.max(1L, config.misc.regionFileIo.batchDelay));
+    }
+
+    /**
+     * Whether new region files should memory-map their header.
+     */
+    public static boolean mapHeaders() {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        return config != null && config.misc.regionFileIo.mapHeaders;
+    }
+
+    /**
+     * Adds a chunk write to the batch, replacing an earlier write of the same chunk.
+     *
+     * @param commit commits the batch, run once the delay passed
+     * @return whether the batch is full and should be committed now
+     */
+    public boolean add(final ChunkPos pos, final ByteBuffer data, final Runnable commit) {
+        this.writes.put(pos, data);
+        if (this.writes.size() >= this.maxWrites) {
+            return true;
+        }
+        // a commit that ran and failed leaves the writes in the batch, they are retried by the next one
+        if (this.commit == null || this.commit.isDone()) {
+            this.commit = COMMIT_EXECUTOR.schedule(commit, this.delay, TimeUnit.MILLISECONDS);
+        }
+        return false;
+    }
+
+    public boolean contains(final ChunkPos pos) {
+        return this.writes.containsKey(pos);
+    }
+
+    public boolean isEmpty() {
+        return this.writes.isEmpty();
+    }
+
+    /**
+     * Gets all writes of the batch, in the order they were first added. They stay in the batch until it is
+     * {@link #clear() cleared} after they were written.
+     */
+    public List<Map.Entry<ChunkPos, ByteBuffer>> writes() {
+        final List<Map.Entry<ChunkPos, ByteBuffer>> writes = new ArrayList<>(this.writes.size());
+        for (final Map.Entry<ChunkPos, ByteBuffer> write : this.writes.entrySet()) {
+            writes.add(Map.entry(write.getKey(), write.getValue()));
+        }
+        return writes;
+    }
+
+    public void clear() {
+        if (this.commit != null) {
+            this.commit.cancel(false);
+            this.commit = null;
+        }
+        this.writes.clear();
+    }
+
+    /**
+     * Unmaps a region file header right away instead of once it is garbage collected, which keeps the file
+     * from being deleted on Windows. The buffer must not be accessed afterwards.
+     */
+    public static void unmap(final MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invokeExact((ByteBuffer) buffer);
+        } catch (final Throwable throwable) {
+            LOGGER.warn("Failed to unmap region file header", throwable);
+        }
+    }
+
+    private static @Nullable MethodHandle findInvokeCleaner() {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                .bindTo(theUnsafe.get(null));
+        } catch (final ReflectiveOperationException | RuntimeException ex) {
+            LOGGER.warn("Unable to unmap region file headers, they are unmapped once garbage collected", ex);
+            return null;
+        }
+    }
+}
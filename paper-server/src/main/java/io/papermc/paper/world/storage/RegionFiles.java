@@ -0,0 +1,121 @@
+package io.papermc.paper.world.storage;
+
+import io.papermc.paper.util.AtomicFiles;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.storage.RegionFile;
+import net.minecraft.world.level.chunk.storage.RegionFileVersion;
+import net.minecraft.world.level.chunk.storage.RegionStorageInfo;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Whole-region operations on Anvil region files for offline conversions, with chunks as uncompressed NBT indexed
+ * by their position within the region.
+ */
+@NullMarked
+final class RegionFiles {
+
+    static final String[] FOLDERS = {"region", "entities", "poi"};
+    static final String[] TYPES = {"chunk", "entities", "poi"};
+    static final int CHUNKS = 32 * 32;
+    private static final Pattern REGION_FILE = Pattern.compile("^r\\.(-?\\d+)\\.(-?\\d+)(\\.mc[ab])$");
+
+    private RegionFiles() {
+    }
+
+    static List<Path> list(final Path folder, final String extension) throws IOException {
+        final List<Path> regionFiles = new ArrayList<>();
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(folder)) {
+            for (final Path file : files) {
+                final Matcher matcher = REGION_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches() && matcher.group(3).equals(extension)) {
+                    regionFiles.add(file);
+                }
+            }
+        }
+        return regionFiles;
+    }
+
+    /**
+     * {@return the position of the first chunk in a region file}
+     */
+    static ChunkPos regionPos(final Path file) {
+        final Matcher matcher = REGION_FILE.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a region file: " + file);
+        }
+        return new ChunkPos(Integer.parseInt(matcher.group(1)) << 5, Integer.parseInt(matcher.group(2)) << 5);
+    }
+
+    static ChunkPos chunkPos(final ChunkPos regionPos, final int index) {
+        return new ChunkPos(regionPos.x + (index & 31), regionPos.z + (index >> 5));
+    }
+
+    static Path externalChunkFile(final Path folder, final ChunkPos pos) {
+        return folder.resolve("c." + pos.x + "." + pos.z + ".mcc");
+    }
+
+    static byte[][] readAnvil(final RegionStorageInfo info, final Path folder, final Path file) throws IOException {
+        final ChunkPos regionPos = regionPos(file);
+        final byte[][] chunks = new byte[CHUNKS][];
+        try (final RegionFile regionFile = new RegionFile(info, file, folder, false)) {
+            for (int index = 0; index < CHUNKS; index++) {
+                final ChunkPos pos = chunkPos(regionPos, index);
+                if (!regionFile.hasChunk(pos)) {
+                    continue;
+                }
+                try (final DataInputStream input = regionFile.getChunkDataInputStream(pos)) {
+                    if (input == null) {
+                        // converting without it would lose the chunk once the source is replaced
+                        throw new IOException("Failed to read chunk " + pos + " in " + file);
+                    }
+                    chunks[index] = input.readAllBytes();
+                }
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Writes a region file to a temporary file and replaces the existing one with it once complete, moving
+     * oversized chunks into place and deleting those which fit into the region file now.
+     */
+    static void writeAnvil(final RegionStorageInfo info, final Path folder, final Path file, final RegionFileVersion version, final byte[][] chunks) throws IOException {
+        final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.deleteIfExists(tempFile);
+        // oversized chunks of the new file go to their own folder so the ones of the old file stay intact until it is replaced
+        final Path externalFolder = folder.resolve("convert");
+        Files.createDirectories(externalFolder);
+        final ChunkPos regionPos = regionPos(file);
+        try (final RegionFile target = new RegionFile(info, tempFile, externalFolder, version, false)) {
+            for (int index = 0; index < CHUNKS; index++) {
+                if (chunks[index] != null) {
+                    try (final DataOutputStream output = target.getChunkDataOutputStream(chunkPos(regionPos, index))) {
+                        output.write(chunks[index]);
+                    }
+                }
+            }
+        }
+
+        for (int index = 0; index < CHUNKS; index++) {
+            final Path externalChunk = externalChunkFile(externalFolder, chunkPos(regionPos, index));
+            if (Files.exists(externalChunk)) {
+                Files.move(externalChunk, folder.resolve(externalChunk.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(externalChunkFile(folder, chunkPos(regionPos, index)));
+            }
+        }
+        Files.deleteIfExists(externalFolder);
+        AtomicFiles.atomicMove(tempFile, file, true);
+    }
+}
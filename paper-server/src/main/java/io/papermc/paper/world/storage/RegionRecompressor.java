@@ -0,0 +1,118 @@
+package io.papermc.paper.world.storage;
+
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.GlobalConfiguration;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.storage.RegionFile;
+import net.minecraft.world.level.chunk.storage.RegionFileVersion;
+import net.minecraft.world.level.chunk.storage.RegionStorageInfo;
+import net.minecraft.world.level.storage.LevelStorageSource;
+import org.jspecify.annotations.NullMarked;
+import org.slf4j.Logger;
+
+/**
+ * Rewrites the region files of a world with the configured compression format, enabled with the
+ * {@code --recompressRegionFiles} startup flag and run before the world is loaded.
+ * <p>
+ * With the {@code ZLIB_DICTIONARY} format a new dictionary is trained for each region folder from a sample of its
+ * chunks first. Each region file is written to a temporary file next to it, which replaces it once complete.
+ */
+@NullMarked
+public final class RegionRecompressor {
+
+    private static final Logger LOGGER = LogUtils.getClassLogger();
+    private static final int MAX_SAMPLES = 4096;
+    // about 100 times the dictionary size, more samples barely change which segments are picked
+    private static final long MAX_SAMPLE_BYTES = 100L * RegionDictionaries.MAX_SIZE;
+
+    private RegionRecompressor() {
+    }
+
+    public static void recompress(final LevelStorageSource.LevelStorageAccess levelStorage) {
+        final ResourceKey<Level> dimension = Registries.levelStemToLevel(levelStorage.dimensionType);
+        final Path dimensionPath = levelStorage.getDimensionPath(dimension);
+        for (int i = 0; i < RegionFiles.FOLDERS.length; i++) {
+            final Path folder = dimensionPath.resolve(RegionFiles.FOLDERS[i]);
+            if (!Files.isDirectory(folder)) {
+                continue;
+            }
+            try {
+                recompressFolder(new RegionStorageInfo(levelStorage.getLevelId(), dimension, RegionFiles.TYPES[i]), folder);
+            } catch (final IOException ex) {
+                LOGGER.error("Failed to recompress region files in {}", folder, ex);
+            }
+        }
+    }
+
+    private static void recompressFolder(final RegionStorageInfo info, final Path folder) throws IOException {
+        final List<Path> regionFiles = RegionFiles.list(folder, ".mca");
+        if (regionFiles.isEmpty()) {
+            return;
+        }
+
+        // loads the existing dictionaries needed to read the chunks
+        RegionFileVersion.getCompressionFormat(folder);
+        if (GlobalConfiguration.get().unsupportedSettings.compressionFormat == GlobalConfiguration.UnsupportedSettings.CompressionFormat.ZLIB_DICTIONARY) {
+            final List<byte[]> samples = sample(info, folder, regionFiles);
+            final byte[] dictionary = DeflateDictionaryTrainer.train(samples, RegionDictionaries.MAX_SIZE);
+            if (dictionary.length > 0) {
+                RegionDictionaries.store(folder, dictionary);
+                LOGGER.info("Trained a {} byte region compression dictionary for {} from {} chunks", dictionary.length, folder, samples.size());
+            }
+        }
+
+        final RegionFileVersion version = RegionFileVersion.getCompressionFormat(folder);
+        long sizeBefore = 0L;
+        long sizeAfter = 0L;
+        for (final Path file : regionFiles) {
+            sizeBefore += Files.size(file);
+            RegionFiles.writeAnvil(info, folder, file, version, RegionFiles.readAnvil(info, folder, file));
+            sizeAfter += Files.size(file);
+        }
+        LOGGER.info("Recompressed {} region files in {} from {} to {} bytes", regionFiles.size(), folder, sizeBefore, sizeAfter);
+    }
+
+    private static List<byte[]> sample(final RegionStorageInfo info, final Path folder, final List<Path> regionFiles) throws IOException {
+        final List<byte[]> samples = new ArrayList<>();
+        final int perFile = Math.max(1, MAX_SAMPLES / regionFiles.size());
+        final int stride = Math.max(1, RegionFiles.CHUNKS / perFile);
+        long sampleBytes = 0L;
+        for (final Path file : regionFiles) {
+            final ChunkPos regionPos = RegionFiles.regionPos(file);
+            try (final RegionFile regionFile = new RegionFile(info, file, folder, false)) {
+                int taken = 0;
+                // start at a different chunk for each stride so samples spread over the whole region
+                for (int offset = 0; offset < stride && taken < perFile; offset++) {
+                    for (int index = offset; index < RegionFiles.CHUNKS && taken < perFile; index += stride) {
+                        final ChunkPos pos = RegionFiles.chunkPos(regionPos, index);
+                        if (!regionFile.hasChunk(pos)) {
+                            continue;
+                        }
+                        try (final DataInputStream input = regionFile.getChunkDataInputStream(pos)) {
+                            if (input == null) {
+                                continue;
+                            }
+                            final byte[] chunk = input.readAllBytes();
+                            samples.add(chunk);
+                            sampleBytes += chunk.length;
+                            taken++;
+                        }
+                        if (samples.size() >= MAX_SAMPLES || sampleBytes >= MAX_SAMPLE_BYTES) {
+                            return samples;
+                        }
+                    }
+                }
+            }
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,105 @@
+package io.papermc.paper.world.storage;
+
+import com.mojang.logging.LogUtils;
+import io.papermc.paper.configuration.WorldConfiguration;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.storage.RegionFileVersion;
+import net.minecraft.world.level.chunk.storage.RegionStorageInfo;
+import net.minecraft.world.level.storage.LevelStorageSource;
+import org.jspecify.annotations.NullMarked;
+import org.slf4j.Logger;
+
+/**
+ * Converts the region folders of a world between Anvil and {@link RegionBlobStorage region blobs} before its
+ * storages are opened.
+ * <p>
+ * When converting to blobs, the marker making storages use blobs is created before the first region is converted.
+ * When converting to Anvil, it is only removed after the last. Each region file is replaced by the converted file
+ * once complete, so an interrupted conversion leaves the folder in the target format, with the remaining regions
+ * converted the next time the world loads.
+ */
+@NullMarked
+public final class RegionStorageConverter {
+
+    private static final Logger LOGGER = LogUtils.getClassLogger();
+
+    private RegionStorageConverter() {
+    }
+
+    public static void convert(final LevelStorageSource.LevelStorageAccess levelStorage, final ResourceKey<Level> dimension, final WorldConfiguration.Chunks.RegionStorageFormat format) {
+        final Path dimensionPath = levelStorage.getDimensionPath(dimension);
+        for (int i = 0; i < RegionFiles.FOLDERS.length; i++) {
+            final Path folder = dimensionPath.resolve(RegionFiles.FOLDERS[i]);
+            final RegionStorageInfo info = new RegionStorageInfo(levelStorage.getLevelId(), dimension, RegionFiles.TYPES[i]);
+            try {
+                if (format == WorldConfiguration.Chunks.RegionStorageFormat.BLOB) {
+                    toBlobs(info, folder);
+                } else {
+                    toAnvil(info, folder);
+                }
+            } catch (final IOException ex) {
+                // loading the world now would miss the chunks of the regions not converted yet
+                throw new IllegalStateException("Failed to convert region storage in " + folder, ex);
+            }
+        }
+    }
+
+    private static void toBlobs(final RegionStorageInfo info, final Path folder) throws IOException {
+        Files.createDirectories(folder);
+        if (!RegionBlobStorage.isUsedBy(folder)) {
+            Files.createFile(folder.resolve(RegionBlobStorage.MARKER));
+        }
+
+        final List<Path> regionFiles = RegionFiles.list(folder, ".mca");
+        if (regionFiles.isEmpty()) {
+            return;
+        }
+        // loads the dictionaries needed to read the chunks
+        RegionFileVersion.getCompressionFormat(folder);
+        long sizeBefore = 0L;
+        long sizeAfter = 0L;
+        for (final Path file : regionFiles) {
+            sizeBefore += Files.size(file);
+            final byte[][] chunks = RegionFiles.readAnvil(info, folder, file);
+            final Path blobFile = file.resolveSibling(file.getFileName().toString().replace(".mca", RegionBlobStorage.EXTENSION));
+            RegionBlobStorage.writeBlob(blobFile, chunks);
+            sizeAfter += Files.size(blobFile);
+
+            // the oversized chunks are only removed after the region file, as converting it again would miss them
+            Files.delete(file);
+            final ChunkPos regionPos = RegionFiles.regionPos(file);
+            for (int index = 0; index < RegionFiles.CHUNKS; index++) {
+                Files.deleteIfExists(RegionFiles.externalChunkFile(folder, RegionFiles.chunkPos(regionPos, index)));
+            }
+        }
+        LOGGER.info("Converted {} region files in {} to region blobs, from {} to {} bytes", regionFiles.size(), folder, sizeBefore, sizeAfter);
+    }
+
+    private static void toAnvil(final RegionStorageInfo info, final Path folder) throws IOException {
+        if (!Files.isDirectory(folder)) {
+            return;
+        }
+
+        final List<Path> blobFiles = RegionFiles.list(folder, RegionBlobStorage.EXTENSION);
+        if (!blobFiles.isEmpty()) {
+            final RegionFileVersion version = RegionFileVersion.getCompressionFormat(folder);
+            long sizeBefore = 0L;
+            long sizeAfter = 0L;
+            for (final Path blobFile : blobFiles) {
+                sizeBefore += Files.size(blobFile);
+                final Path file = blobFile.resolveSibling(blobFile.getFileName().toString().replace(RegionBlobStorage.EXTENSION, ".mca"));
+                RegionFiles.writeAnvil(info, folder, file, version, RegionBlobStorage.readBlob(blobFile));
+                sizeAfter += Files.size(file);
+                Files.delete(blobFile);
+            }
+            LOGGER.info("Converted {} region blobs in {} to region files, from {} to {} bytes", blobFiles.size(), folder, sizeBefore, sizeAfter);
+        }
+        Files.deleteIfExists(folder.resolve(RegionBlobStorage.MARKER));
+    }
+}
@@ -0,0 +1,194 @@
+package io.papermc.paper.world.storage;
+
+import io.papermc.paper.configuration.GlobalConfiguration;
+import it.unimi.dsi.fastutil.HashCommon;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.world.level.ChunkPos;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Keeps the serialized data of the most recently saved chunks of all region folders, so loading a chunk again
+ * shortly after it was saved, usually by unloading it, skips reading and decompressing the region file.
+ * <p>
+ * Chunks are cached as LZ4 compressed NBT, which decompresses much faster than the region file compression.
+ * Every write to a region folder replaces the cached data of the chunk before it reaches the file, so the cache
+ * never returns older data than the file, and the entries of a folder are dropped when its storage is closed. The
+ * total size of the cached data is bounded by the configured size, evicting the least recently used chunks first.
+ * <p>
+ * Entries are spread over segments with their own lock and an equal share of the size, so the region IO threads
+ * of different storages rarely contend for the same lock. Eviction is least recently used within each segment.
+ */
+@NullMarked
+public final class SavedChunkDataCache {
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+    // estimated size of a map entry and its key
+    private static final int ENTRY_OVERHEAD = 128;
+    private static final int SEGMENT_COUNT = 16;
+
+    private static final Segment[] SEGMENTS = new Segment[SEGMENT_COUNT];
+    // total size of all segments, lets the disabled or empty cache skip locking
+    private static final AtomicLong SIZE = new AtomicLong();
+
+    static {
+        for (int i = 0; i < SEGMENTS.length; i++) {
+            SEGMENTS[i] = new Segment();
+        }
+    }
+
+    private SavedChunkDataCache() {
+    }
+
+    private static long maxSize() {
+        final GlobalConfiguration config = GlobalConfiguration.get();
+        return config == null ? 0L : config.misc.regionFileIo.savedChunkCacheSize * 1024L * 1024L;
+    }
+
+    private static Segment segment(final Key key) {
+        return SEGMENTS[HashCommon.mix(key.hashCode()) & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * Writes the chunk data to a region file stream.
+     *
+     * @return the serialized data to {@link #put} once the write completed, or {@code null} if the cache is disabled
+     */
+    public static byte @Nullable [] write(final CompoundTag chunkData, final DataOutputStream output) throws IOException {
+        if (maxSize() <= 0L) {
+            if (SIZE.get() != 0L) {
+                // the cache was disabled by a config reload
+                for (final Segment segment : SEGMENTS) {
+                    segment.evict(0L);
+                }
+            }
+            NbtIo.write(chunkData, output);
+            return null;
+        }
+        final ByteArrayOutputStream serialized = new ByteArrayOutputStream(8192);
+        NbtIo.write(chunkData, new DataOutputStream(serialized));
+        serialized.writeTo(output);
+        return serialized.toByteArray();
+    }
+
+    public static void put(final Path folder, final ChunkPos pos, final byte[] serialized) {
+        final long maxSize = maxSize() / SEGMENT_COUNT;
+        final byte[] compressed = COMPRESSOR.compress(serialized);
+        final Key key = new Key(folder, pos.toLong());
+        segment(key).put(key, new Entry(compressed, serialized.length), maxSize);
+    }
+
+    public static void invalidate(final Path folder, final ChunkPos pos) {
+        if (SIZE.get() == 0L) {
+            return;
+        }
+        final Key key = new Key(folder, pos.toLong());
+        final Segment segment = segment(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * Drops the entries of a region folder, as its files may be replaced or deleted once its storage is closed.
+     */
+    public static void invalidate(final Path folder) {
+        if (SIZE.get() == 0L) {
+            return;
+        }
+        for (final Segment segment : SEGMENTS) {
+            segment.removeFolder(folder);
+        }
+    }
+
+    /**
+     * {@return a stream of the serialized data of the chunk, or {@code null} if it is not cached}
+     */
+    public static @Nullable DataInputStream get(final Path folder, final ChunkPos pos) {
+        if (SIZE.get() == 0L) {
+            return null;
+        }
+        final Key key = new Key(folder, pos.toLong());
+        final Segment segment = segment(key);
+        final Entry entry;
+        synchronized (segment) {
+            entry = segment.entries.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        return new DataInputStream(new ByteArrayInputStream(DECOMPRESSOR.decompress(entry.compressed(), entry.length())));
+    }
+
+    private static final class Segment {
+
+        private final Map<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+        private long size;
+
+        synchronized void put(final Key key, final Entry entry, final long maxSize) {
+            this.remove(key);
+            if (entry.size() > maxSize) {
+                this.evict(maxSize);
+                return;
+            }
+            this.entries.put(key, entry);
+            this.size += entry.size();
+            SIZE.addAndGet(entry.size());
+            this.evict(maxSize);
+        }
+
+        // callers hold the lock of the segment
+        void remove(final Key key) {
+            final Entry previous = this.entries.remove(key);
+            if (previous != null) {
+                this.size -= previous.size();
+                SIZE.addAndGet(-previous.size());
+            }
+        }
+
+        synchronized void removeFolder(final Path folder) {
+            for (final Iterator<Map.Entry<Key, Entry>> iterator = this.entries.entrySet().iterator(); iterator.hasNext();) {
+                final Map.Entry<Key, Entry> entry = iterator.next();
+                if (entry.getKey().folder().equals(folder)) {
+                    this.size -= entry.getValue().size();
+                    SIZE.addAndGet(-entry.getValue().size());
+                    iterator.remove();
+                }
+            }
+        }
+
+        synchronized void evict(final long maxSize) {
+            for (final Iterator<Entry> iterator = this.entries.values().iterator(); this.size > maxSize && iterator.hasNext();) {
+                final Entry entry = iterator.next();
+                this.size -= entry.size();
+                SIZE.addAndGet(-entry.size());
+                iterator.remove();
+            }
+        }
+    }
+
+    private record Key(Path folder, long pos) {
+    }
+
+    private record Entry(byte[] compressed, int length) {
+
+        long size() {
+            return (long) this.compressed.length + ENTRY_OVERHEAD;
+        }
+    }
+}
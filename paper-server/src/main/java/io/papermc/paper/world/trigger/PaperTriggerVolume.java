@@ -0,0 +1,126 @@
+package io.papermc.paper.world.trigger;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.util.BoundingBox;
+import org.jspecify.annotations.NullMarked;
+
+@NullMarked
+public final class PaperTriggerVolume implements TriggerVolume {
+
+    final ServerLevel level;
+    private final Plugin plugin;
+    private final Handler handler;
+    private final double minX;
+    private final double minY;
+    private final double minZ;
+    private final double maxX;
+    private final double maxY;
+    private final double maxZ;
+    final ReferenceOpenHashSet<ServerPlayer> players = new ReferenceOpenHashSet<>();
+    boolean registered = true;
+
+    public PaperTriggerVolume(final ServerLevel level, final Plugin plugin, final BoundingBox box, final Handler handler) {
+        this.level = level;
+        this.plugin = plugin;
+        this.handler = handler;
+        this.minX = box.getMinX();
+        this.minY = box.getMinY();
+        this.minZ = box.getMinZ();
+        this.maxX = box.getMaxX();
+        this.maxY = box.getMaxY();
+        this.maxZ = box.getMaxZ();
+    }
+
+    boolean contains(final double x, final double y, final double z) {
+        return x >= this.minX && x < this.maxX
+            && y >= this.minY && y < this.maxY
+            && z >= this.minZ && z < this.maxZ;
+    }
+
+    double minX() {
+        return this.minX;
+    }
+
+    double minZ() {
+        return this.minZ;
+    }
+
+    double maxX() {
+        return this.maxX;
+    }
+
+    double maxZ() {
+        return this.maxZ;
+    }
+
+    void enter(final ServerPlayer player) {
+        if (!this.plugin.isEnabled()) {
+            return;
+        }
+        try {
+            this.handler.onEnter(player.getBukkitEntity(), this);
+        } catch (final Throwable throwable) {
+            this.plugin.getLogger().log(Level.SEVERE, "Could not pass player entering trigger volume to " + this.plugin.getPluginMeta().getDisplayName(), throwable);
+        }
+    }
+
+    void leave(final ServerPlayer player) {
+        if (!this.plugin.isEnabled()) {
+            return;
+        }
+        try {
+            this.handler.onLeave(player.getBukkitEntity(), this);
+        } catch (final Throwable throwable) {
+            this.plugin.getLogger().log(Level.SEVERE, "Could not pass player leaving trigger volume to " + this.plugin.getPluginMeta().getDisplayName(), throwable);
+        }
+    }
+
+    @Override
+    public World getWorld() {
+        return this.level.getWorld();
+    }
+
+    @Override
+    public Plugin getPlugin() {
+        return this.plugin;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(this.minX, this.minY, this.minZ, this.maxX, this.maxY, this.maxZ);
+    }
+
+    @Override
+    public Collection<Player> getPlayers() {
+        final List<Player> players = new ArrayList<>(this.players.size());
+        for (final ServerPlayer player : this.players) {
+            players.add(player.getBukkitEntity());
+        }
+        return Collections.unmodifiableList(players);
+    }
+
+    @Override
+    public boolean isRegistered() {
+        return this.registered;
+    }
+
+    @Override
+    public void unregister() {
+        this.level.triggerVolumes.remove(this);
+    }
+
+    @Override
+    public String toString() {
+        return "PaperTriggerVolume{world=" + this.level.getWorld().getName() + ", plugin=" + this.plugin.getName() + ", box=" + this.getBoundingBox() + '}';
+    }
+}
@@ -0,0 +1,120 @@
+package io.papermc.paper.world.trigger;
+
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import org.jspecify.annotations.NullMarked;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The trigger volumes a player is inside of.
+ * <p>
+ * The position of the player is checked once per tick, and only if the player moved or volumes were added to or
+ * removed from their level since the last check. All state is updated before any handler is notified, so handlers
+ * may freely move the player or register and unregister volumes.
+ */
+@NullMarked
+public final class PlayerTriggerVolumes {
+
+    private final ServerPlayer player;
+    private final ReferenceArrayList<PaperTriggerVolume> inside = new ReferenceArrayList<>();
+    private @Nullable ServerLevel lastLevel;
+    private double lastX;
+    private double lastY;
+    private double lastZ;
+    private int lastModCount;
+
+    public PlayerTriggerVolumes(final ServerPlayer player) {
+        this.player = player;
+    }
+
+    public void update() {
+        final ServerLevel level = this.player.serverLevel();
+        final TriggerVolumeIndex index = level.triggerVolumes;
+        if (this.inside.isEmpty() && index.isEmpty()) {
+            this.lastLevel = null;
+            return;
+        }
+
+        final double x = this.player.getX();
+        final double y = this.player.getY();
+        final double z = this.player.getZ();
+        if (level == this.lastLevel && x == this.lastX && y == this.lastY && z == this.lastZ && index.modCount() == this.lastModCount) {
+            return;
+        }
+        this.lastLevel = level;
+        this.lastX = x;
+        this.lastY = y;
+        this.lastZ = z;
+        this.lastModCount = index.modCount();
+
+        List<PaperTriggerVolume> left = null;
+        for (final Iterator<PaperTriggerVolume> iterator = this.inside.iterator(); iterator.hasNext();) {
+            final PaperTriggerVolume volume = iterator.next();
+            if (volume.level != level || !volume.contains(x, y, z)) {
+                iterator.remove();
+                volume.players.remove(this.player);
+                if (left == null) {
+                    left = new ArrayList<>();
+                }
+                left.add(volume);
+            }
+        }
+        List<PaperTriggerVolume> entered = this.enter(index.getCandidates(x, z), null, x, y, z);
+        entered = this.enter(index.getLargeVolumes(), entered, x, y, z);
+
+        if (left != null) {
+            for (final PaperTriggerVolume volume : left) {
+                volume.leave(this.player);
+            }
+        }
+        if (entered != null) {
+            for (final PaperTriggerVolume volume : entered) {
+                // a handler may have unregistered the volume already
+                if (volume.players.contains(this.player)) {
+                    volume.enter(this.player);
+                }
+            }
+        }
+    }
+
+    private @Nullable List<PaperTriggerVolume> enter(final List<PaperTriggerVolume> candidates, @Nullable List<PaperTriggerVolume> entered, final double x, final double y, final double z) {
+        for (int i = 0, len = candidates.size(); i < len; i++) {
+            final PaperTriggerVolume volume = candidates.get(i);
+            if (volume.contains(x, y, z) && !this.inside.contains(volume)) {
+                this.inside.add(volume);
+                volume.players.add(this.player);
+                if (entered == null) {
+                    entered = new ArrayList<>();
+                }
+                entered.add(volume);
+            }
+        }
+        return entered;
+    }
+
+    /**
+     * Leaves all volumes, used when the player is removed from the server.
+     */
+    public void leaveAll() {
+        if (this.inside.isEmpty()) {
+            return;
+        }
+        final List<PaperTriggerVolume> left = new ArrayList<>(this.inside);
+        this.inside.clear();
+        this.lastLevel = null;
+        for (final PaperTriggerVolume volume : left) {
+            volume.players.remove(this.player);
+        }
+        for (final PaperTriggerVolume volume : left) {
+            volume.leave(this.player);
+        }
+    }
+
+    void forget(final PaperTriggerVolume volume) {
+        this.inside.remove(volume);
+    }
+}
@@ -0,0 +1,136 @@
+package io.papermc.paper.world.trigger;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+import org.bukkit.plugin.Plugin;
+import org.jspecify.annotations.NullMarked;
+
+/**
+ * Index of the trigger volumes of a level by the 64x64 block cells they overlap.
+ * <p>
+ * Volumes overlapping more than {@link #MAX_CELLS} cells are not put into cells but are tested for every position
+ * instead, so huge volumes can not fill the index. The index must only be used from the thread ticking the level.
+ */
+@NullMarked
+public final class TriggerVolumeIndex {
+
+    private static final int CELL_SHIFT = 6;
+    private static final int MAX_CELLS = 256;
+
+    private final ReferenceLinkedOpenHashSet<PaperTriggerVolume> volumes = new ReferenceLinkedOpenHashSet<>();
+    private final Long2ObjectOpenHashMap<ReferenceArrayList<PaperTriggerVolume>> cells = new Long2ObjectOpenHashMap<>();
+    private final ReferenceArrayList<PaperTriggerVolume> large = new ReferenceArrayList<>();
+    private int modCount;
+
+    public void add(final PaperTriggerVolume volume) {
+        if (!this.volumes.add(volume)) {
+            return;
+        }
+        this.modCount++;
+        final int minX = Mth.floor(volume.minX()) >> CELL_SHIFT;
+        final int minZ = Mth.floor(volume.minZ()) >> CELL_SHIFT;
+        final int maxX = Mth.floor(volume.maxX()) >> CELL_SHIFT;
+        final int maxZ = Mth.floor(volume.maxZ()) >> CELL_SHIFT;
+        if ((long) (maxX - minX + 1) * (long) (maxZ - minZ + 1) > MAX_CELLS) {
+            this.large.add(volume);
+            return;
+        }
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                this.cells.computeIfAbsent(ChunkPos.asLong(x, z), key -> new ReferenceArrayList<>()).add(volume);
+            }
+        }
+    }
+
+    /**
+     * Removes a volume from the index, the players inside it leave it.
+     */
+    public void remove(final PaperTriggerVolume volume) {
+        if (!this.volumes.remove(volume)) {
+            return;
+        }
+        this.modCount++;
+        volume.registered = false;
+        if (!this.large.remove(volume)) {
+            final int minX = Mth.floor(volume.minX()) >> CELL_SHIFT;
+            final int minZ = Mth.floor(volume.minZ()) >> CELL_SHIFT;
+            final int maxX = Mth.floor(volume.maxX()) >> CELL_SHIFT;
+            final int maxZ = Mth.floor(volume.maxZ()) >> CELL_SHIFT;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    final long key = ChunkPos.asLong(x, z);
+                    final ReferenceArrayList<PaperTriggerVolume> cell = this.cells.get(key);
+                    if (cell != null && cell.remove(volume) && cell.isEmpty()) {
+                        this.cells.remove(key);
+                    }
+                }
+            }
+        }
+
+        final List<ServerPlayer> inside = new ArrayList<>(volume.players);
+        volume.players.clear();
+        for (final ServerPlayer player : inside) {
+            player.triggerVolumes.forget(volume);
+            volume.leave(player);
+        }
+    }
+
+    public void removeAll(final Plugin plugin) {
+        final List<PaperTriggerVolume> toRemove = new ArrayList<>();
+        for (final PaperTriggerVolume volume : this.volumes) {
+            if (volume.getPlugin() == plugin) {
+                toRemove.add(volume);
+            }
+        }
+        toRemove.forEach(this::remove);
+    }
+
+    public boolean isEmpty() {
+        return this.volumes.isEmpty();
+    }
+
+    /**
+     * {@return a number changing whenever volumes are added or removed}
+     */
+    public int modCount() {
+        return this.modCount;
+    }
+
+    public List<PaperTriggerVolume> getVolumes() {
+        return new ArrayList<>(this.volumes);
+    }
+
+    /**
+     * Returns the volumes which may contain the given position, callers still have to check the exact bounds. The
+     * returned list must not be modified.
+     */
+    List<PaperTriggerVolume> getCandidates(final double x, final double z) {
+        final ReferenceArrayList<PaperTriggerVolume> cell = this.cells.get(ChunkPos.asLong(Mth.floor(x) >> CELL_SHIFT, Mth.floor(z) >> CELL_SHIFT));
+        return cell == null ? List.of() : cell;
+    }
+
+    List<PaperTriggerVolume> getLargeVolumes() {
+        return this.large;
+    }
+
+    public List<PaperTriggerVolume> getVolumesAt(final double x, final double y, final double z) {
+        final List<PaperTriggerVolume> volumes = new ArrayList<>();
+        for (final PaperTriggerVolume volume : this.getCandidates(x, z)) {
+            if (volume.contains(x, y, z)) {
+                volumes.add(volume);
+            }
+        }
+        for (final PaperTriggerVolume volume : this.large) {
+            if (volume.contains(x, y, z)) {
+                volumes.add(volume);
+            }
+        }
+        return volumes;
+    }
+}
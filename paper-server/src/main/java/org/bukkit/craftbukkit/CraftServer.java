@@ -619,6 +619,7 @@ public final class CraftServer implements Server {
 
     public void syncCommands() {
         Commands dispatcher = this.getHandle().getServer().getCommands(); // Paper - We now register directly to the dispatcher.
+        dispatcher.commandTreeCache.clear(); // Paper - cache command trees
 
         // Refresh commands
         for (ServerPlayer player : this.getHandle().players) {
@@ -683,21 +684,31 @@ public final class CraftServer implements Server {
             return found;
         }
 
-        String lowerName = name.toLowerCase(Locale.ROOT);
         int delta = Integer.MAX_VALUE;
-        for (Player player : this.getOnlinePlayers()) {
-            if (player.getName().toLowerCase(Locale.ROOT).startsWith(lowerName)) {
-                int curDelta = Math.abs(player.getName().length() - lowerName.length());
-                if (curDelta < delta) {
-                    found = player;
-                    delta = curDelta;
-                }
-                if (curDelta == 0) break;
+        for (ServerPlayer player : this.playerList.getPlayersByNamePrefix(name)) { // Paper - prefix-indexed player name lookup
+            int curDelta = Math.abs(player.getScoreboardName().length() - name.length());
+            if (curDelta < delta) {
+                found = player.getBukkitEntity();
+                delta = curDelta;
             }
+            if (curDelta == 0) break;
         }
         return found;
     }
 
+    // Paper start - prefix-indexed player name lookup
+    @Override
+    public List<Player> getOnlinePlayersByNamePrefix(final String prefix) {
+        Preconditions.checkArgument(prefix != null, "prefix cannot be null");
+
+        final List<Player> players = new ArrayList<>();
+        for (final ServerPlayer player : this.playerList.getPlayersByNamePrefix(prefix)) {
+            players.add(player.getBukkitEntity());
+        }
+        return players;
+    }
+    // Paper end - prefix-indexed player name lookup
+
     @Override
     @Deprecated
     public Player getPlayerExact(String name) {
@@ -725,6 +736,13 @@ public final class CraftServer implements Server {
         Preconditions.checkArgument(partialName != null, "partialName cannot be null");
 
         List<Player> matchedPlayers = new ArrayList<>();
+        // Paper start - prefix-indexed player name lookup
+        Player exact = this.getPlayerExact(partialName);
+        if (exact != null) {
+            matchedPlayers.add(exact);
+            return matchedPlayers;
+        }
+        // Paper end - prefix-indexed player name lookup
 
         for (Player iterPlayer : this.getOnlinePlayers()) {
             String iterPlayerName = iterPlayer.getName();
@@ -754,6 +772,7 @@ public final class CraftServer implements Server {
         Preconditions.checkArgument(maxPlayers >= 0, "maxPlayers must be >= 0");
 
         this.playerList.maxPlayers = maxPlayers;
+        io.papermc.paper.network.StatusResponseCache.INSTANCE.invalidate(); // Paper - cache server list ping responses
     }
 
     // NOTE: These are dependent on the corresponding call in MinecraftServer
@@ -1374,6 +1393,11 @@ public final class CraftServer implements Server {
         if (this.console.options.has("forceUpgrade")) {
             net.minecraft.server.Main.forceUpgrade(levelStorageAccess, primaryLevelData, DataFixers.getDataFixer(), this.console.options.has("eraseCache"), () -> true, registryAccess, this.console.options.has("recreateRegionFiles"));
         }
+        // Paper start - dictionary region compression
+        if (this.console.options.has("recompressRegionFiles")) {
+            io.papermc.paper.world.storage.RegionRecompressor.recompress(levelStorageAccess);
+        }
+        // Paper end - dictionary region compression
 
         long i = BiomeManager.obfuscateSeed(primaryLevelData.worldGenOptions().seed());
         List<CustomSpawner> list = ImmutableList.of(
@@ -2471,6 +2495,7 @@ public final class CraftServer implements Server {
     @Override
     public void motd(final net.kyori.adventure.text.Component motd) {
         this.console.motd(motd);
+        io.papermc.paper.network.StatusResponseCache.INSTANCE.invalidate(); // Paper - cache server list ping responses
     }
 
     @Override
@@ -2481,6 +2506,7 @@ public final class CraftServer implements Server {
     @Override
     public void setMotd(String motd) {
         this.console.setMotd(motd);
+        io.papermc.paper.network.StatusResponseCache.INSTANCE.invalidate(); // Paper - cache server list ping responses
     }
 
     @Override
@@ -2586,6 +2612,13 @@ public final class CraftServer implements Server {
         this.getLogger().log(Level.WARNING, "A manual (plugin-induced) save has been detected while server is configured to auto-save. This may affect performance.", this.warningState == WarningState.ON ? new Throwable() : null);
     }
 
+    // Paper start - cache server list ping responses
+    @Override
+    public void invalidateServerListPingCache() {
+        io.papermc.paper.network.StatusResponseCache.INSTANCE.invalidate();
+    }
+    // Paper end - cache server list ping responses
+
     @Override
     public CraftIconCache getServerIcon() {
         return this.icon;
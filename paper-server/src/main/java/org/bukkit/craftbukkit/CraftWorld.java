@@ -283,6 +283,36 @@ public class CraftWorld extends CraftRegionAccessor implements World {
         ).isValid();
     }
     // Paper end
+    // Paper start - trigger volumes
+    @Override
+    public io.papermc.paper.world.trigger.TriggerVolume registerTriggerVolume(final Plugin plugin, final BoundingBox boundingBox, final io.papermc.paper.world.trigger.TriggerVolume.Handler handler) {
+        Preconditions.checkArgument(plugin != null, "null plugin");
+        Preconditions.checkArgument(plugin.isEnabled(), "plugin is not enabled");
+        Preconditions.checkArgument(boundingBox != null, "null bounding box");
+        Preconditions.checkArgument(handler != null, "null handler");
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "register trigger volume"); // Paper - parallel world ticking
+        final io.papermc.paper.world.trigger.PaperTriggerVolume volume = new io.papermc.paper.world.trigger.PaperTriggerVolume(this.world, plugin, boundingBox, handler);
+        this.world.triggerVolumes.add(volume);
+        return volume;
+    }
+
+    @Override
+    public Collection<io.papermc.paper.world.trigger.TriggerVolume> getTriggerVolumes() {
+        return Collections.unmodifiableList(this.world.triggerVolumes.getVolumes());
+    }
+
+    @Override
+    public Collection<io.papermc.paper.world.trigger.TriggerVolume> getTriggerVolumesAt(final double x, final double y, final double z) {
+        return Collections.unmodifiableList(this.world.triggerVolumes.getVolumesAt(x, y, z));
+    }
+
+    @Override
+    public void removePluginTriggerVolumes(final Plugin plugin) {
+        Preconditions.checkArgument(plugin != null, "null plugin");
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "remove trigger volumes"); // Paper - parallel world ticking
+        this.world.triggerVolumes.removeAll(plugin);
+    }
+    // Paper end - trigger volumes
 
     private static final Random rand = new Random();
 
@@ -447,7 +477,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
 
     @Override
     public boolean unloadChunkRequest(int x, int z) {
-        org.spigotmc.AsyncCatcher.catchOp("chunk unload"); // Spigot
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "chunk unload"); // Spigot // Paper - parallel world ticking
         if (this.isChunkLoaded(x, z)) {
             this.world.getChunkSource().removeTicketWithRadius(TicketType.PLUGIN, new ChunkPos(x, z), 1);
         }
@@ -456,7 +486,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
     }
 
     private boolean unloadChunk0(int x, int z, boolean save) {
-        org.spigotmc.AsyncCatcher.catchOp("chunk unload"); // Spigot
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "chunk unload"); // Spigot // Paper - parallel world ticking
         if (!this.isChunkLoaded(x, z)) {
             return true;
         }
@@ -523,7 +553,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
 
     @Override
     public boolean loadChunk(int x, int z, boolean generate) {
-        org.spigotmc.AsyncCatcher.catchOp("chunk load"); // Spigot
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "chunk load"); // Spigot // Paper - parallel world ticking
         warnUnsafeChunk("loading a faraway chunk", x, z); // Paper
         ChunkAccess chunk = this.world.getChunkSource().getChunk(x, z, generate || isChunkGenerated(x, z) ? ChunkStatus.FULL : ChunkStatus.EMPTY, true); // Paper
 
@@ -1062,7 +1092,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
 
     @Override
     public Collection<Entity> getNearbyEntities(BoundingBox boundingBox, Predicate<? super Entity> filter) {
-        org.spigotmc.AsyncCatcher.catchOp("getNearbyEntities"); // Spigot
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "getNearbyEntities"); // Spigot // Paper - parallel world ticking
         Preconditions.checkArgument(boundingBox != null, "BoundingBox cannot be null");
 
         AABB bb = new AABB(boundingBox.getMinX(), boundingBox.getMinY(), boundingBox.getMinZ(), boundingBox.getMaxX(), boundingBox.getMaxY(), boundingBox.getMaxZ());
@@ -1266,7 +1296,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
 
     @Override
     public void save(boolean flush) {
-        org.spigotmc.AsyncCatcher.catchOp("world save"); // Spigot
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "world save"); // Spigot // Paper - parallel world ticking
         this.server.checkSaveState();
         boolean oldSave = this.world.noSave;
 
@@ -1862,7 +1892,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
 
     @Override
     public void playSound(Location loc, Sound sound, org.bukkit.SoundCategory category, float volume, float pitch, long seed) {
-        org.spigotmc.AsyncCatcher.catchOp("play sound"); // Paper
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "play sound"); // Paper - parallel world ticking
         if (loc == null || sound == null || category == null) return;
 
         double x = loc.getX();
@@ -1874,7 +1904,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
 
     @Override
     public void playSound(Location loc, String sound, org.bukkit.SoundCategory category, float volume, float pitch, long seed) {
-        org.spigotmc.AsyncCatcher.catchOp("play sound"); // Paper
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "play sound"); // Paper - parallel world ticking
         if (loc == null || sound == null || category == null) return;
 
         double x = loc.getX();
@@ -1907,7 +1937,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
 
     @Override
     public void playSound(Entity entity, Sound sound, org.bukkit.SoundCategory category, float volume, float pitch, long seed) {
-        org.spigotmc.AsyncCatcher.catchOp("play sound"); // Paper
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "play sound"); // Paper - parallel world ticking
         if (!(entity instanceof CraftEntity craftEntity) || entity.getWorld() != this || sound == null || category == null) return;
 
         ClientboundSoundEntityPacket packet = new ClientboundSoundEntityPacket(CraftSound.bukkitToMinecraftHolder(sound), net.minecraft.sounds.SoundSource.valueOf(category.name()), craftEntity.getHandle(), volume, pitch, seed);
@@ -1919,7 +1949,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
     // Paper start - Adventure
     @Override
     public void playSound(final net.kyori.adventure.sound.Sound sound) {
-        org.spigotmc.AsyncCatcher.catchOp("play sound"); // Paper
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "play sound"); // Paper - parallel world ticking
         final long seed = sound.seed().orElseGet(this.world.getRandom()::nextLong);
         for (ServerPlayer player : this.getHandle().players()) {
             player.connection.send(io.papermc.paper.adventure.PaperAdventure.asSoundPacket(sound, player.getX(), player.getY(), player.getZ(), seed, null));
@@ -1928,7 +1958,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
 
     @Override
     public void playSound(Entity entity, String sound, org.bukkit.SoundCategory category, float volume, float pitch, long seed) {
-        org.spigotmc.AsyncCatcher.catchOp("play sound"); // Paper
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "play sound"); // Paper - parallel world ticking
         if (!(entity instanceof CraftEntity craftEntity) || entity.getWorld() != this || sound == null || category == null) return;
 
         ClientboundSoundEntityPacket packet = new ClientboundSoundEntityPacket(Holder.direct(SoundEvent.createVariableRangeEvent(ResourceLocation.parse(sound))), net.minecraft.sounds.SoundSource.valueOf(category.name()), craftEntity.getHandle(), volume, pitch, seed);
@@ -1940,13 +1970,13 @@ public class CraftWorld extends CraftRegionAccessor implements World {
 
     @Override
     public void playSound(final net.kyori.adventure.sound.Sound sound, final double x, final double y, final double z) {
-        org.spigotmc.AsyncCatcher.catchOp("play sound"); // Paper
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "play sound"); // Paper - parallel world ticking
         io.papermc.paper.adventure.PaperAdventure.asSoundPacket(sound, x, y, z, sound.seed().orElseGet(this.world.getRandom()::nextLong), this.playSound0(x, y, z));
     }
 
     @Override
     public void playSound(final net.kyori.adventure.sound.Sound sound, final net.kyori.adventure.sound.Sound.Emitter emitter) {
-        org.spigotmc.AsyncCatcher.catchOp("play sound"); // Paper
+        org.spigotmc.AsyncCatcher.catchOp(this.world, "play sound"); // Paper - parallel world ticking
         final long seed = sound.seed().orElseGet(this.getHandle().getRandom()::nextLong);
         if (emitter == net.kyori.adventure.sound.Sound.Emitter.self()) {
             for (ServerPlayer player : this.getHandle().players()) {
@@ -2179,7 +2209,7 @@ public class CraftWorld extends CraftRegionAccessor implements World {
             Preconditions.checkArgument(particle.getDataType().isInstance(data), "data (%s) should be %s", data.getClass(), particle.getDataType());
         }
         this.getHandle().sendParticlesSource(
-                receivers == null ? this.getHandle().players() : receivers.stream().map(player -> ((CraftPlayer) player).getHandle()).collect(java.util.stream.Collectors.toList()), // Paper -  Particle API
+                receivers == null ? this.getHandle().getParticleReceivers(x, z, force) : receivers.stream().map(player -> ((CraftPlayer) player).getHandle()).collect(java.util.stream.Collectors.toList()), // Paper -  Particle API, spatial player index
                 sender != null ? ((CraftPlayer) sender).getHandle() : null, // Sender // Paper - Particle API
                 CraftParticle.createParticleParam(particle, data), // Particle
                 force,
@@ -231,22 +231,22 @@ public class CraftHumanEntity extends CraftLivingEntity implements HumanEntity {
 
     @Override
     public boolean isPermissionSet(String name) {
-        return this.perm.isPermissionSet(name);
+        return io.papermc.paper.command.brigadier.CommandTreeCache.record(this, io.papermc.paper.command.brigadier.CommandTreeCache.CheckType.IS_PERMISSION_SET, name, this.perm.isPermissionSet(name)); // Paper - cache command trees
     }
 
     @Override
     public boolean isPermissionSet(Permission perm) {
-        return this.perm.isPermissionSet(perm);
+        return io.papermc.paper.command.brigadier.CommandTreeCache.record(this, io.papermc.paper.command.brigadier.CommandTreeCache.CheckType.IS_PERMISSION_SET, perm, this.perm.isPermissionSet(perm)); // Paper - cache command trees
     }
 
     @Override
     public boolean hasPermission(String name) {
-        return this.perm.hasPermission(name);
+        return io.papermc.paper.command.brigadier.CommandTreeCache.record(this, io.papermc.paper.command.brigadier.CommandTreeCache.CheckType.HAS_PERMISSION, name, this.perm.hasPermission(name)); // Paper - cache command trees
     }
 
     @Override
     public boolean hasPermission(Permission perm) {
-        return this.perm.hasPermission(perm);
+        return io.papermc.paper.command.brigadier.CommandTreeCache.record(this, io.papermc.paper.command.brigadier.CommandTreeCache.CheckType.HAS_PERMISSION, perm, this.perm.hasPermission(perm)); // Paper - cache command trees
     }
 
     @Override
@@ -557,7 +557,7 @@ public class CraftHumanEntity extends CraftLivingEntity implements HumanEntity {
     }
 
     private InventoryView openInventory(Location location, boolean force, Material material) {
-        org.spigotmc.AsyncCatcher.catchOp("open" + material);
+        org.spigotmc.AsyncCatcher.catchOp(this.getHandle().level(), "open" + material); // Paper - parallel world ticking
         if (location == null) {
             location = this.getLocation();
         }
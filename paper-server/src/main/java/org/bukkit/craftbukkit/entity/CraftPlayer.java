@@ -1488,7 +1488,12 @@ public class CraftPlayer extends CraftHumanEntity implements Player {
         } else {
             entity.portalProcess = null; // SPIGOT-7785: there is no need to carry this over as it contains the old world/location and we might run into trouble if there is a portal in the same spot in both worlds
             // The respawn reason should never be used if the passed location is non null.
+            // Paper start - parallel world ticking; changing levels is deferred until all levels are ticked, the teleport still succeeds
+            final Location destination = to;
+            if (!io.papermc.paper.world.ParallelWorldTicker.defer(() -> this.server.getHandle().respawn(entity, true, Entity.RemovalReason.CHANGED_DIMENSION, null, destination))) {
             this.server.getHandle().respawn(entity, true, Entity.RemovalReason.CHANGED_DIMENSION, null, to);
+            }
+            // Paper end - parallel world ticking
         }
         return true;
     }
@@ -3458,19 +3463,19 @@ public class CraftPlayer extends CraftHumanEntity implements Player {
     // Paper start - Add chunk view API
     @Override
     public Set<java.lang.Long> getSentChunkKeys() {
-        org.spigotmc.AsyncCatcher.catchOp("accessing sent chunks");
+        org.spigotmc.AsyncCatcher.catchOp(this.getHandle().level(), "accessing sent chunks"); // Paper - parallel world ticking
         return FeatureHooks.getSentChunkKeys(this.getHandle());
     }
 
     @Override
     public Set<org.bukkit.Chunk> getSentChunks() {
-        org.spigotmc.AsyncCatcher.catchOp("accessing sent chunks");
+        org.spigotmc.AsyncCatcher.catchOp(this.getHandle().level(), "accessing sent chunks"); // Paper - parallel world ticking
         return FeatureHooks.getSentChunks(this.getHandle());
     }
 
     @Override
     public boolean isChunkSent(final long chunkKey) {
-        org.spigotmc.AsyncCatcher.catchOp("accessing sent chunks");
+        org.spigotmc.AsyncCatcher.catchOp(this.getHandle().level(), "accessing sent chunks"); // Paper - parallel world ticking
         return FeatureHooks.isChunkSent(this.getHandle(), chunkKey);
     }
     // Paper end
@@ -797,6 +797,11 @@ public class CraftEventFactory {
     }
 
     public static boolean handleMoistureChangeEvent(Level world, BlockPos pos, net.minecraft.world.level.block.state.BlockState state, int flags) {
+        if (!MoistureChangeEvent.getHandlerList().hasListeners()) {
+            world.setBlock(pos, state, flags);
+            return true;
+        }
+
         CraftBlockState snapshot = CraftBlockStates.getBlockState(world, pos);
         snapshot.setData(state);
 
@@ -808,7 +813,7 @@ public class CraftEventFactory {
         return false;
     }
 
-    public static BlockPos sourceBlockOverride = null; // SPIGOT-7068: Add source block override, not the most elegant way but better than passing down a BlockPos up to five methods deep.
+    // Paper - parallel world ticking - move source block override to Level
 
     public static boolean handleBlockSpreadEvent(LevelAccessor world, BlockPos source, BlockPos target, net.minecraft.world.level.block.state.BlockState state, int flags) {
         return handleBlockSpreadEvent(world, source, target, state, flags, false);
@@ -816,7 +821,7 @@ public class CraftEventFactory {
 
     public static boolean handleBlockSpreadEvent(LevelAccessor world, BlockPos source, BlockPos target, net.minecraft.world.level.block.state.BlockState state, int flags, boolean checkSetResult) {
         // Suppress during worldgen
-        if (!(world instanceof Level)) {
+        if (!(world instanceof Level) || !BlockSpreadEvent.getHandlerList().hasListeners()) {
             boolean result = world.setBlock(target, state, flags);
             return !checkSetResult || result;
         }
@@ -824,7 +829,8 @@ public class CraftEventFactory {
         CraftBlockState snapshot = CraftBlockStates.getBlockState(world, target);
         snapshot.setData(state);
 
-        BlockSpreadEvent event = new BlockSpreadEvent(snapshot.getBlock(), CraftBlock.at(world, CraftEventFactory.sourceBlockOverride != null ? CraftEventFactory.sourceBlockOverride : source), snapshot);
+        BlockPos sourceBlockOverride = ((Level) world).sourceBlockOverride; // Paper - parallel world ticking
+        BlockSpreadEvent event = new BlockSpreadEvent(snapshot.getBlock(), CraftBlock.at(world, sourceBlockOverride != null ? sourceBlockOverride : source), snapshot);
         if (event.callEvent()) {
             boolean result = snapshot.place(flags);
             return !checkSetResult || result;
@@ -1167,6 +1173,11 @@ public class CraftEventFactory {
     // Paper end
 
     public static boolean handleBlockGrowEvent(Level world, BlockPos pos, net.minecraft.world.level.block.state.BlockState state, int flags) {
+        if (!BlockGrowEvent.getHandlerList().hasListeners()) {
+            world.setBlock(pos, state, flags);
+            return true;
+        }
+
         CraftBlockState snapshot = CraftBlockStates.getBlockState(world, pos);
         snapshot.setData(state);
 
@@ -1220,6 +1231,10 @@ public class CraftEventFactory {
     }
 
     public static boolean callEntityChangeBlockEvent(Entity entity, BlockPos pos, net.minecraft.world.level.block.state.BlockState newState, boolean cancelled) {
+        if (!EntityChangeBlockEvent.getHandlerList().hasListeners()) {
+            return !cancelled;
+        }
+
         Block block = CraftBlock.at(entity.level(), pos);
 
         EntityChangeBlockEvent event = new EntityChangeBlockEvent(entity.getBukkitEntity(), block, CraftBlockData.fromData(newState));
@@ -1741,6 +1756,12 @@ public class CraftEventFactory {
     }
 
     public static boolean handleBlockFormEvent(Level world, BlockPos pos, net.minecraft.world.level.block.state.BlockState state, int flags, @Nullable Entity entity, boolean checkSetResult) {
+        // EntityBlockFormEvent shares the handler list
+        if (!BlockFormEvent.getHandlerList().hasListeners()) {
+            boolean result = world.setBlock(pos, state, flags);
+            return !checkSetResult || result;
+        }
+
         CraftBlockState snapshot = CraftBlockStates.getBlockState(world, pos);
         snapshot.setData(state);
 
@@ -1849,12 +1870,20 @@ public class CraftEventFactory {
     }
 
     public static void callEntitiesLoadEvent(Level world, ChunkPos coords, List<Entity> entities) {
+        if (!EntitiesLoadEvent.getHandlerList().hasListeners()) {
+            return;
+        }
+
         List<org.bukkit.entity.Entity> bukkitEntities = Collections.unmodifiableList(entities.stream().map(Entity::getBukkitEntity).collect(Collectors.toList()));
         EntitiesLoadEvent event = new EntitiesLoadEvent(new CraftChunk((ServerLevel) world, coords.x, coords.z), bukkitEntities);
         Bukkit.getPluginManager().callEvent(event);
     }
 
     public static void callEntitiesUnloadEvent(Level world, ChunkPos coords, List<Entity> entities) {
+        if (!EntitiesUnloadEvent.getHandlerList().hasListeners()) {
+            return;
+        }
+
         List<org.bukkit.entity.Entity> bukkitEntities = Collections.unmodifiableList(entities.stream().map(Entity::getBukkitEntity).collect(Collectors.toList()));
         EntitiesUnloadEvent event = new EntitiesUnloadEvent(new CraftChunk((ServerLevel) world, coords.x, coords.z), bukkitEntities);
         Bukkit.getPluginManager().callEvent(event);
@@ -1961,6 +1990,10 @@ public class CraftEventFactory {
             return;
         }
 
+        if (!EntityRemoveEvent.getHandlerList().hasListeners()) {
+            return;
+        }
+
         Bukkit.getPluginManager().callEvent(new EntityRemoveEvent(entity.getBukkitEntity(), cause));
     }
 
@@ -25,11 +25,9 @@ package org.bukkit.craftbukkit.scheduler;
 
 import com.destroystokyo.paper.ServerSchedulerReportingWrapper;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.papermc.paper.util.concurrent.PluginTaskExecutor;
 import org.bukkit.plugin.Plugin;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.SynchronousQueue;
@@ -41,9 +39,9 @@ public class CraftAsyncScheduler extends CraftScheduler {
     private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
             4, Integer.MAX_VALUE,30L, TimeUnit.SECONDS, new SynchronousQueue<>(),
             new ThreadFactoryBuilder().setNameFormat("Craft Scheduler Thread - %1$d").build());
+    private final PluginTaskExecutor taskExecutor = new PluginTaskExecutor(this.executor, "Craft Scheduler Virtual Thread - "); // Paper - virtual threads and per-plugin limits
     private final Executor management = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
             .setNameFormat("Craft Async Scheduler Management Thread").build());
-    private final List<CraftTask> temp = new ArrayList<>();
 
     CraftAsyncScheduler() {
         super(true);
@@ -58,13 +56,10 @@ public class CraftAsyncScheduler extends CraftScheduler {
 
     private synchronized void removeTask(int taskId) {
         parsePending();
-        this.pending.removeIf((task) -> {
-            if (task.getTaskId() == taskId) {
-                task.cancel0();
-                return true;
-            }
-            return false;
-        });
+        final CraftTask task = this.runners.get(taskId);
+        if (task != null && this.pending.remove(task)) {
+            task.cancel0();
+        }
     }
 
     @Override
@@ -74,41 +69,55 @@ public class CraftAsyncScheduler extends CraftScheduler {
     }
 
     private synchronized void runTasks(int currentTick) {
+        final long start = System.nanoTime();
+        int tasksStarted = 0;
         parsePending();
-        while (!this.pending.isEmpty() && this.pending.peek().getNextRun() <= currentTick) {
-            CraftTask task = this.pending.remove();
+        this.pending.advanceTo(currentTick);
+        while (this.pending.isReady()) {
+            CraftTask task = this.pending.poll();
             if (executeTask(task)) {
+                tasksStarted++;
                 final long period = task.getPeriod();
                 if (period > 0) {
                     task.setNextRun(currentTick + period);
-                    temp.add(task);
+                    this.pending.add(task);
                 }
             }
             parsePending();
         }
-        this.pending.addAll(temp);
-        temp.clear();
+        recordTick(tasksStarted, System.nanoTime() - start);
     }
 
     private boolean executeTask(CraftTask task) {
         if (isValid(task)) {
             this.runners.put(task.getTaskId(), task);
-            this.executor.execute(new ServerSchedulerReportingWrapper(task));
+            this.taskExecutor.execute(task.getOwner(), new ServerSchedulerReportingWrapper(task)); // Paper - virtual threads and per-plugin limits
             return true;
         }
         return false;
     }
 
+    // Paper start - virtual threads and per-plugin limits
+    public PluginTaskExecutor getTaskExecutor() {
+        return this.taskExecutor;
+    }
+    // Paper end - virtual threads and per-plugin limits
+
     @Override
     public synchronized void cancelTasks(Plugin plugin) {
         parsePending();
-        for (Iterator<CraftTask> iterator = this.pending.iterator(); iterator.hasNext(); ) {
-            CraftTask task = iterator.next();
+        this.pending.removeIf(task -> {
             if (task.getTaskId() != -1 && (plugin == null || task.getOwner().equals(plugin))) {
                 task.cancel0();
-                iterator.remove();
+                return true;
             }
+            return false;
+        });
+        // Paper start - virtual threads and per-plugin limits
+        if (plugin != null && !plugin.isEnabled()) {
+            this.taskExecutor.removePlugin(plugin);
         }
+        // Paper end - virtual threads and per-plugin limits
     }
 
     /**
@@ -53,6 +53,7 @@ class CraftAsyncTask extends CraftTask {
                 });
         }
         Throwable thrown = null;
+        final io.papermc.paper.jfr.PluginTaskEvent taskEvent = io.papermc.paper.jfr.PluginTaskEvent.start(); // Paper - JFR events
         try {
             super.run();
         } catch (final Throwable t) {
@@ -65,6 +66,7 @@ class CraftAsyncTask extends CraftTask {
                         this.getTaskId()),
                     thrown);
         } finally {
+            taskEvent.commit(this.getOwner(), this.getTaskId(), this.getTaskClass(), false); // Paper - JFR events
             // Cleanup is important for any async task, otherwise ghost tasks are everywhere
             synchronized (this.workers) {
                 try {
@@ -3,10 +3,7 @@ package org.bukkit.craftbukkit.scheduler;
 import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
@@ -28,8 +25,8 @@ import org.bukkit.scheduler.BukkitWorker;
  * The fundamental concepts for this implementation:
  * <ul>
  * <li>Main thread owns {@link #head} and {@link #currentTick}, but it may be read from any thread</li>
- * <li>Main thread exclusively controls {@link #temp} and {@link #pending}.
- *     They are never to be accessed outside of the main thread; alternatives exist to prevent locking.</li>
+ * <li>Main thread exclusively controls {@link #pending}, a timing wheel ordering the tasks by their next run tick.
+ *     It is never to be accessed outside of the main thread; alternatives exist to prevent locking.</li>
  * <li>{@link #head} to {@link #tail} act as a linked list/queue, with 1 consumer and infinite producers.
  *     Adding to the tail is atomic and very efficient; utility method is {@link #handle(CraftTask, long)} or {@link #addTask(CraftTask)}. </li>
  * <li>Changing the period on a task is delicate.
@@ -39,7 +36,8 @@ import org.bukkit.scheduler.BukkitWorker;
  * <li>{@link #runners} provides a moderately up-to-date view of active tasks.
  *     If the linked head to tail set is read, all remaining tasks that were active at the time execution started will be located in runners.</li>
  * <li>Async tasks are responsible for removing themselves from runners</li>
- * <li>Sync tasks are only to be removed from runners on the main thread when coupled with a removal from pending and temp.</li>
+ * <li>Sync tasks are only to be removed from runners on the main thread when coupled with a removal from the pending wheel.
+ *     Every task in the wheel is also in runners, so a task is removed from the wheel by looking it up by id instead of searching the wheel.</li>
  * <li>Most of the design in this scheduler relies on queuing special tasks to perform any data changes on the main thread.
  *     When executed from inside a synchronous method, the scheduler will be updated before next execution by virtue of the frequent {@link #parsePending()} calls.</li>
  * </ul>
@@ -75,20 +73,7 @@ public class CraftScheduler implements BukkitScheduler {
     /**
      * Main thread logic only
      */
-    final PriorityQueue<CraftTask> pending = new PriorityQueue<CraftTask>(10, // Paper
-            new Comparator<CraftTask>() {
-                @Override
-                public int compare(final CraftTask o1, final CraftTask o2) {
-                    int value = Long.compare(o1.getNextRun(), o2.getNextRun());
-
-                    // If the tasks should run on the same tick they should be run FIFO
-                    return value != 0 ? value : Long.compare(o1.getCreatedAt(), o2.getCreatedAt());
-                }
-            });
-    /**
-     * Main thread logic only
-     */
-    private final List<CraftTask> temp = new ArrayList<CraftTask>();
+    final CraftTaskWheel pending; // Paper - timing wheel scheduler
     /**
      * These are tasks that are currently active. It's provided for 'viewing' the current state.
      */
@@ -98,7 +83,13 @@ public class CraftScheduler implements BukkitScheduler {
      */
     private volatile CraftTask currentTask = null;
     // Paper start - Improved Async Task Scheduler
-    volatile int currentTick = -1;/*
+    volatile int currentTick = -1;
+    // Paper start - scheduler metrics
+    private volatile int lastTickTasksRun;
+    private volatile long lastTickTaskTime;
+    private volatile int queuedTasks;
+    // Paper end - scheduler metrics
+    /*
     private final Executor executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("Craft Scheduler Thread - %d").build());
     private CraftAsyncDebugger debugHead = new CraftAsyncDebugger(-1, null, null) {
         @Override
@@ -125,6 +116,7 @@ public class CraftScheduler implements BukkitScheduler {
 
     public CraftScheduler(boolean isAsync) {
         this.isAsyncScheduler = isAsync;
+        this.pending = new CraftTaskWheel(this.currentTick); // Paper - timing wheel scheduler
         if (isAsync) {
             this.asyncScheduler = this;
         } else {
@@ -273,30 +265,22 @@ public class CraftScheduler implements BukkitScheduler {
         if (task != null) {
             task.cancel0();
         }
+        // Paper start - timing wheel scheduler
         task = new CraftTask(
                 new Runnable() {
                     @Override
                     public void run() {
-                        if (!this.check(CraftScheduler.this.temp)) {
-                            this.check(CraftScheduler.this.pending);
-                        }
-                    }
-                    private boolean check(final Iterable<CraftTask> collection) {
-                        final Iterator<CraftTask> tasks = collection.iterator();
-                        while (tasks.hasNext()) {
-                            final CraftTask task = tasks.next();
-                            if (task.getTaskId() == taskId) {
-                                task.cancel0();
-                                tasks.remove();
-                                if (task.isSync()) {
-                                    CraftScheduler.this.runners.remove(taskId);
-                                }
-                                return true;
+                        // Every pending task is a runner, which allows removing it from the wheel without searching for it
+                        final CraftTask task = CraftScheduler.this.runners.get(taskId);
+                        if (task != null && CraftScheduler.this.pending.remove(task)) {
+                            task.cancel0();
+                            if (task.isSync()) {
+                                CraftScheduler.this.runners.remove(taskId);
                             }
                         }
-                        return false;
                     }
                 });
+        // Paper end - timing wheel scheduler
         this.handle(task, 0L);
         for (CraftTask taskPending = this.head.getNext(); taskPending != null; taskPending = taskPending.getNext()) {
             if (taskPending == task) {
@@ -320,21 +304,16 @@ public class CraftScheduler implements BukkitScheduler {
                 new Runnable() {
                     @Override
                     public void run() {
-                        this.check(CraftScheduler.this.pending);
-                        this.check(CraftScheduler.this.temp);
-                    }
-                    void check(final Iterable<CraftTask> collection) {
-                        final Iterator<CraftTask> tasks = collection.iterator();
-                        while (tasks.hasNext()) {
-                            final CraftTask task = tasks.next();
+                        CraftScheduler.this.pending.removeIf(task -> { // Paper - timing wheel scheduler
                             if (task.getOwner().equals(plugin)) {
                                 task.cancel0();
-                                tasks.remove();
                                 if (task.isSync()) {
                                     CraftScheduler.this.runners.remove(task.getTaskId());
                                 }
+                                return true;
                             }
-                        }
+                            return false;
+                        });
                     }
                 });
         this.handle(task, 0L);
@@ -457,10 +436,12 @@ public class CraftScheduler implements BukkitScheduler {
             this.asyncScheduler.mainThreadHeartbeat();
         }
         // Paper end
-        final List<CraftTask> temp = this.temp;
+        final long start = System.nanoTime(); // Paper - scheduler metrics
+        int tasksRun = 0; // Paper - scheduler metrics
         this.parsePending();
-        while (this.isReady(this.currentTick)) {
-            final CraftTask task = this.pending.remove();
+        this.pending.advanceTo(this.currentTick); // Paper - timing wheel scheduler
+        while (this.pending.isReady()) { // Paper - timing wheel scheduler
+            final CraftTask task = this.pending.poll(); // Paper - timing wheel scheduler
             if (task.getPeriod() < CraftTask.NO_REPEATING) {
                 if (task.isSync()) {
                     this.runners.remove(task.getTaskId(), task);
@@ -470,6 +451,8 @@ public class CraftScheduler implements BukkitScheduler {
             }
             if (task.isSync()) {
                 this.currentTask = task;
+                tasksRun++; // Paper - scheduler metrics
+                final io.papermc.paper.jfr.PluginTaskEvent taskEvent = io.papermc.paper.jfr.PluginTaskEvent.start(); // Paper - JFR events
                 try {
                     task.run();
                 } catch (final Throwable throwable) {
@@ -487,6 +470,7 @@ public class CraftScheduler implements BukkitScheduler {
                     // Paper end
                 } finally {
                     this.currentTask = null;
+                    taskEvent.commit(task.getOwner(), task.getTaskId(), task.getTaskClass(), true); // Paper - JFR events
                 }
                 this.parsePending();
             } else {
@@ -498,16 +482,61 @@ public class CraftScheduler implements BukkitScheduler {
             final long period = task.getPeriod(); // State consistency
             if (period > 0) {
                 task.setNextRun(this.currentTick + period);
-                temp.add(task);
+                this.pending.add(task); // Paper - timing wheel scheduler - can't become ready again this tick
             } else if (task.isSync()) {
                 this.runners.remove(task.getTaskId());
             }
         }
-        this.pending.addAll(temp);
-        temp.clear();
+        this.recordTick(tasksRun, System.nanoTime() - start); // Paper - scheduler metrics
         //this.debugHead = this.debugHead.getNextHead(this.currentTick); // Paper
     }
 
+    // Paper start - scheduler metrics
+    void recordTick(final int tasksRun, final long time) {
+        this.lastTickTasksRun = tasksRun;
+        this.lastTickTaskTime = time;
+        this.queuedTasks = this.pending.size();
+    }
+
+    /**
+     * Gets the scheduler running the async tasks of this scheduler.
+     *
+     * @return the async scheduler, or this scheduler if it is the async scheduler
+     */
+    public CraftScheduler getAsyncScheduler() {
+        return this.asyncScheduler;
+    }
+
+    /**
+     * Gets the number of tasks run during the last tick.
+     * For the async scheduler, this is the number of tasks handed to its workers.
+     *
+     * @return the number of tasks
+     */
+    public int getLastTickTasksRun() {
+        return this.lastTickTasksRun;
+    }
+
+    /**
+     * Gets the time spent running tasks during the last tick.
+     * For the async scheduler, this is the time spent handing tasks to its workers.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getLastTickTaskTime() {
+        return this.lastTickTaskTime;
+    }
+
+    /**
+     * Gets the number of tasks waiting for their next run at the end of the last tick.
+     *
+     * @return the number of tasks
+     */
+    public int getQueuedTaskCount() {
+        return this.queuedTasks;
+    }
+    // Paper end - scheduler metrics
+
     protected void addTask(final CraftTask task) {
         final CraftTask tailTask = this.tail.getAndSet(task);
         tailTask.setNext(task);
@@ -563,10 +592,6 @@ public class CraftScheduler implements BukkitScheduler {
         this.head = lastTask;
     }
 
-    private boolean isReady(final int currentTick) {
-        return !this.pending.isEmpty() && this.pending.peek().getNextRun() <= currentTick;
-    }
-
     @Override
     public String toString() {
         // Paper start
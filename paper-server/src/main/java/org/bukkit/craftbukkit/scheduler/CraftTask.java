@@ -29,6 +29,12 @@ public class CraftTask implements BukkitTask, Runnable { // Spigot
     private final Plugin plugin;
     private final int id;
     private final long createdAt = System.nanoTime();
+    // Paper start - timing wheel scheduler
+    private CraftTask wheelPrev;
+    private CraftTask wheelNext;
+    private int wheelLevel = CraftTaskWheel.NOT_QUEUED;
+    private int wheelSlot;
+    // Paper end - timing wheel scheduler
 
     CraftTask() {
         this(null, null, CraftTask.NO_REPEATING, CraftTask.NO_REPEATING);
@@ -109,6 +115,37 @@ public class CraftTask implements BukkitTask, Runnable { // Spigot
         this.next = next;
     }
 
+    // Paper start - timing wheel scheduler
+    CraftTask getWheelPrev() {
+        return this.wheelPrev;
+    }
+
+    void setWheelPrev(CraftTask wheelPrev) {
+        this.wheelPrev = wheelPrev;
+    }
+
+    CraftTask getWheelNext() {
+        return this.wheelNext;
+    }
+
+    void setWheelNext(CraftTask wheelNext) {
+        this.wheelNext = wheelNext;
+    }
+
+    int getWheelLevel() {
+        return this.wheelLevel;
+    }
+
+    int getWheelSlot() {
+        return this.wheelSlot;
+    }
+
+    void setWheelPosition(int level, int slot) {
+        this.wheelLevel = level;
+        this.wheelSlot = slot;
+    }
+    // Paper end - timing wheel scheduler
+
     Class<?> getTaskClass() {
         return (this.rTask != null) ? this.rTask.getClass() : ((this.cTask != null) ? this.cTask.getClass() : null);
     }
@@ -0,0 +1,175 @@
+package org.bukkit.craftbukkit.scheduler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Hierarchical timing wheel holding the pending tasks of a scheduler, ordered by their next run tick.
+ * <p>
+ * Each level has 64 slots, a slot of level {@code n} covers {@code 64^n} ticks. Tasks are linked into the slot of
+ * the lowest level that still distinguishes their next run tick from the current tick, and cascade down one level
+ * whenever the current tick enters the range of their slot. Adding and removing a task are constant time, advancing
+ * a tick only touches the tasks that cascade or become due.
+ * <p>
+ * Due tasks are moved to a priority queue, so tasks of the same tick keep running in creation order.
+ * Not thread safe, all methods must be called by the thread owning the scheduler.
+ */
+final class CraftTaskWheel {
+
+    static final int NOT_QUEUED = -1;
+    private static final int READY = -2;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << CraftTaskWheel.SLOT_BITS;
+    private static final int SLOT_MASK = CraftTaskWheel.SLOTS - 1;
+    private static final int LEVELS = 6;
+    // Tasks too far in the future for the wheel, checked whenever the top level wraps around
+    private static final int OVERFLOW = CraftTaskWheel.LEVELS;
+
+    private final CraftTask[][] slots = new CraftTask[CraftTaskWheel.LEVELS + 1][CraftTaskWheel.SLOTS];
+    private final PriorityQueue<CraftTask> ready = new PriorityQueue<>(10, Comparator.comparingLong(CraftTask::getNextRun).thenComparingLong(CraftTask::getCreatedAt));
+    private final List<CraftTask> cascading = new ArrayList<>();
+    // Ticks are stored relative to the tick the wheel was created at, which keeps them positive
+    private final long origin;
+    private long tick;
+    private int size;
+
+    CraftTaskWheel(final long currentTick) {
+        this.origin = currentTick;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    void add(final CraftTask task) {
+        final long nextRun = task.getNextRun() - this.origin;
+        if (nextRun <= this.tick) {
+            task.setWheelPosition(CraftTaskWheel.READY, 0);
+            this.ready.add(task);
+            this.size++;
+            return;
+        }
+
+        final int level = (63 - Long.numberOfLeadingZeros(nextRun ^ this.tick)) / CraftTaskWheel.SLOT_BITS;
+        if (level >= CraftTaskWheel.LEVELS) {
+            this.link(task, CraftTaskWheel.OVERFLOW, 0);
+        } else {
+            this.link(task, level, (int) (nextRun >>> (level * CraftTaskWheel.SLOT_BITS)) & CraftTaskWheel.SLOT_MASK);
+        }
+        this.size++;
+    }
+
+    boolean remove(final CraftTask task) {
+        final int level = task.getWheelLevel();
+        if (level == CraftTaskWheel.NOT_QUEUED) {
+            return false;
+        }
+        if (level == CraftTaskWheel.READY) {
+            this.ready.remove(task);
+        } else {
+            this.unlink(task);
+        }
+        task.setWheelPosition(CraftTaskWheel.NOT_QUEUED, 0);
+        this.size--;
+        return true;
+    }
+
+    void removeIf(final Predicate<CraftTask> filter) {
+        this.ready.removeIf(task -> {
+            if (filter.test(task)) {
+                task.setWheelPosition(CraftTaskWheel.NOT_QUEUED, 0);
+                this.size--;
+                return true;
+            }
+            return false;
+        });
+        for (final CraftTask[] level : this.slots) {
+            for (CraftTask head : level) {
+                for (CraftTask task = head, next; task != null; task = next) {
+                    next = task.getWheelNext();
+                    if (filter.test(task)) {
+                        this.remove(task);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel up to the given tick, moving all tasks due by then to the ready queue.
+     */
+    void advanceTo(final long currentTick) {
+        final long target = currentTick - this.origin;
+        while (this.tick < target) {
+            final long tick = ++this.tick;
+            // Cascade the slots of higher levels the new tick entered, from the top so tasks can move down more than one level
+            for (int level = CraftTaskWheel.LEVELS; level > 0; level--) {
+                if ((tick & ((1L << (level * CraftTaskWheel.SLOT_BITS)) - 1)) == 0) {
+                    this.cascade(level, level == CraftTaskWheel.OVERFLOW ? 0 : (int) (tick >>> (level * CraftTaskWheel.SLOT_BITS)) & CraftTaskWheel.SLOT_MASK);
+                }
+            }
+            this.cascade(0, (int) tick & CraftTaskWheel.SLOT_MASK);
+        }
+    }
+
+    private void cascade(final int level, final int slot) {
+        CraftTask task = this.slots[level][slot];
+        if (task == null) {
+            return;
+        }
+        this.slots[level][slot] = null;
+        for (CraftTask next; task != null; task = next) {
+            next = task.getWheelNext();
+            task.setWheelNext(null);
+            task.setWheelPrev(null);
+            this.cascading.add(task);
+        }
+        this.size -= this.cascading.size();
+        for (final CraftTask cascaded : this.cascading) {
+            this.add(cascaded);
+        }
+        this.cascading.clear();
+    }
+
+    boolean isReady() {
+        return !this.ready.isEmpty();
+    }
+
+    CraftTask poll() {
+        final CraftTask task = this.ready.poll();
+        if (task != null) {
+            task.setWheelPosition(CraftTaskWheel.NOT_QUEUED, 0);
+            this.size--;
+        }
+        return task;
+    }
+
+    private void link(final CraftTask task, final int level, final int slot) {
+        final CraftTask head = this.slots[level][slot];
+        task.setWheelPosition(level, slot);
+        task.setWheelPrev(null);
+        task.setWheelNext(head);
+        if (head != null) {
+            head.setWheelPrev(task);
+        }
+        this.slots[level][slot] = task;
+    }
+
+    private void unlink(final CraftTask task) {
+        final CraftTask prev = task.getWheelPrev();
+        final CraftTask next = task.getWheelNext();
+        if (prev == null) {
+            this.slots[task.getWheelLevel()][task.getWheelSlot()] = next;
+        } else {
+            prev.setWheelNext(next);
+        }
+        if (next != null) {
+            next.setWheelPrev(prev);
+        }
+        task.setWheelPrev(null);
+        task.setWheelNext(null);
+    }
+}
@@ -99,6 +99,11 @@ public final class CraftScoreboardManager implements ScoreboardManager {
 
     // CraftBukkit method
     public void forAllObjectives(ObjectiveCriteria criteria, ScoreHolder holder, Consumer<ScoreAccess> consumer) {
+        // Paper start - parallel world ticking; the scoreboards are shared by all levels, update them once all levels are ticked
+        if (io.papermc.paper.world.ParallelWorldTicker.defer(() -> this.forAllObjectives(criteria, holder, consumer))) {
+            return;
+        }
+        // Paper end - parallel world ticking
         for (CraftScoreboard scoreboard : this.scoreboards) {
             scoreboard.getHandle().forAllObjectives(criteria, holder, consumer);
         }
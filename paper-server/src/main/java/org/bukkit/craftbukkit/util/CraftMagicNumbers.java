@@ -83,6 +83,7 @@ public final class CraftMagicNumbers implements UnsafeValues {
     public static final boolean DISABLE_OLD_API_SUPPORT = Boolean.getBoolean("paper.disableOldApiSupport"); // Paper
 
     private final Commodore commodore = new Commodore();
+    private final com.google.common.base.Supplier<io.papermc.paper.pluginremap.ProcessedClassCache> processedClassCache = com.google.common.base.Suppliers.memoize(io.papermc.paper.pluginremap.ProcessedClassCache::create); // Paper - cache processed plugin classes
 
     private CraftMagicNumbers() {}
 
@@ -384,19 +385,29 @@ public final class CraftMagicNumbers implements UnsafeValues {
 
     @Override
     public byte[] processClass(PluginDescriptionFile pdf, String path, byte[] clazz) {
+        // Paper start - cache processed plugin classes
+        final io.papermc.paper.pluginremap.ProcessedClassCache cache = this.processedClassCache.get();
+        final Set<String> activeCompatibilities = ((CraftServer) Bukkit.getServer()).activeCompatibilities;
+        try {
+            if (cache != null) {
+                return cache.process(pdf.getName(), String.valueOf(pdf.getAPIVersion()), activeCompatibilities, clazz, bytes -> this.convertClass(pdf, bytes, activeCompatibilities));
+            }
+            return this.convertClass(pdf, clazz, activeCompatibilities);
+        } catch (Exception ex) {
+            Bukkit.getLogger().log(Level.SEVERE, "Fatal error trying to convert " + pdf.getFullName() + ":" + path, ex);
+            return clazz;
+        }
+    }
+
+    private byte[] convertClass(PluginDescriptionFile pdf, byte[] clazz, Set<String> activeCompatibilities) {
+        // Paper end - cache processed plugin classes
         // Paper start
         if (DISABLE_OLD_API_SUPPORT) {
             // Make sure we still go through our reflection rewriting if needed
             return io.papermc.paper.pluginremap.reflect.ReflectionRemapper.processClass(clazz);
         }
         // Paper end
-        try {
-            clazz = this.commodore.convert(clazz, pdf.getName(), ApiVersion.getOrCreateVersion(pdf.getAPIVersion()), ((CraftServer) Bukkit.getServer()).activeCompatibilities);
-        } catch (Exception ex) {
-            Bukkit.getLogger().log(Level.SEVERE, "Fatal error trying to convert " + pdf.getFullName() + ":" + path, ex);
-        }
-
-        return clazz;
+        return this.commodore.convert(clazz, pdf.getName(), ApiVersion.getOrCreateVersion(pdf.getAPIVersion()), activeCompatibilities); // Paper - cache processed plugin classes
     }
 
     @Override
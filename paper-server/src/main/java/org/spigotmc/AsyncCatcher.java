@@ -10,4 +10,13 @@ public class AsyncCatcher {
             throw new IllegalStateException("Asynchronous " + reason + "!");
         }
     }
+
+    // Paper start - parallel world ticking
+    public static void catchOp(net.minecraft.world.level.Level level, String reason) {
+        if (!ca.spottedleaf.moonrise.common.util.TickThread.isTickThreadFor(level)) {
+            MinecraftServer.LOGGER.error("Thread {} failed main thread check for world {}: {}", Thread.currentThread().getName(), ca.spottedleaf.moonrise.common.util.WorldUtil.getWorldName(level), reason, new Throwable());
+            throw new IllegalStateException((ca.spottedleaf.moonrise.common.util.TickThread.isTickThread() ? "Cross-world " : "Asynchronous ") + reason + "!");
+        }
+    }
+    // Paper end - parallel world ticking
 }
@@ -0,0 +1,163 @@
+package io.papermc.paper.antixray;
+
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import io.netty.buffer.Unpooled;
+import io.papermc.paper.configuration.WorldConfiguration;
+import io.papermc.paper.configuration.type.EngineMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.EmptyBlockGetter;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.bukkit.World;
+import org.bukkit.support.RegistryHelper;
+import org.bukkit.support.environment.AllFeatures;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+@AllFeatures
+public class LayerObfuscatorTest {
+
+    private static final int MIN_SECTION_Y = -4;
+    private static final int SECTIONS = 24;
+    private static final int[] SEEDS = {1, -1, 0x5DEECE66, Integer.MIN_VALUE};
+
+    public static Stream<Arguments> parameters() {
+        final List<Arguments> arguments = new ArrayList<>();
+        for (final EngineMode engineMode : EngineMode.values()) {
+            // Obfuscate only the bottom section, up to a section with solid blocks above and the whole world including the top layer
+            for (final int maxBlockHeight : new int[]{-48, 64, 320}) {
+                arguments.add(Arguments.of(engineMode, maxBlockHeight, false));
+                arguments.add(Arguments.of(engineMode, maxBlockHeight, true));
+            }
+        }
+        return arguments.stream();
+    }
+
+    @ParameterizedTest
+    @MethodSource("parameters")
+    public void testEnginesMatch(final EngineMode engineMode, final int maxBlockHeight, final boolean nearbyChunks) {
+        final Registry<Biome> biomes = RegistryHelper.getBiomes();
+
+        // Config parts are inner classes bound to the world configuration, use a stub and set the values directly
+        final WorldConfiguration.Anticheat.AntiXray config = mock(withSettings().stubOnly());
+        config.enabled = true;
+        config.engineMode = engineMode;
+        config.maxBlockHeight = maxBlockHeight;
+        config.updateRadius = 2;
+        config.lavaObscures = true;
+        config.usePermission = false;
+        config.hiddenBlocks = List.of(Blocks.DIAMOND_ORE, Blocks.DEEPSLATE_DIAMOND_ORE, Blocks.IRON_ORE, Blocks.GOLD_ORE, Blocks.CHEST);
+        config.replacementBlocks = List.of(Blocks.STONE, Blocks.OAK_PLANKS, Blocks.DEEPSLATE);
+        config.cacheObfuscatedSections = false;
+        config.obfuscatedSectionCacheSize = 0;
+        config.useVectorApi = false;
+        final ChunkPacketBlockControllerAntiXray controller = new ChunkPacketBlockControllerAntiXray(config, EmptyBlockGetter.INSTANCE, Runnable::run);
+
+        final Level level = mock(withSettings().stubOnly().defaultAnswer(RETURNS_DEEP_STUBS));
+        when(level.getWorld().getEnvironment()).thenReturn(World.Environment.NORMAL);
+
+        final SplittableRandom random = new SplittableRandom(maxBlockHeight);
+        final LevelChunk chunk = createChunk(controller, level, biomes, new ChunkPos(0, 0), random);
+        final LevelChunk[] nearby = new LevelChunk[4];
+        if (nearbyChunks) {
+            nearby[0] = createChunk(controller, level, biomes, new ChunkPos(-1, 0), random);
+            nearby[1] = createChunk(controller, level, biomes, new ChunkPos(1, 0), random);
+            nearby[2] = createChunk(controller, level, biomes, new ChunkPos(0, -1), random);
+            nearby[3] = createChunk(controller, level, biomes, new ChunkPos(0, 1), random);
+        }
+
+        final LayerObfuscator scalar = controller.createLayerObfuscator(false);
+        final LayerObfuscator vector = controller.createLayerObfuscator(true);
+        for (final int seed : SEEDS) {
+            final ChunkPacketInfoAntiXray expected = writeSections(controller, chunk, nearby);
+            final byte[] original = expected.getBuffer().clone();
+            controller.obfuscate(expected, seed, scalar);
+            Assertions.assertFalse(Arrays.equals(original, expected.getBuffer()), "Nothing was obfuscated");
+
+            final ChunkPacketInfoAntiXray actual = writeSections(controller, chunk, nearby);
+            controller.obfuscate(actual, seed, vector);
+            Assertions.assertArrayEquals(expected.getBuffer(), actual.getBuffer(), "Engines differ for seed " + seed);
+        }
+    }
+
+    private static LevelChunk createChunk(final ChunkPacketBlockControllerAntiXray controller, final Level level, final Registry<Biome> biomes, final ChunkPos chunkPos, final SplittableRandom random) {
+        final Holder<Biome> plains = biomes.getOrThrow(Biomes.PLAINS);
+        // Ores, blocks with a block entity and transparent blocks next to each other, including on the section and chunk edges
+        final BlockState[] blocks = {
+            Blocks.AIR.defaultBlockState(), Blocks.LAVA.defaultBlockState(), Blocks.GLASS.defaultBlockState(),
+            Blocks.DIAMOND_ORE.defaultBlockState(), Blocks.IRON_ORE.defaultBlockState(), Blocks.CHEST.defaultBlockState()
+        };
+        final LevelChunkSection[] sections = new LevelChunkSection[SECTIONS];
+        for (int sectionIndex = 0; sectionIndex < SECTIONS; ++sectionIndex) {
+            final int sectionY = sectionIndex + MIN_SECTION_Y;
+            final PalettedContainer<BlockState> states = new PalettedContainer<>(
+                Block.BLOCK_STATE_REGISTRY, Blocks.AIR.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES,
+                controller.getPresetBlockStates(level, chunkPos, sectionY)
+            );
+            final PalettedContainer<Holder<Biome>> biomeStates = new PalettedContainer<>(biomes.asHolderIdMap(), plains, PalettedContainer.Strategy.SECTION_BIOMES, null);
+            final LevelChunkSection section = new LevelChunkSection(states, biomeStates);
+            // Leave a few sections above the solid ones empty, and fill the top section to cover the upper edge of the world
+            if (sectionY < 5 || sectionIndex == SECTIONS - 1) {
+                final BlockState base = sectionY < 0 ? Blocks.DEEPSLATE.defaultBlockState() : Blocks.STONE.defaultBlockState();
+                for (int y = 0; y < 16; ++y) {
+                    for (int z = 0; z < 16; ++z) {
+                        for (int x = 0; x < 16; ++x) {
+                            final int roll = random.nextInt(100);
+                            section.setBlockState(x, y, z, roll < 15 ? blocks[random.nextInt(blocks.length)] : base, false);
+                        }
+                    }
+                }
+            }
+            sections[sectionIndex] = section;
+        }
+
+        final LevelChunk chunk = mock(withSettings().stubOnly());
+        when(chunk.getLevel()).thenReturn(level);
+        when(chunk.getSections()).thenReturn(sections);
+        when(chunk.getSectionsCount()).thenReturn(SECTIONS);
+        when(chunk.getMinSectionY()).thenReturn(MIN_SECTION_Y);
+        when(chunk.getPos()).thenReturn(chunkPos);
+        return chunk;
+    }
+
+    private static ChunkPacketInfoAntiXray writeSections(final ChunkPacketBlockControllerAntiXray controller, final LevelChunk chunk, final LevelChunk[] nearbyChunks) {
+        final ClientboundLevelChunkWithLightPacket packet = mock(withSettings().stubOnly());
+        final ChunkPacketInfoAntiXray info = new ChunkPacketInfoAntiXray(packet, chunk, controller);
+        final LevelChunkSection[] sections = chunk.getSections();
+        int size = 0;
+        for (final LevelChunkSection section : sections) {
+            size += section.getSerializedSize();
+        }
+        final byte[] buffer = new byte[size];
+        info.setBuffer(buffer);
+        info.setNearbyChunks(nearbyChunks);
+        final FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(buffer));
+        buf.writerIndex(0);
+        for (int i = 0; i < sections.length; ++i) {
+            sections[i].write(buf, info, i);
+        }
+        return info;
+    }
+}
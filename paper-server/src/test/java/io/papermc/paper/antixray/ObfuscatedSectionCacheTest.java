@@ -0,0 +1,124 @@
+package io.papermc.paper.antixray;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.game.ClientboundLevelChunkWithLightPacket;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.Biomes;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.bukkit.support.RegistryHelper;
+import org.bukkit.support.environment.AllFeatures;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+@AllFeatures
+public class ObfuscatedSectionCacheTest {
+
+    private static final int SECTIONS = 3;
+    private static final int NO_NEARBY_CHUNKS = 0;
+
+    @Test
+    public void testHit() {
+        final ObfuscatedSectionCache cache = new ObfuscatedSectionCache(16);
+        final LevelChunkSection section = createSection();
+        final byte[] data = {1, 2, 3};
+        cache.put(0, 1, 0, section, NO_NEARBY_CHUNKS, 5L, data);
+
+        Assertions.assertSame(data, cache.get(0, 1, 0, section, NO_NEARBY_CHUNKS, 5L));
+        Assertions.assertNull(cache.get(0, 2, 0, section, NO_NEARBY_CHUNKS, 5L), "Different position");
+        Assertions.assertNull(cache.get(0, 1, 0, createSection(), NO_NEARBY_CHUNKS, 5L), "Different section");
+        Assertions.assertNull(cache.get(0, 1, 0, section, 0b1111, 5L), "Different nearby chunks");
+    }
+
+    @Test
+    public void testInvalidatedByDirectWrites() {
+        final ObfuscatedSectionCache cache = new ObfuscatedSectionCache(16);
+        final LevelChunk chunk = createChunk();
+        final LevelChunk nearbyChunk = createChunk();
+        final LevelChunk[] nearbyChunks = {nearbyChunk, null, null, null};
+        final LevelChunkSection section = chunk.getSections()[1];
+        final byte[] data = {1, 2, 3};
+        long version = ChunkPacketBlockControllerAntiXray.getSectionVersion(writeSections(chunk), nearbyChunks, 1);
+        cache.put(0, 1, 0, section, 0b0001, version, data);
+        Assertions.assertSame(data, cache.get(0, 1, 0, section, 0b0001, ChunkPacketBlockControllerAntiXray.getSectionVersion(writeSections(chunk), nearbyChunks, 1)));
+
+        // Writes that bypass the block change hooks, without taking the lock of the block states
+        section.setBlockState(1, 2, 3, Blocks.DIAMOND_ORE.defaultBlockState(), false);
+        version = ChunkPacketBlockControllerAntiXray.getSectionVersion(writeSections(chunk), nearbyChunks, 1);
+        Assertions.assertNull(cache.get(0, 1, 0, section, 0b0001, version), "Write to the section");
+        cache.put(0, 1, 0, section, 0b0001, version, data);
+
+        // Obfuscating a section reads the edges of the sections next to it
+        chunk.getSections()[2].setBlockState(1, 0, 3, Blocks.AIR.defaultBlockState());
+        version = ChunkPacketBlockControllerAntiXray.getSectionVersion(writeSections(chunk), nearbyChunks, 1);
+        Assertions.assertNull(cache.get(0, 1, 0, section, 0b0001, version), "Write to the section above");
+        cache.put(0, 1, 0, section, 0b0001, version, data);
+
+        nearbyChunk.getSections()[1].setBlockState(15, 2, 3, Blocks.AIR.defaultBlockState());
+        version = ChunkPacketBlockControllerAntiXray.getSectionVersion(writeSections(chunk), nearbyChunks, 1);
+        Assertions.assertNull(cache.get(0, 1, 0, section, 0b0001, version), "Write to the section of a nearby chunk");
+    }
+
+    @Test
+    public void testStampRejection() {
+        final ObfuscatedSectionCache cache = new ObfuscatedSectionCache(16);
+        final LevelChunkSection section = createSection();
+        final byte[] newer = {1};
+        final byte[] older = {2};
+        cache.put(0, 1, 0, section, NO_NEARBY_CHUNKS, 7L, newer);
+        // Obfuscation of a packet created before the latest write finishing last
+        cache.put(0, 1, 0, section, NO_NEARBY_CHUNKS, 6L, older);
+
+        Assertions.assertSame(newer, cache.get(0, 1, 0, section, NO_NEARBY_CHUNKS, 7L));
+        Assertions.assertNull(cache.get(0, 1, 0, section, NO_NEARBY_CHUNKS, 6L), "Older version");
+        Assertions.assertNull(cache.get(0, 1, 0, section, NO_NEARBY_CHUNKS, 8L), "Newer version");
+
+        // A new section at the same position replaces the data regardless of its version
+        final LevelChunkSection reloaded = createSection();
+        cache.put(0, 1, 0, reloaded, NO_NEARBY_CHUNKS, 0L, older);
+        Assertions.assertSame(older, cache.get(0, 1, 0, reloaded, NO_NEARBY_CHUNKS, 0L));
+    }
+
+    private static LevelChunkSection createSection() {
+        final Registry<Biome> biomes = RegistryHelper.getBiomes();
+        final Holder<Biome> plains = biomes.getOrThrow(Biomes.PLAINS);
+        final PalettedContainer<BlockState> states = new PalettedContainer<>(Block.BLOCK_STATE_REGISTRY, Blocks.AIR.defaultBlockState(), PalettedContainer.Strategy.SECTION_STATES, null);
+        final PalettedContainer<Holder<Biome>> biomeStates = new PalettedContainer<>(biomes.asHolderIdMap(), plains, PalettedContainer.Strategy.SECTION_BIOMES, null);
+        final LevelChunkSection section = new LevelChunkSection(states, biomeStates);
+        section.setBlockState(0, 0, 0, Blocks.STONE.defaultBlockState());
+        return section;
+    }
+
+    private static LevelChunk createChunk() {
+        final LevelChunkSection[] sections = new LevelChunkSection[SECTIONS];
+        for (int i = 0; i < SECTIONS; ++i) {
+            sections[i] = createSection();
+        }
+        final LevelChunk chunk = mock(withSettings().stubOnly());
+        when(chunk.getSections()).thenReturn(sections);
+        when(chunk.getSectionsCount()).thenReturn(SECTIONS);
+        return chunk;
+    }
+
+    private static ChunkPacketInfo<BlockState> writeSections(final LevelChunk chunk) {
+        final ClientboundLevelChunkWithLightPacket packet = mock(withSettings().stubOnly());
+        final ChunkPacketInfo<BlockState> info = new ChunkPacketInfo<>(packet, chunk);
+        final LevelChunkSection[] sections = chunk.getSections();
+        final FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        for (int i = 0; i < sections.length; ++i) {
+            sections[i].write(buf, info, i);
+        }
+        return info;
+    }
+}
@@ -0,0 +1,122 @@
+package io.papermc.paper.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import net.minecraft.network.CompressionEncoder;
+import net.minecraft.network.PacketEncoder;
+import net.minecraft.network.ProtocolInfo;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.Varint21LengthFieldPrepender;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundSetTimePacket;
+import net.minecraft.network.protocol.game.ClientboundSystemChatPacket;
+import net.minecraft.network.protocol.game.GameProtocols;
+import org.bukkit.support.RegistryHelper;
+import org.bukkit.support.environment.AllFeatures;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@AllFeatures
+public class SharedPacketEncoderTest {
+
+    @Test
+    public void testKnownPipeline() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addFirst(new FlushConsolidationHandler());
+        channel.pipeline().addLast("timeout", new ChannelInboundHandlerAdapter());
+        channel.pipeline().addLast("prepender", new Varint21LengthFieldPrepender());
+        Assertions.assertTrue(SharedPacketEncoder.supportsPipeline(channel.pipeline()));
+        channel.close();
+    }
+
+    @Test
+    public void testMissingPrepender() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        Assertions.assertFalse(SharedPacketEncoder.supportsPipeline(channel.pipeline()));
+        channel.close();
+    }
+
+    @Test
+    public void testUnknownOutboundHandler() {
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast("prepender", new Varint21LengthFieldPrepender());
+        channel.pipeline().addLast("plugin_packet_listener", new ChannelOutboundHandlerAdapter());
+        Assertions.assertFalse(SharedPacketEncoder.supportsPipeline(channel.pipeline()));
+        channel.close();
+    }
+
+    // -1 is uncompressed, the packet is below a threshold of 256 and above a threshold of 0
+    @ParameterizedTest
+    @ValueSource(ints = {-1, 0, 256})
+    public void testFrameMatchesPipeline(final int threshold) {
+        final Packet<?> packet = new ClientboundSetTimePacket(123456L, 6000L, true);
+        final EmbeddedChannel channel = createChannel(threshold);
+        channel.writeOutbound(packet);
+        final byte[] expected = readOutbound(channel);
+
+        final SharedPacketEncoder encoder = new SharedPacketEncoder(packet);
+        try {
+            final ByteBuf shared = encoder.frame(channel.pipeline(), null);
+            final ByteBuf copy = encoder.frame(channel.pipeline(), channel.alloc());
+            Assertions.assertNotNull(shared);
+            Assertions.assertNotNull(copy);
+            try {
+                Assertions.assertArrayEquals(expected, ByteBufUtil.getBytes(shared));
+                Assertions.assertArrayEquals(expected, ByteBufUtil.getBytes(copy));
+            } finally {
+                shared.release();
+                copy.release();
+            }
+        } finally {
+            encoder.release();
+            channel.close();
+        }
+    }
+
+    @Test
+    public void testComponentFallsBack() {
+        final EmbeddedChannel channel = createChannel(256);
+        final SharedPacketEncoder encoder = new SharedPacketEncoder(new ClientboundSystemChatPacket(Component.literal("rendered per player"), false));
+        try {
+            Assertions.assertNull(encoder.frame(channel.pipeline(), null));
+        } finally {
+            encoder.release();
+            channel.close();
+        }
+    }
+
+    private static EmbeddedChannel createChannel(final int threshold) {
+        final ProtocolInfo<ClientGamePacketListener> protocolInfo = GameProtocols.CLIENTBOUND_TEMPLATE.bind(RegistryFriendlyByteBuf.decorator(RegistryHelper.getRegistry()));
+        // the handlers of Connection, outbound packets pass them from last to first
+        final EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast("prepender", new Varint21LengthFieldPrepender());
+        if (threshold >= 0) {
+            channel.pipeline().addLast("compress", new CompressionEncoder(threshold));
+        }
+        channel.pipeline().addLast("encoder", new PacketEncoder<>(protocolInfo));
+        return channel;
+    }
+
+    private static byte[] readOutbound(final EmbeddedChannel channel) {
+        final ByteBuf out = Unpooled.buffer();
+        try {
+            ByteBuf written;
+            while ((written = channel.readOutbound()) != null) {
+                out.writeBytes(written);
+                written.release();
+            }
+            return ByteBufUtil.getBytes(out);
+        } finally {
+            out.release();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.papermc.paper.plugin;
+
+import io.papermc.paper.plugin.manager.PaperPluginManagerImpl;
+import java.util.ArrayList;
+import java.util.List;
+import org.bukkit.Bukkit;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.support.environment.Normal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@Normal
+public class GeneratedEventDispatcherTest {
+
+    // More than enough calls for the event manager to switch to a generated dispatcher
+    private static final int CALLS = 256;
+
+    private final PaperTestPlugin plugin = new PaperTestPlugin("dispatchertest");
+    private final PaperPluginManagerImpl paperPluginManager = new PaperPluginManagerImpl(Bukkit.getServer(), null, null);
+    private final OrderListener listener = new OrderListener();
+
+    @BeforeEach
+    public void setUp() {
+        this.paperPluginManager.registerEvents(this.listener, this.plugin);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        CancellableTestEvent.getHandlerList().unregister(this.plugin);
+    }
+
+    @Test
+    public void testOrderAndCancellation() {
+        Assertions.assertTrue(CancellableTestEvent.getHandlerList().hasListeners());
+
+        for (int i = 0; i < CALLS; i++) {
+            this.listener.calls.clear();
+            CancellableTestEvent event = new CancellableTestEvent();
+            this.paperPluginManager.callEvent(event);
+
+            Assertions.assertEquals(List.of("lowest", "normal", "monitor"), this.listener.calls);
+            Assertions.assertTrue(event.isCancelled());
+        }
+    }
+
+    @Test
+    public void testDisabledPlugin() {
+        for (int i = 0; i < CALLS; i++) {
+            this.paperPluginManager.callEvent(new CancellableTestEvent());
+        }
+        this.plugin.setEnabled(false);
+        this.listener.calls.clear();
+        this.paperPluginManager.callEvent(new CancellableTestEvent());
+
+        Assertions.assertEquals(List.of(), this.listener.calls);
+    }
+
+    @Test
+    public void testUnregister() {
+        CancellableTestEvent.getHandlerList().unregister(this.plugin);
+
+        Assertions.assertFalse(CancellableTestEvent.getHandlerList().hasListeners());
+    }
+
+    public static class OrderListener implements Listener {
+        final List<String> calls = new ArrayList<>();
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void monitor(CancellableTestEvent event) {
+            this.calls.add("monitor");
+        }
+
+        @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+        public void ignoresCancelled(CancellableTestEvent event) {
+            this.calls.add("high");
+        }
+
+        @EventHandler(priority = EventPriority.NORMAL)
+        public void cancel(CancellableTestEvent event) {
+            this.calls.add("normal");
+            event.setCancelled(true);
+        }
+
+        @EventHandler(priority = EventPriority.LOWEST)
+        private void lowest(CancellableTestEvent event) {
+            this.calls.add("lowest");
+        }
+    }
+
+    public static class CancellableTestEvent extends TestEvent implements Cancellable {
+        private static final HandlerList HANDLER_LIST = new HandlerList();
+        private boolean cancelled;
+
+        public CancellableTestEvent() {
+            super(false);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        @Override
+        public void setCancelled(boolean cancel) {
+            this.cancelled = cancel;
+        }
+
+        @Override
+        public HandlerList getHandlers() {
+            return HANDLER_LIST;
+        }
+
+        public static HandlerList getHandlerList() {
+            return HANDLER_LIST;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package io.papermc.paper.pluginremap;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ProcessedClassCacheTest {
+
+    private static final byte[] CLASS = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 1, 2, 3};
+    private static final byte[] PROCESSED = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 4, 5, 6};
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void testCachedAcrossInstances() throws Exception {
+        final AtomicInteger processed = new AtomicInteger();
+        final ProcessedClassCache.Processor processor = bytes -> {
+            processed.incrementAndGet();
+            return PROCESSED;
+        };
+
+        Assertions.assertArrayEquals(PROCESSED, new ProcessedClassCache(this.root, "build").process("Test", "1.21", Set.of(), CLASS, processor));
+        Assertions.assertArrayEquals(PROCESSED, new ProcessedClassCache(this.root, "build").process("Test", "1.21", Set.of(), CLASS, processor));
+        Assertions.assertEquals(1, processed.get());
+
+        // anything the rewrite depends on misses the cache
+        new ProcessedClassCache(this.root, "build").process("Other", "1.21", Set.of(), CLASS, processor);
+        new ProcessedClassCache(this.root, "build").process("Test", "1.13", Set.of(), CLASS, processor);
+        new ProcessedClassCache(this.root, "build").process("Test", "1.21", Set.of("enum-compatibility-mode"), CLASS, processor);
+        Assertions.assertEquals(4, processed.get());
+    }
+
+    @Test
+    public void testCompatibilityOrder() {
+        Assertions.assertEquals(
+            ProcessedClassCache.key("Test", "1.21", List.of("a", "b"), CLASS),
+            ProcessedClassCache.key("Test", "1.21", List.of("b", "a"), CLASS)
+        );
+    }
+
+    @Test
+    public void testFailedProcessingNotCached() throws Exception {
+        final ProcessedClassCache cache = new ProcessedClassCache(this.root, "build");
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.process("Test", "1.21", Set.of(), CLASS, bytes -> {
+            throw new IllegalStateException();
+        }));
+        Assertions.assertArrayEquals(PROCESSED, cache.process("Test", "1.21", Set.of(), CLASS, bytes -> PROCESSED));
+    }
+
+    @Test
+    public void testUnusedEntriesDeleted() throws Exception {
+        final byte[] otherClass = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 7, 8, 9};
+        final AtomicInteger processed = new AtomicInteger();
+        final ProcessedClassCache.Processor processor = bytes -> {
+            processed.incrementAndGet();
+            return PROCESSED;
+        };
+        final ProcessedClassCache first = new ProcessedClassCache(this.root, "build");
+        first.process("Test", "1.21", Set.of(), CLASS, processor);
+        first.process("Test", "1.21", Set.of(), otherClass, processor);
+        try (final Stream<Path> files = Files.walk(this.root)) {
+            for (final Path file : files.filter(Files::isRegularFile).toList()) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(0L));
+            }
+        }
+
+        // only the first class is used during the second boot
+        new ProcessedClassCache(this.root, "build").process("Test", "1.21", Set.of(), CLASS, processor);
+        Assertions.assertEquals(2, processed.get());
+
+        final ProcessedClassCache third = new ProcessedClassCache(this.root, "build");
+        third.process("Test", "1.21", Set.of(), CLASS, processor);
+        Assertions.assertEquals(2, processed.get());
+        third.process("Test", "1.21", Set.of(), otherClass, processor);
+        Assertions.assertEquals(3, processed.get());
+    }
+
+    @Test
+    public void testOtherBuildsDeleted() throws Exception {
+        new ProcessedClassCache(this.root, "old").process("Test", "1.21", Set.of(), CLASS, bytes -> PROCESSED);
+        new ProcessedClassCache(this.root, "new");
+        try (final var files = Files.list(this.root)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.papermc.paper.util.concurrent;
+
+import io.papermc.paper.plugin.PaperTestPlugin;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PluginTaskExecutorTest {
+
+    private final PaperTestPlugin plugin = new PaperTestPlugin("executortest");
+    private final PaperTestPlugin otherPlugin = new PaperTestPlugin("otherexecutortest");
+
+    @AfterEach
+    public void tearDown() {
+        PluginTaskExecutor.configure(false, -1);
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws InterruptedException {
+        PluginTaskExecutor.configure(true, 2);
+        final PluginTaskExecutor executor = new PluginTaskExecutor(Executors.newCachedThreadPool(), "Test Virtual Thread - ");
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(11);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final Runnable task = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                running.decrementAndGet();
+                finished.countDown();
+            }
+        };
+
+        for (int i = 0; i < 10; i++) {
+            executor.execute(this.plugin, task);
+        }
+        // Other plugins are not affected by the limit of this plugin
+        executor.execute(this.otherPlugin, task);
+
+        Assertions.assertEquals(8, executor.getQueuedTasks(this.plugin));
+        Assertions.assertEquals(2, executor.getRunningTasks(this.plugin));
+        Assertions.assertEquals(0, executor.getQueuedTasks(this.otherPlugin));
+
+        release.countDown();
+        Assertions.assertTrue(finished.await(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, executor.getQueuedTasks(this.plugin));
+        Assertions.assertTrue(maxRunning.get() <= 3);
+    }
+
+    @Test
+    public void testRemovePlugin() throws InterruptedException {
+        PluginTaskExecutor.configure(false, 1);
+        final PluginTaskExecutor executor = new PluginTaskExecutor(Executors.newCachedThreadPool(), "Test Virtual Thread - ");
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(2);
+        final Runnable task = () -> {
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                throw new RuntimeException(e);
+            } finally {
+                finished.countDown();
+            }
+        };
+
+        executor.execute(this.plugin, task);
+        executor.execute(this.plugin, task);
+        Assertions.assertEquals(1, executor.getQueuedTasks(this.plugin));
+
+        executor.removePlugin(this.plugin);
+        Assertions.assertEquals(0, executor.getQueuedTasks(this.plugin));
+        Assertions.assertEquals(0, executor.getRunningTasks(this.plugin));
+
+        // The task queued before the removal still runs
+        release.countDown();
+        Assertions.assertTrue(finished.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testVirtualThreads() throws InterruptedException {
+        PluginTaskExecutor.configure(true, -1);
+        final PluginTaskExecutor executor = new PluginTaskExecutor(Executors.newCachedThreadPool(), "Test Virtual Thread - ");
+        final CountDownLatch finished = new CountDownLatch(1);
+        final AtomicInteger virtual = new AtomicInteger();
+        executor.execute(this.plugin, () -> {
+            if (Thread.currentThread().isVirtual()) {
+                virtual.incrementAndGet();
+            }
+            finished.countDown();
+        });
+
+        Assertions.assertTrue(finished.await(10, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, virtual.get());
+    }
+}
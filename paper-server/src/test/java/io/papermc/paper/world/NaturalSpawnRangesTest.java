@@ -0,0 +1,73 @@
+package io.papermc.paper.world;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.destroystokyo.paper.event.entity.PlayerNaturallySpawnCreaturesEvent;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.ChunkPos;
+import org.bukkit.entity.Player;
+import org.bukkit.support.environment.AllFeatures;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+@AllFeatures
+public class NaturalSpawnRangesTest {
+
+    @Test
+    public void testVanillaSpawnRadius() {
+        // matches the inscribed square of the 128 block spawn range of vanilla
+        Assertions.assertEquals(5, NaturalSpawnRanges.inscribedRadius(8));
+    }
+
+    @Test
+    public void testInscribedRadius() {
+        for (int spawnRadius = 0; spawnRadius <= 32; spawnRadius++) {
+            final int inscribed = NaturalSpawnRanges.inscribedRadius(spawnRadius);
+            final double range = (double) ((spawnRadius << 4) * (spawnRadius << 4));
+            for (int chunk = 0; chunk <= inscribed; chunk++) {
+                // furthest position in the center chunk from the center of the corner chunk
+                final double distance = (chunk << 4) + 8;
+                Assertions.assertTrue(distance * distance * 2.0 < range, "radius " + spawnRadius);
+            }
+            final double outside = ((inscribed + 1) << 4) + 8;
+            Assertions.assertFalse(outside * outside * 2.0 < range, "radius " + spawnRadius);
+        }
+    }
+
+    @Test
+    public void testRemoveDepartedPlayers() {
+        final List<ServerPlayer> players = new ArrayList<>();
+        final ServerLevel level = mock(withSettings().stubOnly());
+        when(level.players()).thenReturn(players);
+        final NaturalSpawnRanges ranges = new NaturalSpawnRanges(level);
+
+        final ChunkPos spawning = new ChunkPos(0, 0);
+        final ChunkPos idle = new ChunkPos(100, 100);
+        final ServerPlayer spawningPlayer = createPlayer(spawning, 8);
+        // Players without a spawn radius keep the player list as large as the tracked players
+        final ServerPlayer idlePlayer = createPlayer(idle, 0);
+        players.add(spawningPlayer);
+        players.add(idlePlayer);
+        ranges.update();
+        Assertions.assertTrue(ranges.anyPlayerCloseEnough(spawning));
+        Assertions.assertFalse(ranges.anyPlayerCloseEnough(idle));
+
+        players.remove(spawningPlayer);
+        players.add(createPlayer(idle, 0));
+        ranges.update();
+        Assertions.assertFalse(ranges.anyPlayerCloseEnough(spawning));
+        Assertions.assertFalse(ranges.anyPlayerCloseEnough(idle));
+    }
+
+    private static ServerPlayer createPlayer(final ChunkPos chunkPos, final int spawnRadius) {
+        final ServerPlayer player = mock(withSettings().stubOnly());
+        when(player.chunkPosition()).thenReturn(chunkPos);
+        player.playerNaturallySpawnedEvent = new PlayerNaturallySpawnCreaturesEvent(mock(Player.class), (byte) spawnRadius);
+        return player;
+    }
+}
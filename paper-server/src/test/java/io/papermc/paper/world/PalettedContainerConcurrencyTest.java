@@ -0,0 +1,85 @@
+package io.papermc.paper.world;
+
+import com.mojang.serialization.Codec;
+import io.netty.buffer.Unpooled;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import net.minecraft.core.IdMapper;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.nbt.Tag;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PalettedContainerConcurrencyTest {
+
+    private static final int VALUES = 16;
+    private static final int READS = 2000;
+
+    @Test
+    public void testWriteWhilePacking() throws InterruptedException {
+        final IdMapper<Integer> registry = new IdMapper<>();
+        for (int value = 0; value < VALUES; ++value) {
+            registry.add(value);
+        }
+        final PalettedContainer<Integer> container = new PalettedContainer<>(registry, 0, PalettedContainer.Strategy.SECTION_STATES, null);
+        final Codec<PalettedContainer<Integer>> codec = PalettedContainer.codecRW(registry, Codec.INT, PalettedContainer.Strategy.SECTION_STATES, 0, null);
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        // Overwrites the container in index order with the next value each pass, so any consistent read holds
+        // the new value up to some index and the previous value after it
+        final Thread writer = new Thread(() -> {
+            try {
+                for (int pass = 1; running.get(); ++pass) {
+                    final Integer value = pass % VALUES;
+                    for (int y = 0; y < 16; ++y) {
+                        for (int z = 0; z < 16; ++z) {
+                            for (int x = 0; x < 16; ++x) {
+                                container.set(x, y, z, value);
+                            }
+                        }
+                    }
+                }
+            } catch (final Throwable throwable) {
+                failure.set(throwable);
+            }
+        }, "PalettedContainer writer");
+        writer.start();
+
+        try {
+            for (int read = 0; read < READS && failure.get() == null; ++read) {
+                final FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.buffer());
+                container.write(buffer, null, 0);
+                final PalettedContainer<Integer> written = new PalettedContainer<>(registry, 0, PalettedContainer.Strategy.SECTION_STATES, null);
+                written.read(buffer);
+                assertConsistent(written);
+
+                final Tag packed = codec.encodeStart(NbtOps.INSTANCE, container).getOrThrow();
+                assertConsistent(codec.parse(NbtOps.INSTANCE, packed).getOrThrow());
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        Assertions.assertNull(failure.get(), "Writer failed");
+    }
+
+    private static void assertConsistent(final PalettedContainer<Integer> container) {
+        Integer previous = container.get(0, 0, 0);
+        int changes = 0;
+        for (int y = 0; y < 16; ++y) {
+            for (int z = 0; z < 16; ++z) {
+                for (int x = 0; x < 16; ++x) {
+                    final Integer value = container.get(x, y, z);
+                    if (!value.equals(previous)) {
+                        previous = value;
+                        ++changes;
+                    }
+                }
+            }
+        }
+        Assertions.assertTrue(changes <= 1, "Read a container mixing " + (changes + 1) + " passes of the writer");
+    }
+}
@@ -0,0 +1,77 @@
+package io.papermc.paper.world.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DeflateDictionaryTrainerTest {
+
+    private static final String[] BLOCKS = {"minecraft:stone", "minecraft:deepslate", "minecraft:dirt", "minecraft:grass_block", "minecraft:water", "minecraft:air", "minecraft:iron_ore"};
+
+    private static List<byte[]> samples(final long seed, final int count) {
+        final Random random = new Random(seed);
+        final List<byte[]> samples = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final StringBuilder builder = new StringBuilder("{DataVersion:4325,Status:\"minecraft:full\",sections:[");
+            for (int section = 0; section < 8; section++) {
+                builder.append("{Y:").append(section).append(",block_states:{palette:[");
+                for (int block = 0; block < 3; block++) {
+                    builder.append("{Name:\"").append(BLOCKS[random.nextInt(BLOCKS.length)]).append("\"},");
+                }
+                builder.append("],data:[").append(random.nextLong()).append("]},biomes:{palette:[\"minecraft:plains\"]}},");
+            }
+            builder.append("],Heightmaps:{WORLD_SURFACE:[").append(random.nextLong()).append("]}}");
+            samples.add(builder.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return samples;
+    }
+
+    private static byte[] compress(final byte[] data, final byte[] dictionary) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (final OutputStream output = dictionary == null ? new DeflaterOutputStream(compressed) : RegionDictionaries.deflate(compressed, dictionary)) {
+            output.write(data);
+        }
+        return compressed.toByteArray();
+    }
+
+    @Test
+    public void testDictionaryCompressesBetter() throws IOException {
+        final byte[] dictionary = DeflateDictionaryTrainer.train(samples(1L, 200), RegionDictionaries.MAX_SIZE);
+        Assertions.assertTrue(dictionary.length > 0);
+        Assertions.assertTrue(dictionary.length <= RegionDictionaries.MAX_SIZE);
+
+        long plain = 0L;
+        long withDictionary = 0L;
+        for (final byte[] sample : samples(2L, 50)) {
+            plain += compress(sample, null).length;
+            withDictionary += compress(sample, dictionary).length;
+        }
+        Assertions.assertTrue(withDictionary < plain, "dictionary " + withDictionary + " plain " + plain);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final byte[] dictionary = DeflateDictionaryTrainer.train(samples(3L, 100), RegionDictionaries.MAX_SIZE);
+        RegionDictionaries.register(dictionary);
+        for (final byte[] sample : samples(4L, 10)) {
+            try (final InputStream input = RegionDictionaries.inflate(new ByteArrayInputStream(compress(sample, dictionary)))) {
+                Assertions.assertArrayEquals(sample, input.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    public void testNothingShared() {
+        Assertions.assertEquals(0, DeflateDictionaryTrainer.train(List.of(), RegionDictionaries.MAX_SIZE).length);
+        Assertions.assertEquals(0, DeflateDictionaryTrainer.train(List.of(new byte[16]), RegionDictionaries.MAX_SIZE).length);
+    }
+}
@@ -0,0 +1,73 @@
+package io.papermc.paper.world.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.level.ChunkPos;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class RegionBlobStorageTest {
+
+    @Test
+    public void testBlobRoundTrip(@TempDir final Path folder) throws IOException {
+        final Random random = new Random(1L);
+        final byte[][] chunks = new byte[RegionFiles.CHUNKS][];
+        for (int index = 0; index < chunks.length; index += 3) {
+            chunks[index] = new byte[1 + random.nextInt(20000)];
+            random.nextBytes(chunks[index]);
+        }
+
+        final Path path = folder.resolve("r.0.-1" + RegionBlobStorage.EXTENSION);
+        RegionBlobStorage.writeBlob(path, chunks);
+        final byte[][] read = RegionBlobStorage.readBlob(path);
+        for (int index = 0; index < chunks.length; index++) {
+            Assertions.assertArrayEquals(chunks[index], read[index], "chunk " + index);
+        }
+
+        // rewriting replaces the file without leaving temporary files behind
+        chunks[0] = null;
+        RegionBlobStorage.writeBlob(path, chunks);
+        Assertions.assertNull(RegionBlobStorage.readBlob(path)[0]);
+        try (final Stream<Path> files = Files.list(folder)) {
+            Assertions.assertEquals(1L, files.count());
+        }
+    }
+
+    @Test
+    public void testStorageRoundTrip(@TempDir final Path folder) throws IOException {
+        final CompoundTag chunk = new CompoundTag();
+        chunk.putString("Status", "minecraft:full");
+        chunk.putLongArray("Data", new long[] {1L, 2L, 3L});
+
+        final RegionBlobStorage storage = new RegionBlobStorage(folder, false);
+        storage.write(new ChunkPos(3, -40), chunk);
+        storage.write(new ChunkPos(4, -40), chunk);
+        storage.write(new ChunkPos(4, -40), null);
+        Assertions.assertEquals(chunk, storage.read(new ChunkPos(3, -40)));
+        storage.close();
+
+        final RegionBlobStorage reopened = new RegionBlobStorage(folder, false);
+        Assertions.assertEquals(chunk, reopened.read(new ChunkPos(3, -40)));
+        Assertions.assertNull(reopened.read(new ChunkPos(4, -40)));
+        Assertions.assertNull(reopened.read(new ChunkPos(100, 100)));
+
+        // removing the last chunk of a region deletes its file
+        reopened.write(new ChunkPos(3, -40), null);
+        reopened.close();
+        try (final Stream<Path> files = Files.list(folder)) {
+            Assertions.assertEquals(0L, files.count());
+        }
+    }
+
+    @Test
+    public void testRejectsOtherFiles(@TempDir final Path folder) throws IOException {
+        final Path path = folder.resolve("r.0.0" + RegionBlobStorage.EXTENSION);
+        Files.write(path, new byte[8192]);
+        Assertions.assertThrows(IOException.class, () -> RegionBlobStorage.readBlob(path));
+    }
+}
@@ -0,0 +1,79 @@
+package org.bukkit.craftbukkit.scheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class CraftTaskWheelTest {
+
+    private static CraftTask task(final long nextRun) {
+        final CraftTask task = new CraftTask();
+        task.setNextRun(nextRun);
+        return task;
+    }
+
+    private static List<CraftTask> drain(final CraftTaskWheel wheel, final long tick) {
+        final List<CraftTask> tasks = new ArrayList<>();
+        wheel.advanceTo(tick);
+        while (wheel.isReady()) {
+            tasks.add(wheel.poll());
+        }
+        return tasks;
+    }
+
+    @Test
+    public void testTasksRunOnTheirTick() {
+        final CraftTaskWheel wheel = new CraftTaskWheel(-1);
+        final long[] delays = {0, 1, 63, 64, 65, 4095, 4096, 4097, 262144, 262145};
+        final List<CraftTask> tasks = new ArrayList<>();
+        for (final long delay : delays) {
+            final CraftTask task = task(delay);
+            tasks.add(task);
+            wheel.add(task);
+        }
+        assertEquals(delays.length, wheel.size());
+
+        for (int i = 0; i < delays.length; i++) {
+            final long tick = delays[i];
+            if (i > 0) {
+                assertTrue(drain(wheel, tick - 1).isEmpty(), "Task due at " + tick + " ran early");
+            }
+            assertEquals(List.of(tasks.get(i)), drain(wheel, tick));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testSameTickRunsInCreationOrder() {
+        final CraftTaskWheel wheel = new CraftTaskWheel(0);
+        final CraftTask first = task(100);
+        final CraftTask second = task(100);
+        final CraftTask third = task(100);
+        wheel.add(third);
+        wheel.add(first);
+        wheel.add(second);
+
+        assertEquals(List.of(first, second, third), drain(wheel, 100));
+    }
+
+    @Test
+    public void testRemove() {
+        final CraftTaskWheel wheel = new CraftTaskWheel(0);
+        final CraftTask removed = task(5000);
+        final CraftTask kept = task(5000);
+        final CraftTask ready = task(0);
+        wheel.add(removed);
+        wheel.add(kept);
+        wheel.add(ready);
+
+        assertTrue(wheel.remove(removed));
+        assertFalse(wheel.remove(removed));
+        assertTrue(wheel.remove(ready));
+        assertEquals(1, wheel.size());
+
+        wheel.removeIf(task -> false);
+        assertEquals(List.of(kept), drain(wheel, 5000));
+        assertFalse(wheel.remove(kept));
+    }
+}
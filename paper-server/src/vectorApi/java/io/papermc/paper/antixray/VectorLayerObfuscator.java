@@ -0,0 +1,133 @@
+package io.papermc.paper.antixray;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+/**
+ * Layer obfuscator that keeps the layers as 256 bit masks (bit index z * 16 + x) and updates them with the Vector API.
+ * The blocks are still read and written one by one in the same order as in {@link ScalarLayerObfuscator}, hence both produce the same result for the same random values.
+ */
+final class VectorLayerObfuscator implements LayerObfuscator {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_256;
+    // Bits of the first and last block of each line
+    private static final long LINE_START = 0x0001000100010001L;
+    private static final long LINE_END = 0x8000800080008000L;
+
+    private final ChunkPacketBlockControllerAntiXray controller;
+    // Set bits mean don't obfuscate, unset bits mean obfuscate
+    private long[] current = new long[4];
+    private long[] next = new long[4];
+    private long[] nextNext = new long[4];
+    private final long[] notObfuscatable = new long[4];
+    private final long[] candidates = new long[4];
+
+    VectorLayerObfuscator(ChunkPacketBlockControllerAntiXray controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public void resetLayers(LevelChunkSection belowChunkSection) {
+        Arrays.fill(current, -1L);
+        Arrays.fill(next, 0L);
+
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                if (controller.isTransparent(belowChunkSection, x, 15, z)) {
+                    next[z >> 2] |= 1L << ((z & 3) << 4 | x);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void nextLayer() {
+        long[] temp = current;
+        current = next;
+        next = nextNext;
+        nextNext = temp;
+    }
+
+    @Override
+    public void markTransparentAbove(LevelChunkSection aboveChunkSection) {
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                if (controller.isTransparent(aboveChunkSection, x, 0, z)) {
+                    current[z >> 2] |= 1L << ((z & 3) << 4 | x);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void obfuscateLayer(int y, BitStorageReader bitStorageReader, BitStorageWriter bitStorageWriter, boolean[] solid, boolean[] obfuscate, int[] presetBlockStateBits, LevelChunkSection[] nearbyChunkSections, IntSupplier random) {
+        long[] transparent = nextNext;
+        long[] notObfuscatable = this.notObfuscatable;
+
+        // Read the layer above, palette lookups can't be vectorized
+        for (int i = 0; i < 4; i++) {
+            long transparentBits = 0L;
+            long notObfuscatableBits = 0L;
+
+            for (int bit = 0; bit < 64; bit++) {
+                int bits = bitStorageReader.read();
+
+                if (!solid[bits]) {
+                    transparentBits |= 1L << bit;
+                }
+
+                if (!obfuscate[bits]) {
+                    notObfuscatableBits |= 1L << bit;
+                }
+            }
+
+            transparent[i] = transparentBits;
+            notObfuscatable[i] = notObfuscatableBits;
+        }
+
+        // Blocks next to transparent blocks of the layer above and blocks that shouldn't be obfuscated remain visible in the next layer
+        LongVector transparentVector = LongVector.fromArray(SPECIES, transparent, 0);
+        LongVector.fromArray(SPECIES, next, 0)
+            .or(LongVector.fromArray(SPECIES, notObfuscatable, 0))
+            .or(transparentVector.lanewise(VectorOperators.LSHR, 1).and(~LINE_END))
+            .or(transparentVector.lanewise(VectorOperators.LSHL, 1).and(~LINE_START))
+            .or(transparentVector.lanewise(VectorOperators.LSHR, 16).or(transparentVector.slice(1).lanewise(VectorOperators.LSHL, 48)))
+            .or(transparentVector.lanewise(VectorOperators.LSHL, 16).or(transparentVector.unslice(1).lanewise(VectorOperators.LSHR, 48)))
+            .intoArray(next, 0);
+        // Only solid blocks of the current layer that aren't visible can be obfuscated
+        transparentVector.or(LongVector.fromArray(SPECIES, current, 0)).not().intoArray(candidates, 0);
+
+        int index = 0;
+
+        for (int i = 0; i < 4; i++) {
+            long candidateBits = candidates[i];
+
+            while (candidateBits != 0L) {
+                int bit = Long.numberOfTrailingZeros(candidateBits);
+                candidateBits &= candidateBits - 1;
+                int blockIndex = i << 6 | bit;
+
+                if (isTransparentNearby(blockIndex & 15, y, blockIndex >>> 4, nearbyChunkSections)) {
+                    continue;
+                }
+
+                bitStorageWriter.skip(blockIndex - index);
+                bitStorageWriter.write(presetBlockStateBits[random.getAsInt()]);
+                index = blockIndex + 1;
+            }
+        }
+
+        bitStorageWriter.skip(256 - index);
+    }
+
+    private boolean isTransparentNearby(int x, int y, int z, LevelChunkSection[] nearbyChunkSections) {
+        return z == 0 && controller.isTransparent(nearbyChunkSections[2], x, y, 15)
+            || z == 15 && controller.isTransparent(nearbyChunkSections[3], x, y, 0)
+            || x == 0 && controller.isTransparent(nearbyChunkSections[0], 15, y, z)
+            || x == 15 && controller.isTransparent(nearbyChunkSections[1], 0, y, z);
+    }
+}